@@ -0,0 +1,159 @@
+package com.mashreq.conference.benchmark;
+
+import com.mashreq.conference.booking.ConferenceRoomBookingApplication;
+import com.mashreq.conference.booking.domain.ConfRoomBookingRequestDto;
+import com.mashreq.conference.booking.domain.ConfRoomBookingResponseDto;
+import com.mashreq.conference.booking.entities.BookingDetails;
+import com.mashreq.conference.booking.index.RoomAvailabilityIndex;
+import com.mashreq.conference.booking.index.RoomCapacityIndex;
+import com.mashreq.conference.booking.repo.BookingDetailsRepository;
+import com.mashreq.conference.booking.service.ConferenceBookingService;
+import com.mashreq.conference.booking.validator.RequestValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of the booking API against a synthetic catalog on H2. Run with {@code mvn -Pbenchmark verify -DskipTests};
+ * the gc profiler adds allocation rate per operation next to throughput and sampled latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class BookingHotPathBenchmark {
+
+    private static final int INSERT_BATCH = 10_000;
+
+    @Param({"10", "10000", "100000"})
+    public int rooms;
+
+    @Param({"0", "1000000"})
+    public int bookings;
+
+    private ConfigurableApplicationContext context;
+    private RequestValidator requestValidator;
+    private ConferenceBookingService conferenceBookingService;
+    private BookingDetailsRepository bookingDetailsRepository;
+    private RoomAvailabilityIndex roomAvailabilityIndex;
+
+    private final LocalDate tomorrow = LocalDate.now().plusDays(1);
+
+    private ConfRoomBookingRequestDto bookingRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ConferenceRoomBookingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + rooms + "-" + bookings,
+                        "conference-room.expiry.poll-interval-ms=3600000",
+                        "logging.level.root=WARN")
+                .run();
+
+        requestValidator = context.getBean(RequestValidator.class);
+        conferenceBookingService = context.getBean(ConferenceBookingService.class);
+        bookingDetailsRepository = context.getBean(BookingDetailsRepository.class);
+        roomAvailabilityIndex = context.getBean(RoomAvailabilityIndex.class);
+
+        loadCatalog(context.getBean(JdbcTemplate.class));
+        context.getBean(RoomCapacityIndex.class).reload();
+        roomAvailabilityIndex.reload();
+
+        // Tomorrow, so the slot is bookable whatever time the benchmark runs
+        bookingRequest = ConfRoomBookingRequestDto.builder()
+                .userId("benchmark")
+                .date(tomorrow.toString())
+                .startTime("10:00")
+                .endTime("10:15")
+                .numberOfPeople(2)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean validateBookingRequest() {
+        return requestValidator.validateBookingRequest(bookingRequest);
+    }
+
+    // Each booking is deleted again so the slot never runs dry; the delete is part of the measured cost
+    @Benchmark
+    public ConfRoomBookingResponseDto bookRoom() {
+        var response = conferenceBookingService.bookRoom(bookingRequest);
+        var bookingDetails = (BookingDetails) response.getResponse();
+        bookingDetailsRepository.deleteById(bookingDetails.getId());
+        roomAvailabilityIndex.release(bookingDetails.getConferenceRoom().getId(), bookingDetails.getBookingDate(),
+                bookingDetails.getFromMinute(), bookingDetails.getToMinute());
+        return response;
+    }
+
+    @Benchmark
+    public ConfRoomBookingResponseDto fetchListOfAvailableRooms() {
+        return conferenceBookingService.fetchListOfAvailableRooms(tomorrow.toString(), "10:00", "11:00");
+    }
+
+    @Benchmark
+    public ConfRoomBookingResponseDto findEarliestSlots() {
+        return conferenceBookingService.findEarliestSlots(tomorrow.toString(), 6, 60, "08:00", "18:00", 10);
+    }
+
+    private void loadCatalog(JdbcTemplate jdbcTemplate) {
+        var random = new Random(42);
+
+        jdbcTemplate.update("DELETE FROM SLOT_CLAIM");
+
+        jdbcTemplate.update("DELETE FROM BOOKING_DETAILS");
+        jdbcTemplate.update("DELETE FROM CONFERENCE_ROOM");
+
+        var roomRows = new ArrayList<Object[]>(INSERT_BATCH);
+        for (int i = 0; i < rooms; i++) {
+            roomRows.add(new Object[]{"Room-" + i, 2 + random.nextInt(30)});
+            if(roomRows.size() == INSERT_BATCH || i == rooms - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO CONFERENCE_ROOM(name, capacity) VALUES (?, ?)", roomRows);
+                roomRows.clear();
+            }
+        }
+
+        List<Long> roomIds = jdbcTemplate.queryForList("SELECT id FROM CONFERENCE_ROOM ORDER BY id", Long.class);
+
+        // Explicit ids far above the pooled sequence range used by the application
+        var bookingRows = new ArrayList<Object[]>(INSERT_BATCH);
+        for (int i = 0; i < bookings; i++) {
+            int fromSlot = random.nextInt(92);
+            bookingRows.add(new Object[]{1_000_000_000L + i, "user-" + random.nextInt(1_000), fromSlot * 15,
+                    (fromSlot + 1 + random.nextInt(4)) * 15, 2, tomorrow.plusDays(random.nextInt(7) - 1),
+                    roomIds.get(random.nextInt(roomIds.size()))});
+            if(bookingRows.size() == INSERT_BATCH || i == bookings - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO BOOKING_DETAILS(id, booked_by, from_minute, to_minute, " +
+                        "number_of_people, booking_date, conference_room_id) VALUES (?, ?, ?, ?, ?, ?, ?)", bookingRows);
+                bookingRows.clear();
+            }
+        }
+    }
+}
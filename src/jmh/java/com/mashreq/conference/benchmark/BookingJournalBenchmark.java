@@ -0,0 +1,164 @@
+package com.mashreq.conference.benchmark;
+
+import com.mashreq.conference.booking.ConferenceRoomBookingApplication;
+import com.mashreq.conference.booking.journal.BookingJournal;
+import com.mashreq.conference.booking.journal.JournalEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * The booking journal on its own and behind a restart. appendAndAwait measures durable appends from four writers
+ * with and without a group commit window; restartToReady measures a cold start of the application that replays
+ * 1M bookings, either from the journal alone or from a snapshot of the same state.
+ * Run with {@code mvn -Pbenchmark verify -DskipTests -Djmh.args="BookingJournalBenchmark"}.
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BookingJournalBenchmark {
+
+    private static final int ROOMS = 1_000;
+    private static final int BOOKINGS = 1_000_000;
+
+    @State(Scope.Benchmark)
+    public static class Writer {
+
+        @Param({"0", "500"})
+        public long groupCommitMicros;
+
+        private Path directory;
+        private BookingJournal journal;
+        private final AtomicLong bookingIds = new AtomicLong();
+        private final long epochDay = LocalDate.now().plusDays(1).toEpochDay();
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("journal-writer");
+            journal = BookingJournal.open(directory, 64 * 1024 * 1024, groupCommitMicros, x -> {});
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            journal.close();
+            delete(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Restart {
+
+        @Param({"journal", "snapshot"})
+        public String source;
+
+        private Path prepared;
+        private Path directory;
+        private ConfigurableApplicationContext context;
+        private int starts;
+
+        // Written once per trial; every start gets its own copy since shutting down writes a snapshot
+        @Setup(Level.Trial)
+        public void prepare() throws IOException {
+            prepared = Files.createTempDirectory("journal-prepared");
+            try (var journal = BookingJournal.open(prepared, 64 * 1024 * 1024, 0, x -> {})) {
+                var lsn = new AtomicLong();
+                events(x -> lsn.set(journal.append(x)));
+                journal.await(lsn.get());
+                if("snapshot".equals(source))
+                    journal.writeSnapshot(lsn.get(), BookingJournalBenchmark::events);
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void copy() throws IOException {
+            directory = Files.createTempDirectory("journal-restart");
+            try (Stream<Path> files = Files.list(prepared)) {
+                for (Path file : files.toList())
+                    Files.copy(file, directory.resolve(file.getFileName()));
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void stop() throws IOException {
+            context.close();
+            delete(directory);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            delete(prepared);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 3, time = 2)
+    public long appendAndAwait(Writer writer) {
+        long bookingId = writer.bookingIds.incrementAndGet();
+        return writer.journal.appendAndAwait(JournalEvent.booked(bookingId, 1 + bookingId % ROOMS, writer.epochDay,
+                600, 615, 2, "benchmark"));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public ConfigurableApplicationContext restartToReady(Restart restart) {
+        restart.context = new SpringApplicationBuilder(ConferenceRoomBookingApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:journal-restart-" + restart.starts++,
+                        "--conference-room.expiry.poll-interval-ms=3600000",
+                        "--conference-room.journal.enabled=true",
+                        "--conference-room.journal.directory=" + restart.directory,
+                        "--conference-room.journal.snapshot-interval-ms=3600000",
+                        "--logging.level.root=WARN");
+        return restart.context;
+    }
+
+    // A catalog of rooms followed by a week of bookings spread over them, the same on every call
+    private static void events(Consumer<JournalEvent> sink) {
+        for (int i = 1; i <= ROOMS; i++)
+            sink.accept(JournalEvent.room(i, "Room-" + i, 2 + i % 30, false));
+        var random = new Random(42);
+        long today = LocalDate.now().toEpochDay();
+        for (int i = 1; i <= BOOKINGS; i++) {
+            int fromSlot = random.nextInt(92);
+            sink.accept(JournalEvent.booked(i, 1 + random.nextInt(ROOMS), today + random.nextInt(7), fromSlot * 15,
+                    (fromSlot + 1 + random.nextInt(4)) * 15, 2, "user-" + random.nextInt(1_000)));
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.mashreq.conference.benchmark;
+
+import com.mashreq.conference.booking.ConferenceRoomBookingApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from launching a fresh JVM to the first POST /conference/book answered with 200. baseline starts the
+ * default configuration; profile adds the fast-startup Spring profile; aot-cds adds the AOT-processed beans and
+ * the CDS archive on top. Every mode runs the same thin jar and classpath, so it needs the artifacts of
+ * {@code mvn -Pbenchmark,fast-startup verify -DskipTests -Djmh.args="StartupBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final Path STARTUP = Path.of("target", "startup");
+    private static final long POLL_MILLIS = 5;
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(2);
+
+    @Param({"baseline", "profile", "aot-cds"})
+    public String mode;
+
+    private List<String> command;
+    private HttpRequest bookRequest;
+    private HttpClient httpClient;
+    private Process process;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        var classpathFile = STARTUP.resolve("classpath.txt");
+        var archive = STARTUP.resolve("application.jsa");
+        if(!Files.exists(classpathFile) || !Files.exists(archive))
+            throw new IllegalStateException("No startup artifacts under " + STARTUP.toAbsolutePath()
+                    + ", build with -Pbenchmark,fast-startup");
+
+        try (var jars = Files.list(Path.of("target"))) {
+            var jar = jars.filter(x -> x.getFileName().toString().matches(".*-SNAPSHOT\\.jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No application jar under target"));
+            command = new ArrayList<>(List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+            if("aot-cds".equals(mode))
+                command.addAll(List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true"));
+            command.addAll(List.of("-cp", jar.toAbsolutePath() + File.pathSeparator
+                    + Files.readString(classpathFile).trim(), ConferenceRoomBookingApplication.class.getName()));
+            if(!"baseline".equals(mode))
+                command.add("--spring.profiles.active=fast-startup");
+        }
+
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+    }
+
+    // A free port per start, so a process that is still shutting down never answers for the next one
+    @Setup(Level.Iteration)
+    public void pickPort() throws IOException {
+        int port;
+        try (var socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        var body = String.format("{\"userId\":\"startup\",\"date\":\"%s\",\"startTime\":\"10:00\",\"endTime\":\"10:15\",\"numberOfPeople\":2}",
+                LocalDate.now().plusDays(1));
+        bookRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/conference/book"))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(5))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() throws InterruptedException {
+        process.destroy();
+        if(!process.waitFor(30, TimeUnit.SECONDS))
+            process.destroyForcibly().waitFor();
+    }
+
+    @Benchmark
+    public int timeToFirstBooking() throws Exception {
+        var args = new ArrayList<>(command);
+        args.add("--server.port=" + bookRequest.uri().getPort());
+        process = new ProcessBuilder(args)
+                .redirectErrorStream(true)
+                .redirectOutput(STARTUP.resolve("startup-" + mode + ".log").toFile())
+                .start();
+
+        long deadline = System.nanoTime() + START_TIMEOUT.toNanos();
+        while(System.nanoTime() < deadline) {
+            if(!process.isAlive())
+                throw new IllegalStateException("Application exited with " + process.exitValue() + ", see startup-" + mode + ".log");
+            try {
+                int status = httpClient.send(bookRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if(status == 200)
+                    return status;
+            } catch (IOException ex) {
+                // not listening yet
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+        throw new IllegalStateException("No successful booking within " + START_TIMEOUT);
+    }
+}
@@ -0,0 +1,96 @@
+package com.mashreq.conference.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings of one harness run, from {@code --name=value} arguments. Arguments starting with --spring.,
+ * --server., --management., --logging. or --conference-room. are handed to the application instead, so a run
+ * can also change the configuration under test.
+ */
+record HarnessOptions(List<Double> rates, Duration levelDuration, Duration warmup, int bookWeight,
+                      int availabilityWeight, boolean poisson, int rooms, int maxInFlight, long seed, String label,
+                      Path outputDirectory, Path baseline, List<String> applicationArgs) {
+
+    private static final List<String> APPLICATION_PREFIXES =
+            List.of("--spring.", "--server.", "--management.", "--conference-room.", "--logging.");
+
+    static HarnessOptions parse(String[] args) {
+        var values = new LinkedHashMap<String, String>();
+        var applicationArgs = new ArrayList<String>();
+        for (String arg : args) {
+            if(APPLICATION_PREFIXES.stream().anyMatch(arg::startsWith)) {
+                applicationArgs.add(arg);
+                continue;
+            }
+            if(!arg.startsWith("--") || !arg.contains("="))
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            var nameAndValue = arg.substring(2).split("=", 2);
+            values.put(nameAndValue[0], nameAndValue[1]);
+        }
+
+        var mix = mix(values.getOrDefault("mix", "book=20,availability=80"));
+        var arrivals = values.getOrDefault("arrivals", "poisson");
+        if(!arrivals.equals("poisson") && !arrivals.equals("uniform"))
+            throw new IllegalArgumentException("--arrivals should be poisson or uniform");
+
+        var options = new HarnessOptions(
+                Arrays.stream(values.getOrDefault("rates", "50,100,200").split(",")).map(x -> Double.valueOf(x.trim())).toList(),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "20"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "10"))),
+                mix.getOrDefault("book", 0),
+                mix.getOrDefault("availability", 0),
+                arrivals.equals("poisson"),
+                Integer.parseInt(values.getOrDefault("rooms", "500")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "512")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                values.getOrDefault("label", "current"),
+                Path.of(values.getOrDefault("out", "target/load-harness")),
+                values.containsKey("baseline") ? Path.of(values.get("baseline")) : null,
+                List.copyOf(applicationArgs));
+
+        values.keySet().removeAll(List.of("rates", "duration", "warmup", "mix", "arrivals", "rooms", "max-in-flight",
+                "seed", "label", "out", "baseline"));
+        if(!values.isEmpty())
+            throw new IllegalArgumentException("Unknown options " + values.keySet());
+        if(options.rates.stream().anyMatch(x -> x <= 0))
+            throw new IllegalArgumentException("--rates should all be above 0");
+        if(options.bookWeight + options.availabilityWeight <= 0)
+            throw new IllegalArgumentException("--mix needs a positive weight for book or availability");
+        return options;
+    }
+
+    // Only what shapes the load goes into the report, so two runs compare like with like
+    Map<String, Object> describe() {
+        var settings = new LinkedHashMap<String, Object>();
+        settings.put("rates", rates);
+        settings.put("levelSeconds", levelDuration.toSeconds());
+        settings.put("warmupSeconds", warmup.toSeconds());
+        var mix = new LinkedHashMap<String, Integer>();
+        mix.put("book", bookWeight);
+        mix.put("availability", availabilityWeight);
+        settings.put("mix", mix);
+        settings.put("arrivals", poisson ? "poisson" : "uniform");
+        settings.put("rooms", rooms);
+        settings.put("maxInFlight", maxInFlight);
+        settings.put("seed", seed);
+        settings.put("applicationArgs", applicationArgs);
+        return settings;
+    }
+
+    private static Map<String, Integer> mix(String mix) {
+        var weights = new LinkedHashMap<String, Integer>();
+        for (String entry : mix.split(",")) {
+            var nameAndWeight = entry.split("[=:]", 2);
+            if(nameAndWeight.length != 2 || !List.of("book", "availability").contains(nameAndWeight[0].trim()))
+                throw new IllegalArgumentException("--mix should look like book=20,availability=80");
+            weights.put(nameAndWeight[0].trim(), Integer.valueOf(nameAndWeight[1].trim()));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,160 @@
+package com.mashreq.conference.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mashreq.conference.load.Workload.Operation;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Writes a run as {@code <label>.json} with p50/p90/p99/p999/max and throughput per rate and operation, plus
+ * one {@code .hgrm} percentile distribution per histogram for the HdrHistogram plotter. Keys keep a fixed
+ * order, so reports from two builds diff line by line; with a baseline report the summary also prints the
+ * change against it.
+ */
+final class LatencyReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    private final HarnessOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final Map<String, Object> report = new LinkedHashMap<>();
+    private final List<Map<String, Object>> levels = new ArrayList<>();
+
+    LatencyReport(HarnessOptions options) {
+        this.options = options;
+        report.put("label", options.label());
+        report.put("startedAt", Instant.now().toString());
+        report.put("java", Runtime.version().toString());
+        report.put("processors", Runtime.getRuntime().availableProcessors());
+        report.put("settings", options.describe());
+        report.put("levels", levels);
+    }
+
+    // maxSendLagMillis is how far behind schedule the harness got; the latencies already include it
+    void add(LevelRecorder recorder, double elapsedSeconds, double maxSendLagMillis) throws IOException {
+        var operations = new LinkedHashMap<String, Object>();
+        for (Operation operation : Operation.values()) {
+            var results = recorder.results(operation);
+            if(results.requests() == 0)
+                continue;
+
+            var summary = new LinkedHashMap<String, Object>();
+            summary.put("requests", results.requests());
+            summary.put("succeeded", results.succeeded.sum());
+            summary.put("throughput", round(results.succeeded.sum() / elapsedSeconds));
+            summary.put("failures", results.failureCounts());
+            summary.put("latencyMillis", percentiles(results.latency));
+            summary.put("serviceTimeMillis", percentiles(results.serviceTime));
+            operations.put(operation.label, summary);
+
+            writeDistribution(results.latency, operation.label + "-" + rate(recorder.targetRate()));
+            writeDistribution(results.serviceTime, operation.label + "-" + rate(recorder.targetRate()) + "-service");
+        }
+
+        var level = new LinkedHashMap<String, Object>();
+        level.put("targetRate", recorder.targetRate());
+        level.put("elapsedSeconds", round(elapsedSeconds));
+        level.put("maxSendLagMillis", round(maxSendLagMillis));
+        level.put("operations", operations);
+        levels.add(level);
+    }
+
+    Path write() throws IOException {
+        Files.createDirectories(options.outputDirectory());
+        var file = options.outputDirectory().resolve(options.label() + ".json");
+        objectMapper.writeValue(file.toFile(), report);
+        return file;
+    }
+
+    void print(PrintStream out) throws IOException {
+        var baseline = Objects.isNull(options.baseline()) ? null : objectMapper.readTree(options.baseline().toFile());
+
+        out.printf("%n%s: latency from the scheduled send time, in ms%n", options.label());
+        out.printf("%8s %-13s %9s %9s %9s %9s %9s %9s %s%n", "rate/s", "operation", "req/s", "p50", "p90", "p99",
+                "p999", "max", "failures");
+        for (Map<String, Object> level : levels) {
+            double targetRate = (double) level.get("targetRate");
+            var operations = asMap(level.get("operations"));
+            for (var entry : operations.entrySet()) {
+                var summary = asMap(entry.getValue());
+                var latency = asMap(summary.get("latencyMillis"));
+                out.printf("%8s %-13s %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %s%n", rate(targetRate), entry.getKey(),
+                        summary.get("throughput"), latency.get("p50"), latency.get("p90"), latency.get("p99"),
+                        latency.get("p999"), latency.get("max"), summary.get("failures"));
+
+                var baselineSummary = baselineSummary(baseline, targetRate, entry.getKey());
+                if(Objects.nonNull(baselineSummary)) {
+                    var baselineLatency = baselineSummary.get("latencyMillis");
+                    out.printf("%8s %-13s %9s %9s %9s %9s %9s %9s%n", "", "  vs " + baseline.get("label").asText(),
+                            change((double) summary.get("throughput"), baselineSummary.get("throughput").asDouble()),
+                            change((double) latency.get("p50"), baselineLatency.get("p50").asDouble()),
+                            change((double) latency.get("p90"), baselineLatency.get("p90").asDouble()),
+                            change((double) latency.get("p99"), baselineLatency.get("p99").asDouble()),
+                            change((double) latency.get("p999"), baselineLatency.get("p999").asDouble()),
+                            change((double) latency.get("max"), baselineLatency.get("max").asDouble()));
+                }
+            }
+        }
+    }
+
+    private void writeDistribution(Histogram histogram, String name) throws IOException {
+        Files.createDirectories(options.outputDirectory());
+        var file = options.outputDirectory().resolve(options.label() + "-" + name + ".hgrm");
+        try (var out = new PrintStream(Files.newOutputStream(file))) {
+            // Recorded in microseconds, written in milliseconds
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static Map<String, Object> percentiles(Histogram histogram) {
+        var percentiles = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < PERCENTILES.length; i++)
+            percentiles.put(PERCENTILE_NAMES[i], round(histogram.getValueAtPercentile(PERCENTILES[i]) / 1000.0));
+        percentiles.put("max", round(histogram.getMaxValue() / 1000.0));
+        percentiles.put("mean", round(histogram.getMean() / 1000.0));
+        return percentiles;
+    }
+
+    private static JsonNode baselineSummary(JsonNode baseline, double targetRate, String operation) {
+        if(Objects.isNull(baseline))
+            return null;
+        for (JsonNode level : baseline.path("levels"))
+            if(level.path("targetRate").asDouble() == targetRate && level.path("operations").has(operation))
+                return level.path("operations").get(operation);
+        return null;
+    }
+
+    private static String change(double current, double baseline) {
+        if(baseline == 0)
+            return "n/a";
+        return String.format("%+.1f%%", (current - baseline) * 100 / baseline);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    // 50.0 as 50, so file names and the table read like the --rates option
+    static String rate(double rate) {
+        return BigDecimal.valueOf(rate).stripTrailingZeros().toPlainString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) {
+        return (Map<String, Object>) value;
+    }
+}
@@ -0,0 +1,69 @@
+package com.mashreq.conference.load;
+
+import com.mashreq.conference.load.Workload.Operation;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies of one arrival rate, per operation, in microseconds. {@code latency} runs from the time the
+ * schedule said a request should go out, so a server that stalls is charged for every request that queued
+ * behind the stall, including those the harness itself could only send late; {@code serviceTime} runs from
+ * the actual send, which is what a closed-loop client would report.
+ */
+final class LevelRecorder {
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final double targetRate;
+    private final Map<Operation, Results> results = new EnumMap<>(Operation.class);
+
+    LevelRecorder(double targetRate) {
+        this.targetRate = targetRate;
+        for (Operation operation : Operation.values())
+            results.put(operation, new Results());
+    }
+
+    double targetRate() {
+        return targetRate;
+    }
+
+    Results results(Operation operation) {
+        return results.get(operation);
+    }
+
+    // outcome is the status code, or the exception for requests that got no response
+    void record(Operation operation, long intendedNanos, long sentNanos, long completedNanos, String outcome) {
+        var operationResults = results.get(operation);
+        operationResults.latency.recordValue(Math.min(HIGHEST_MICROS, (completedNanos - intendedNanos) / 1_000));
+        operationResults.serviceTime.recordValue(Math.min(HIGHEST_MICROS, (completedNanos - sentNanos) / 1_000));
+        if("200".equals(outcome))
+            operationResults.succeeded.increment();
+        else
+            operationResults.failures.computeIfAbsent(outcome, x -> new LongAdder()).increment();
+    }
+
+    static final class Results {
+
+        final Histogram latency = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+        final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+        final LongAdder succeeded = new LongAdder();
+        final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+        long requests() {
+            return latency.getTotalCount();
+        }
+
+        Map<String, Long> failureCounts() {
+            var counts = new TreeMap<String, Long>();
+            failures.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+            return counts;
+        }
+    }
+}
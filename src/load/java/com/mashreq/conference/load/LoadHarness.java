@@ -0,0 +1,169 @@
+package com.mashreq.conference.load;
+
+import com.mashreq.conference.booking.ConferenceRoomBookingApplication;
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.index.MaintenanceWindows;
+import com.mashreq.conference.booking.index.RoomAvailabilityIndex;
+import com.mashreq.conference.booking.index.RoomCapacityIndex;
+import com.mashreq.conference.booking.service.OccupancyAnalytics;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load against the application on its embedded Tomcat: requests leave on a fixed schedule of
+ * --rates arrivals per second, Poisson or evenly spaced, whether or not earlier ones have been answered, mixing
+ * POST /conference/book and GET /conference by --mix. Each rate runs for --duration seconds on an emptied
+ * booking table after a --warmup at the first rate, and the run ends with a {@link LatencyReport}.
+ * <pre>
+ * mvn -Pload-harness verify -DskipTests -Dload.args="--rates=100,200,400 --label=main"
+ * mvn -Pload-harness verify -DskipTests -Dload.args="--rates=100,200,400 --label=branch --baseline=target/load-harness/main.json"
+ * </pre>
+ */
+public final class LoadHarness {
+
+    private static final List<String> APPLICATION_DEFAULTS = List.of(
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:load-harness",
+            "--spring.jpa.show-sql=false",
+            "--conference-room.expiry.poll-interval-ms=3600000",
+            "--logging.level.root=WARN");
+    private static final Duration DRAIN_TIMEOUT = Duration.ofMinutes(1);
+
+    private LoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var options = HarnessOptions.parse(args);
+
+        try (var context = (ServletWebServerApplicationContext) SpringApplication.run(
+                ConferenceRoomBookingApplication.class, applicationArgs(options))) {
+
+            seedRooms(context, options.rooms());
+            var properties = context.getBean(ConferenceRoomProperties.class);
+            var workload = new Workload("http://localhost:" + context.getWebServer().getPort(), options,
+                    properties.getBooking().getInterval(), properties.getBooking().getLookAheadDays(),
+                    context.getBean(MaintenanceWindows.class));
+            var arrivals = new SplittableRandom(options.seed());
+            ExecutorService completions = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+            var httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(completions)
+                    .build();
+
+            try {
+                if(!options.warmup().isZero()) {
+                    System.out.printf("warmup: %s/s for %d s%n", LatencyReport.rate(options.rates().get(0)), options.warmup().toSeconds());
+                    runLevel(httpClient, workload, arrivals, options, options.rates().get(0), options.warmup());
+                }
+
+                var report = new LatencyReport(options);
+                for (double rate : options.rates()) {
+                    resetBookings(context);
+                    System.out.printf("level: %s/s for %d s%n", LatencyReport.rate(rate), options.levelDuration().toSeconds());
+                    var level = runLevel(httpClient, workload, arrivals, options, rate, options.levelDuration());
+                    report.add(level.recorder(), level.elapsedSeconds(), level.maxSendLagMillis());
+                }
+                report.print(System.out);
+                System.out.printf("%nreport written to %s%n", report.write().toAbsolutePath());
+            } finally {
+                completions.shutdown();
+            }
+        }
+    }
+
+    // Sends on schedule; a request that has to wait for an in-flight permit keeps its scheduled time, so the wait
+    // shows up in its latency instead of silently lowering the arrival rate
+    private static LevelRun runLevel(HttpClient httpClient, Workload workload, SplittableRandom arrivals,
+                                     HarnessOptions options, double rate, Duration duration) throws InterruptedException {
+        var recorder = new LevelRecorder(rate);
+        var inFlight = new Semaphore(options.maxInFlight());
+        var maxSendLag = new AtomicLong();
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        double offsetNanos = 0;
+
+        for (long scheduled = start; scheduled < end; scheduled = start + (long) offsetNanos) {
+            long wait;
+            while((wait = scheduled - System.nanoTime()) > 0)
+                LockSupport.parkNanos(wait);
+            inFlight.acquire();
+
+            var call = workload.next();
+            long intended = scheduled;
+            long sent = System.nanoTime();
+            maxSendLag.accumulateAndGet(sent - intended, Math::max);
+            httpClient.sendAsync(call.request(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        recorder.record(call.operation(), intended, sent, System.nanoTime(),
+                                Objects.isNull(failure) ? String.valueOf(response.statusCode()) : outcome(failure));
+                        inFlight.release();
+                    });
+
+            offsetNanos += options.poisson()
+                    ? -Math.log(1 - arrivals.nextDouble()) * meanIntervalNanos
+                    : meanIntervalNanos;
+        }
+
+        if(!inFlight.tryAcquire(options.maxInFlight(), DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS))
+            System.out.printf("%d requests still unanswered after %d s%n",
+                    options.maxInFlight() - inFlight.availablePermits(), DRAIN_TIMEOUT.toSeconds());
+        double elapsedSeconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+        return new LevelRun(recorder, elapsedSeconds, maxSendLag.get() / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private static String[] applicationArgs(HarnessOptions options) {
+        // The same property twice would reach Spring as a comma-separated list, so the caller's value replaces the default
+        var args = new LinkedHashMap<String, String>();
+        for (String arg : APPLICATION_DEFAULTS)
+            args.put(arg.split("=", 2)[0], arg);
+        for (String arg : options.applicationArgs())
+            args.put(arg.split("=", 2)[0], arg);
+        return args.values().toArray(new String[0]);
+    }
+
+    private static void seedRooms(ServletWebServerApplicationContext context, int rooms) {
+        var jdbcTemplate = context.getBean(JdbcTemplate.class);
+        int existingRooms = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM CONFERENCE_ROOM", Integer.class);
+        var rows = new ArrayList<Object[]>();
+        for (int i = existingRooms; i < rooms; i++)
+            rows.add(new Object[]{"Harness-" + i, 2 + i % 18});
+        jdbcTemplate.batchUpdate("INSERT INTO CONFERENCE_ROOM(name, capacity) VALUES (?, ?)", rows);
+    }
+
+    // Every rate starts from the same empty booking table
+    private static void resetBookings(ServletWebServerApplicationContext context) {
+        var jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("DELETE FROM SLOT_CLAIM");
+        jdbcTemplate.update("DELETE FROM BOOKING_DETAILS");
+        jdbcTemplate.update("UPDATE CONFERENCE_ROOM SET status = 'AVAILABLE'");
+        context.getBean(RoomCapacityIndex.class).reload();
+        context.getBean(RoomAvailabilityIndex.class).reload();
+        context.getBean(OccupancyAnalytics.class).reload();
+    }
+
+    private static String outcome(Throwable failure) {
+        var cause = failure instanceof CompletionException && Objects.nonNull(failure.getCause()) ? failure.getCause() : failure;
+        return cause.getClass().getSimpleName();
+    }
+
+    private record LevelRun(LevelRecorder recorder, double elapsedSeconds, double maxSendLagMillis) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.mashreq.conference.load;
+
+import com.mashreq.conference.booking.index.MaintenanceWindows;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The request mix, drawn from a seeded generator so two runs with the same options send the same sequence.
+ * Bookings come from a new user each, so only the global in-flight limit of admission control applies, and
+ * spread over the look-ahead days and every bookable slot, so the catalog does not run out of rooms.
+ */
+final class Workload {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final int FIRST_START_MINUTE = 8 * 60;
+    private static final int LAST_END_MINUTE = 20 * 60;
+    private static final int MIN_PEOPLE = 2;
+    private static final int MAX_PEOPLE = 10;
+
+    enum Operation {
+        BOOK("book"),
+        AVAILABILITY("availability");
+
+        final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+    }
+
+    record Call(Operation operation, HttpRequest request) {
+    }
+
+    private final String baseUrl;
+    private final int bookWeight;
+    private final int totalWeight;
+    private final int lookAheadDays;
+    private final int interval;
+    private final List<Integer> startMinutes = new ArrayList<>();
+    private final SplittableRandom random;
+    private final LocalDate today = LocalDate.now();
+    private long bookings;
+
+    Workload(String baseUrl, HarnessOptions options, int interval, int lookAheadDays, MaintenanceWindows maintenanceWindows) {
+        this.baseUrl = baseUrl;
+        this.bookWeight = options.bookWeight();
+        this.totalWeight = options.bookWeight() + options.availabilityWeight();
+        this.lookAheadDays = lookAheadDays;
+        this.interval = interval;
+        this.random = new SplittableRandom(options.seed());
+        // Start times from which even the longest booking clears every maintenance window
+        for (int minute = FIRST_START_MINUTE; minute + 4 * interval <= LAST_END_MINUTE; minute += interval)
+            if(!maintenanceWindows.overlaps(minute, minute + 4 * interval))
+                startMinutes.add(minute);
+    }
+
+    // Only the scheduler thread calls this
+    Call next() {
+        var date = today.plusDays(1 + random.nextInt(lookAheadDays));
+        int start = startMinutes.get(random.nextInt(startMinutes.size()));
+        int end = start + interval * (1 + random.nextInt(4));
+
+        if(random.nextInt(totalWeight) < bookWeight) {
+            int numberOfPeople = MIN_PEOPLE + random.nextInt(MAX_PEOPLE - MIN_PEOPLE + 1);
+            var body = String.format("{\"userId\":\"harness-%d\",\"date\":\"%s\",\"startTime\":\"%s\",\"endTime\":\"%s\"," +
+                    "\"numberOfPeople\":%d}", bookings++, date, time(start), time(end), numberOfPeople);
+            return new Call(Operation.BOOK, HttpRequest.newBuilder(URI.create(baseUrl + "/conference/book"))
+                    .header("Content-Type", "application/json")
+                    .timeout(TIMEOUT)
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build());
+        }
+
+        var query = String.format("/conference?date=%s&startTime=%s&endTime=%s", date, time(start), time(end));
+        return new Call(Operation.AVAILABILITY, HttpRequest.newBuilder(URI.create(baseUrl + query))
+                .timeout(TIMEOUT)
+                .GET()
+                .build());
+    }
+
+    private static String time(int minuteOfDay) {
+        return String.format("%02d:%02d", minuteOfDay / 60, minuteOfDay % 60);
+    }
+}
@@ -1,6 +1,12 @@
 package com.mashreq.conference.booking.config;
 
+import com.mashreq.conference.booking.domain.AdmissionSettings;
 import com.mashreq.conference.booking.domain.Booking;
+import com.mashreq.conference.booking.domain.CacheSettings;
+import com.mashreq.conference.booking.domain.CatalogSettings;
+import com.mashreq.conference.booking.domain.EventSettings;
+import com.mashreq.conference.booking.domain.IdempotencySettings;
+import com.mashreq.conference.booking.domain.JournalSettings;
 import com.mashreq.conference.booking.domain.MaintenanceTiming;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -15,4 +21,11 @@ import java.util.List;
 public class ConferenceRoomProperties {
     private List<MaintenanceTiming> maintenanceTimings;
     private Booking booking;
+    private CacheSettings availabilityCache = new CacheSettings();
+    private CacheSettings occupancyUsers = new CacheSettings();
+    private EventSettings events = new EventSettings();
+    private IdempotencySettings idempotency = new IdempotencySettings();
+    private AdmissionSettings admission = new AdmissionSettings();
+    private JournalSettings journal = new JournalSettings();
+    private CatalogSettings catalog = new CatalogSettings();
 }
@@ -0,0 +1,17 @@
+package com.mashreq.conference.booking.config;
+
+import com.mashreq.conference.booking.journal.JournalPersistence;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+public class LazyInitializationConfig {
+
+    // Journal replay has to fill the tables before the indexes load, so it stays eager under lazy initialization;
+    // the indexes and schedulers are SmartInitializingSingletons, which Spring Boot already keeps eager
+    @Bean
+    static LazyInitializationExcludeFilter eagerJournalReplay() {
+        return LazyInitializationExcludeFilter.forBeanTypes(JournalPersistence.class);
+    }
+}
@@ -1,58 +1,286 @@
 package com.mashreq.conference.booking.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.domain.BookingView;
+import com.mashreq.conference.booking.domain.CatalogFormat;
 import com.mashreq.conference.booking.domain.ConfRoomBookingRequestDto;
 import com.mashreq.conference.booking.domain.ConfRoomBookingResponseDto;
 import com.mashreq.conference.booking.domain.MaintenanceTiming;
-import com.mashreq.conference.booking.entities.ConferenceRoom;
+import com.mashreq.conference.booking.domain.PageCursors;
+import com.mashreq.conference.booking.domain.RoomStatusEvent;
+import com.mashreq.conference.booking.exception.ConferenceRoomBookingException;
+import com.mashreq.conference.booking.exception.RejectionReason;
+import com.mashreq.conference.booking.metrics.BookingMetrics;
+import com.mashreq.conference.booking.service.AdmissionControl;
 import com.mashreq.conference.booking.service.ConferenceBookingService;
+import com.mashreq.conference.booking.service.IdempotentRequests;
+import com.mashreq.conference.booking.service.RoomCatalogImporter;
+import com.mashreq.conference.booking.service.RoomEventBroadcaster;
 import com.mashreq.conference.booking.validator.RequestValidator;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/conference")
 @AllArgsConstructor
 public class ConferenceRoomBookingController {
 
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final RequestValidator requestValidator;
     private final ConferenceRoomProperties conferenceRoomProperties;
     private final ConferenceBookingService conferenceBookingService;
+    private final Validator validator;
+    private final BookingMetrics bookingMetrics;
+    private final RoomEventBroadcaster roomEventBroadcaster;
+    private final ObjectMapper objectMapper;
+    private final IdempotentRequests idempotentRequests;
+    private final AdmissionControl admissionControl;
+    private final RoomCatalogImporter roomCatalogImporter;
 
     @GetMapping("/maintenance-timings")
     public List<MaintenanceTiming> getMaintenanceTimings() {
         return conferenceRoomProperties.getMaintenanceTimings();
     }
 
+    // The earliest (room, start) pairs that seat numberOfPeople for duration minutes between earliestStart and latestEnd
+    @GetMapping("/slots")
+    public ConfRoomBookingResponseDto findEarliestSlots(@RequestParam(required = false) @Pattern(regexp = "^\\d{4}-\\d{2}-\\d{2}$", message = "Invalid date format. Please use yyyy-MM-dd.")
+                                                            String date,
+                                                        @RequestParam int numberOfPeople,
+                                                        @RequestParam int duration,
+                                                        @RequestParam @NotBlank(message = "Startime is required") @Pattern(regexp = "^([01][0-9]|2[0-3]):[0-5][0-9]$", message = "Invalid time format. Please use the 24-hour format (HH:mm).")
+                                                            String earliestStart,
+                                                        @RequestParam @NotBlank(message = "EndTime is required") @Pattern(regexp = "^([01][0-9]|2[0-3]):[0-5][0-9]$", message = "Invalid time format. Please use the 24-hour format (HH:mm).")
+                                                            String latestEnd,
+                                                        @RequestParam(defaultValue = "10") int limit) {
+        var isValid = requestValidator.validateSlotSearch(date, numberOfPeople, duration, earliestStart, latestEnd, limit);
+
+        if(isValid){
+            return conferenceBookingService.findEarliestSlots(date, numberOfPeople, duration, earliestStart, latestEnd, limit);
+        }
+        return ConfRoomBookingResponseDto.builder()
+                .status("Invalid Time Range")
+                .build();
+    }
+
+    // Utilization from running counters: overall, per capacity bucket and hour of day, plus one room and one user
+    @GetMapping("/analytics")
+    public ConfRoomBookingResponseDto getOccupancyReport(@RequestParam(required = false) Long roomId,
+                                                         @RequestParam(required = false) String userId) {
+        return conferenceBookingService.fetchOccupancyReport(roomId, userId);
+    }
+
+    // A snapshot of every room on connect, then booked / released events as they happen
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRoomEvents() {
+        var emitter = new SseEmitter(conferenceRoomProperties.getEvents().getTimeoutMillis());
+        return roomEventBroadcaster.subscribe(emitter, conferenceBookingService::roomStatusSnapshot);
+    }
+
+    // Bookings in (date, start time) order; a full page carries a next cursor to pass back as after
+    @GetMapping("/bookings")
+    public ResponseEntity<StreamingResponseBody> getBookings(@RequestParam(required = false) String bookedBy,
+                                                             @RequestParam(required = false) Long roomId,
+                                                             @RequestParam(required = false) @Pattern(regexp = "^\\d{4}-\\d{2}-\\d{2}$", message = "Invalid date format. Please use yyyy-MM-dd.")
+                                                                 String from,
+                                                             @RequestParam(required = false) @Pattern(regexp = "^\\d{4}-\\d{2}-\\d{2}$", message = "Invalid date format. Please use yyyy-MM-dd.")
+                                                                 String to,
+                                                             @RequestParam(required = false) String after,
+                                                             @RequestParam(defaultValue = "50") int limit) {
+        requestValidator.validateBookingListing(from, to, limit);
+        var query = conferenceBookingService.bookingQuery(bookedBy, roomId, from, to, after, limit);
+        return page(limit, rows -> conferenceBookingService.forEachBooking(query, rows), BookingView::cursor);
+    }
+
+    // The room catalog in (capacity, id) order, paged the same way
+    @GetMapping("/rooms")
+    public ResponseEntity<StreamingResponseBody> getRooms(@RequestParam(defaultValue = "0") int minCapacity,
+                                                          @RequestParam(required = false) String status,
+                                                          @RequestParam(required = false) String after,
+                                                          @RequestParam(defaultValue = "50") int limit) {
+        requestValidator.validateRoomListing(status, limit);
+        var query = conferenceBookingService.roomQuery(minCapacity, status, after, limit);
+        return this.<RoomStatusEvent>page(limit, rows -> conferenceBookingService.forEachRoom(query, rows),
+                x -> PageCursors.encode(x.getCapacity(), x.getRoomId()));
+    }
+
+    // Upserts the rooms of a CSV or NDJSON file by name, read straight from the request body
+    @PostMapping(path = "/rooms/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ConfRoomBookingResponseDto importRooms(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                  InputStream body) {
+        var report = roomCatalogImporter.importRooms(body, CatalogFormat.fromContentType(contentType));
+        return ConfRoomBookingResponseDto.builder()
+                .status("Room Catalog Imported")
+                .response(report)
+                .build();
+    }
+
+    // Retries that carry the Idempotency-Key of an earlier request get its response instead of another booking.
+    // Rejections are counted here rather than in the exception handler, which also sees the other endpoints' errors
     @PostMapping("/book")
-    public ConfRoomBookingResponseDto book(@Valid @RequestBody ConfRoomBookingRequestDto confRoomBookingRequestDto) {
+    public ConfRoomBookingResponseDto book(@Valid @RequestBody ConfRoomBookingRequestDto confRoomBookingRequestDto,
+                                           @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        try {
+            if(Objects.isNull(idempotencyKey)) {
+                admissionControl.admitUser(confRoomBookingRequestDto.getUserId());
+                return bookRoom(confRoomBookingRequestDto);
+            }
 
-        var isValid = requestValidator.validateBookingRequest(confRoomBookingRequestDto);
+            requestValidator.validateIdempotencyKey(idempotencyKey);
+            // A replay of a key that is already held answers from it and books nothing, so it costs no token
+            if(!idempotentRequests.isHeld(idempotencyKey))
+                admissionControl.admitUser(confRoomBookingRequestDto.getUserId());
+            return idempotentRequests.execute(idempotencyKey, confRoomBookingRequestDto, () -> bookRoom(confRoomBookingRequestDto));
+        } catch (ConferenceRoomBookingException ex) {
+            bookingMetrics.rejected(ex.getReason());
+            throw ex;
+        }
+    }
 
-        if(isValid){
-           return conferenceBookingService.bookRoom(confRoomBookingRequestDto);
+    @PostMapping("/book/batch")
+    public ConfRoomBookingResponseDto bookBatch(@RequestBody List<ConfRoomBookingRequestDto> confRoomBookingRequestDtos) {
+
+        requestValidator.validateBatchSize(confRoomBookingRequestDtos);
+        // Each booking in the batch costs its user a token, and a user over the limit rejects the batch for everyone
+        admissionControl.admitUsers(confRoomBookingRequestDtos.stream()
+                .map(ConfRoomBookingRequestDto::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toMap(Function.identity(), x -> 1, Integer::sum, LinkedHashMap::new)));
+
+        var results = new ArrayList<ConfRoomBookingResponseDto>(confRoomBookingRequestDtos.size());
+        var acceptedRequests = new ArrayList<ConfRoomBookingRequestDto>();
+        var acceptedPositions = new ArrayList<Integer>();
+
+        for (ConfRoomBookingRequestDto confRoomBookingRequestDto : confRoomBookingRequestDtos) {
+            var errors = validator.validate(confRoomBookingRequestDto).stream()
+                    .map(ConstraintViolation::getMessage)
+                    .toList();
+            var reason = RejectionReason.INVALID_REQUEST;
+            try {
+                if(errors.isEmpty() && requestValidator.validateBookingRequest(confRoomBookingRequestDto)) {
+                    acceptedPositions.add(results.size());
+                    acceptedRequests.add(confRoomBookingRequestDto);
+                    results.add(null);
+                    continue;
+                }
+            } catch (ConferenceRoomBookingException ex) {
+                errors = List.of(ex.getMessage());
+                reason = ex.getReason();
+            }
+            bookingMetrics.rejected(reason);
+            results.add(ConfRoomBookingResponseDto.builder()
+                    .response("Invalid Request")
+                    .errors(errors)
+                    .build());
+        }
+
+        if(!acceptedRequests.isEmpty()) {
+            var bookedResults = conferenceBookingService.bookRooms(acceptedRequests);
+            for (int i = 0; i < bookedResults.size(); i++) {
+                var bookedResult = bookedResults.get(i);
+                // The service only turns a batch item down when no room is free for it
+                if(Objects.nonNull(bookedResult.getErrors()))
+                    bookingMetrics.rejected(RejectionReason.NO_ROOM_AVAILABLE);
+                results.set(acceptedPositions.get(i), bookedResult);
+            }
         }
+
         return ConfRoomBookingResponseDto.builder()
-                .status("Invalid Booking Request")
+                .status("Batch Booking Processed")
+                .response(results)
                 .build();
     }
 
     @GetMapping
-    public ConfRoomBookingResponseDto getAvailableMeetingRooms(@RequestParam @NotBlank(message = "Startime is required") @Pattern(regexp = "^([01][0-9]|2[0-3]):[0-5][0-9]$", message = "Invalid time format. Please use the 24-hour format (HH:mm).")
+    public ConfRoomBookingResponseDto getAvailableMeetingRooms(@RequestParam(required = false) @Pattern(regexp = "^\\d{4}-\\d{2}-\\d{2}$", message = "Invalid date format. Please use yyyy-MM-dd.")
+                                                                   String date,
+                                                                @RequestParam @NotBlank(message = "Startime is required") @Pattern(regexp = "^([01][0-9]|2[0-3]):[0-5][0-9]$", message = "Invalid time format. Please use the 24-hour format (HH:mm).")
                                                                    String startTime,
                                                                 @RequestParam @NotBlank(message = "EndTime is required") @Pattern(regexp = "^([01][0-9]|2[0-3]):[0-5][0-9]$", message = "Invalid time format. Please use the 24-hour format (HH:mm).") String endTime){
-        var isValid = requestValidator.validateTimeRange(startTime, endTime);
+        var isValid = requestValidator.validateTimeRange(date, startTime, endTime);
 
         if(isValid){
-            return conferenceBookingService.fetchListOfAvailableRooms(startTime, endTime);
+            return conferenceBookingService.fetchListOfAvailableRooms(date, startTime, endTime);
         }
         return ConfRoomBookingResponseDto.builder()
                 .status("Invalid Time Range")
                 .build();
     }
+
+    private ConfRoomBookingResponseDto bookRoom(ConfRoomBookingRequestDto confRoomBookingRequestDto) {
+
+        var isValid = requestValidator.validateBookingRequest(confRoomBookingRequestDto);
+
+        if(isValid){
+           return conferenceBookingService.bookRoom(confRoomBookingRequestDto);
+        }
+        return ConfRoomBookingResponseDto.builder()
+                .status("Invalid Booking Request")
+                .build();
+    }
+
+    // Writes {"response":[...],"next":"..."} row by row as the source produces them
+    private <T> ResponseEntity<StreamingResponseBody> page(int limit, Consumer<Consumer<T>> source, Function<T, String> cursor) {
+        StreamingResponseBody body = outputStream -> {
+            try (var generator = objectMapper.createGenerator(outputStream).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                var rows = new PageWriter<T>(generator);
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("response");
+                source.accept(rows);
+                generator.writeEndArray();
+                if(rows.count == limit)
+                    generator.writeStringField("next", cursor.apply(rows.last));
+                generator.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private static final class PageWriter<T> implements Consumer<T> {
+
+        private final JsonGenerator generator;
+        private int count;
+        private T last;
+
+        private PageWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void accept(T row) {
+            try {
+                generator.writeObject(row);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            count++;
+            last = row;
+        }
+    }
 }
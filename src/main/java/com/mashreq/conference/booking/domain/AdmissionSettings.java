@@ -0,0 +1,17 @@
+package com.mashreq.conference.booking.domain;
+
+import lombok.Data;
+
+@Data
+public class AdmissionSettings {
+
+    private boolean enabled = true;
+
+    private double userPermitsPerSecond = 10;
+
+    private int userBurst = 20;
+
+    private int maxConcurrentBookings = 64;
+
+    private long maximumUsers = 100_000;
+}
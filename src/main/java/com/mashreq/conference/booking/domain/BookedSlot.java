@@ -0,0 +1,9 @@
+package com.mashreq.conference.booking.domain;
+
+import java.time.LocalDate;
+
+/**
+ * The part of a booking the in-memory indexes need, loaded without materialising the booking entities.
+ */
+public record BookedSlot(Long roomId, LocalDate bookingDate, int fromMinute, int toMinute) {
+}
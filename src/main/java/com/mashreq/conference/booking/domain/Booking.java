@@ -6,4 +6,12 @@ import lombok.Data;
 public class Booking {
 
     private int interval;
+
+    private int maxBatchSize = 500;
+
+    private int lookAheadDays = 7;
+
+    private int maxSlotResults = 50;
+
+    private int maxPageSize = 500;
 }
@@ -0,0 +1,27 @@
+package com.mashreq.conference.booking.domain;
+
+import com.mashreq.conference.booking.exception.ConferenceRoomBookingException;
+import com.mashreq.conference.booking.exception.RejectionReason;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+
+/**
+ * Bookings are keyed by calendar date; requests may omit the date, in which case they are for today.
+ */
+public final class BookingDates {
+
+    private BookingDates() {
+    }
+
+    public static LocalDate parse(String date) {
+        if(Objects.isNull(date) || date.isBlank())
+            return LocalDate.now();
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException ex) {
+            throw new ConferenceRoomBookingException(RejectionReason.INVALID_DATE, "Invalid date format. Please use yyyy-MM-dd.");
+        }
+    }
+}
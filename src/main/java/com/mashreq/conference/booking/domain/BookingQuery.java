@@ -0,0 +1,11 @@
+package com.mashreq.conference.booking.domain;
+
+import java.time.LocalDate;
+
+/**
+ * Filters and seek position of one page of the booking listing. Without a cursor the page starts just
+ * before fromDate, so the keyset predicate is the same for the first page and every later one.
+ */
+public record BookingQuery(String bookedBy, Long roomId, LocalDate toDate, LocalDate afterDate, int afterMinute,
+                           long afterId, int limit) {
+}
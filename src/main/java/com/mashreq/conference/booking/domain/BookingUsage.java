@@ -0,0 +1,10 @@
+package com.mashreq.conference.booking.domain;
+
+import java.time.LocalDate;
+
+/**
+ * The part of a booking the occupancy counters need, loaded without materialising the booking entities.
+ */
+public record BookingUsage(Long roomId, String bookedBy, LocalDate bookingDate, int fromMinute, int toMinute,
+                           int numberOfPeople) {
+}
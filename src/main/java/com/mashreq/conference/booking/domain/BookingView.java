@@ -0,0 +1,58 @@
+package com.mashreq.conference.booking.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * A row of the booking listing, projected straight from the query so no booking or room entity is managed.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingView implements Serializable {
+
+    private Long id;
+
+    private String bookedBy;
+
+    private int numberOfPeople;
+
+    @JsonIgnore
+    private LocalDate bookingDate;
+
+    @JsonIgnore
+    private int fromMinute;
+
+    @JsonIgnore
+    private int toMinute;
+
+    private Long roomId;
+
+    private String roomName;
+
+    @JsonProperty("date")
+    public String getDate() {
+        return bookingDate.toString();
+    }
+
+    @JsonProperty("fromTime")
+    public String getFromTime() {
+        return TimeOfDay.format(fromMinute);
+    }
+
+    @JsonProperty("toTime")
+    public String getToTime() {
+        return TimeOfDay.format(toMinute);
+    }
+
+    // The (date, start, id) sort key this row was listed under
+    public String cursor() {
+        return PageCursors.encode(bookingDate.toEpochDay(), fromMinute, id);
+    }
+}
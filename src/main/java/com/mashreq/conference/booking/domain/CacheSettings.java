@@ -0,0 +1,9 @@
+package com.mashreq.conference.booking.domain;
+
+import lombok.Data;
+
+@Data
+public class CacheSettings {
+
+    private long maximumSize = 1024;
+}
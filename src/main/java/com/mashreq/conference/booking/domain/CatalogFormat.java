@@ -0,0 +1,45 @@
+package com.mashreq.conference.booking.domain;
+
+import com.mashreq.conference.booking.exception.ConferenceRoomBookingException;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+
+public enum CatalogFormat {
+    CSV("text/csv", ".csv"),
+    NDJSON("application/x-ndjson", ".ndjson");
+
+    private static final String UNSUPPORTED = "Room files should be CSV (text/csv) or NDJSON (application/x-ndjson)";
+
+    private final String mediaType;
+    private final String extension;
+
+    CatalogFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    // Parameters such as charset are ignored
+    public static CatalogFormat fromContentType(String contentType) {
+        if(Objects.isNull(contentType))
+            throw new ConferenceRoomBookingException(UNSUPPORTED);
+        var mediaType = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        return Arrays.stream(values())
+                .filter(x -> x.mediaType.equals(mediaType))
+                .findFirst()
+                .orElseThrow(() -> new ConferenceRoomBookingException(UNSUPPORTED));
+    }
+
+    public static CatalogFormat fromFileName(String fileName) {
+        var lowerCase = fileName.toLowerCase(Locale.ROOT);
+        return Arrays.stream(values())
+                .filter(x -> lowerCase.endsWith(x.extension))
+                .findFirst()
+                .orElseThrow(() -> new ConferenceRoomBookingException(UNSUPPORTED));
+    }
+}
@@ -0,0 +1,31 @@
+package com.mashreq.conference.booking.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CatalogImportReport implements Serializable {
+
+    // Rows inserted or updated
+    private long imported;
+
+    private long rejected;
+
+    // Rooms in the catalog once the import was applied
+    private int rooms;
+
+    private long elapsedMillis;
+
+    // The first rejected rows, by line number
+    private List<String> errors;
+}
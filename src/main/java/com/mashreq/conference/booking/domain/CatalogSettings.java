@@ -0,0 +1,14 @@
+package com.mashreq.conference.booking.domain;
+
+import lombok.Data;
+
+@Data
+public class CatalogSettings {
+
+    // A .csv or .ndjson room file imported once the application has started; none by default
+    private String importFile;
+
+    private int batchSize = 1000;
+
+    private int maxReportedErrors = 20;
+}
@@ -14,6 +14,9 @@ public class ConfRoomBookingRequestDto {
     @NotBlank(message = "user Id is required")
     private String userId;
 
+    @Pattern(regexp = "^\\d{4}-\\d{2}-\\d{2}$", message = "Invalid date format. Please use yyyy-MM-dd.")
+    private String date;
+
     @NotBlank(message = "start time is required")
     @Pattern(regexp = "^([01][0-9]|2[0-3]):[0-5][0-9]$", message = "Invalid time format. Please use the 24-hour format (HH:mm).")
     private String startTime;
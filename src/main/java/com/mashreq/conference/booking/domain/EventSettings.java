@@ -0,0 +1,13 @@
+package com.mashreq.conference.booking.domain;
+
+import lombok.Data;
+
+@Data
+public class EventSettings {
+
+    private int queueCapacity = 256;
+
+    private long timeoutMillis = 30 * 60 * 1000L;
+
+    private int dispatchThreads = 4;
+}
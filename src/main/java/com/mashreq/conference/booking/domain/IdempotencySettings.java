@@ -0,0 +1,11 @@
+package com.mashreq.conference.booking.domain;
+
+import lombok.Data;
+
+@Data
+public class IdempotencySettings {
+
+    private long maximumSize = 100_000;
+
+    private long ttlMinutes = 1440;
+}
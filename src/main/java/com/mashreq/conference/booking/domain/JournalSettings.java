@@ -0,0 +1,17 @@
+package com.mashreq.conference.booking.domain;
+
+import lombok.Data;
+
+@Data
+public class JournalSettings {
+
+    private boolean enabled = false;
+
+    private String directory = "data/journal";
+
+    private int segmentBytes = 64 * 1024 * 1024;
+
+    private long groupCommitMicros = 500;
+
+    private long snapshotIntervalMs = 5 * 60 * 1000L;
+}
@@ -0,0 +1,32 @@
+package com.mashreq.conference.booking.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OccupancyReport implements Serializable {
+
+    private long trackedDays;
+
+    private OccupancyStats overall;
+
+    private List<Integer> peakHours;
+
+    private List<OccupancyStats> hours;
+
+    private List<OccupancyStats> capacityBuckets;
+
+    private OccupancyStats room;
+
+    private OccupancyStats user;
+}
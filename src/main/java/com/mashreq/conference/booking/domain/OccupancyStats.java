@@ -0,0 +1,31 @@
+package com.mashreq.conference.booking.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OccupancyStats implements Serializable {
+
+    private String label;
+
+    private Long bookings;
+
+    private long bookedMinutes;
+
+    private Long upcomingBookings;
+
+    // Booked room time over the room time on offer in the tracked days
+    private Double occupancy;
+
+    // Share of the booked seat time that nobody sat in
+    private Double waste;
+}
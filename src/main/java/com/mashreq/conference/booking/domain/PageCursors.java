@@ -0,0 +1,44 @@
+package com.mashreq.conference.booking.domain;
+
+import com.mashreq.conference.booking.exception.ConferenceRoomBookingException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Listings are paged by seeking past the sort key of the last row returned; the cursor handed to clients is
+ * that key, made opaque so nobody builds one by hand.
+ */
+public final class PageCursors {
+
+    private PageCursors() {
+    }
+
+    public static String encode(long... keys) {
+        var text = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if(i > 0)
+                text.append('.');
+            text.append(keys[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static long[] decode(String cursor, int length) {
+        try {
+            var parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split("\\.");
+            if(parts.length != length)
+                throw invalidCursor();
+            var keys = new long[length];
+            for (int i = 0; i < length; i++)
+                keys[i] = Long.parseLong(parts[i]);
+            return keys;
+        } catch (IllegalArgumentException ex) {
+            throw invalidCursor();
+        }
+    }
+
+    private static ConferenceRoomBookingException invalidCursor() {
+        return new ConferenceRoomBookingException("Invalid page cursor");
+    }
+}
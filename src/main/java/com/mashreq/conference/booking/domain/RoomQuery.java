@@ -0,0 +1,7 @@
+package com.mashreq.conference.booking.domain;
+
+/**
+ * Filters and seek position of one page of the room listing, which is ordered by (capacity, id).
+ */
+public record RoomQuery(int minCapacity, String status, int afterCapacity, long afterId, int limit) {
+}
@@ -0,0 +1,33 @@
+package com.mashreq.conference.booking.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RoomStatusEvent implements Serializable {
+
+    private Long roomId;
+
+    private String name;
+
+    private Integer capacity;
+
+    // BOOKED while the room has a booking that has not ended yet, on any day; whether a given time is free is
+    // only answered by the availability and slot queries
+    private String status;
+
+    private String date;
+
+    private String startTime;
+
+    private String endTime;
+}
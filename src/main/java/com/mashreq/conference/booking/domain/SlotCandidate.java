@@ -0,0 +1,27 @@
+package com.mashreq.conference.booking.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SlotCandidate implements Serializable {
+
+    private Long roomId;
+
+    private String name;
+
+    private int capacity;
+
+    private String date;
+
+    private String startTime;
+
+    private String endTime;
+}
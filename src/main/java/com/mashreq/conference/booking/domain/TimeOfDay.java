@@ -0,0 +1,52 @@
+package com.mashreq.conference.booking.domain;
+
+import com.mashreq.conference.booking.exception.ConferenceRoomBookingException;
+import com.mashreq.conference.booking.exception.RejectionReason;
+
+import java.time.LocalTime;
+
+/**
+ * Booking times are handled as minute-of-day integers; this converts them from and to the HH:mm API format
+ * without going through a DateTimeFormatter.
+ */
+public final class TimeOfDay {
+
+    private TimeOfDay() {
+    }
+
+    public static int toMinuteOfDay(CharSequence time) {
+        if(time.length() != 5 || time.charAt(2) != ':')
+            throw invalidTime();
+
+        int hours = digit(time, 0) * 10 + digit(time, 1);
+        int minutes = digit(time, 3) * 10 + digit(time, 4);
+        if(hours > 23 || minutes > 59)
+            throw invalidTime();
+
+        return hours * 60 + minutes;
+    }
+
+    public static String format(int minuteOfDay) {
+        int hours = minuteOfDay / 60;
+        int minutes = minuteOfDay % 60;
+        return new String(new char[]{
+                (char) ('0' + hours / 10), (char) ('0' + hours % 10), ':',
+                (char) ('0' + minutes / 10), (char) ('0' + minutes % 10)});
+    }
+
+    public static int currentMinuteOfDay() {
+        LocalTime now = LocalTime.now();
+        return now.getHour() * 60 + now.getMinute();
+    }
+
+    private static int digit(CharSequence time, int position) {
+        int digit = time.charAt(position) - '0';
+        if(digit < 0 || digit > 9)
+            throw invalidTime();
+        return digit;
+    }
+
+    private static ConferenceRoomBookingException invalidTime() {
+        return new ConferenceRoomBookingException(RejectionReason.INVALID_TIME, "Invalid time format. Please use the 24-hour format (HH:mm).");
+    }
+}
@@ -0,0 +1,35 @@
+package com.mashreq.conference.booking.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDate;
+
+// A booking of a past day as BookingArchiver moved it; only ever read, and the room is kept as a plain id
+@Data
+@Entity
+@Immutable
+@NoArgsConstructor
+@Table(name = "BOOKING_DETAILS_ARCHIVE", indexes = @Index(name = "IDX_ARCHIVE_BOOKED_BY", columnList = "booked_by"))
+public class ArchivedBooking {
+
+    @Id
+    private Long id;
+
+    private String bookedBy;
+
+    private int numberOfPeople;
+
+    private LocalDate bookingDate;
+
+    private int fromMinute;
+
+    private int toMinute;
+
+    private Long conferenceRoomId;
+}
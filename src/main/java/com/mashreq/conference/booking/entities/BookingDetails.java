@@ -1,31 +1,81 @@
 package com.mashreq.conference.booking.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mashreq.conference.booking.domain.BookingDates;
+import com.mashreq.conference.booking.domain.TimeOfDay;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
+import java.util.Objects;
+
 @Data
 @Builder
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
+@Table(indexes = {
+        @Index(name = "IDX_BOOKING_DATE_ROOM_TIME", columnList = "booking_date, conference_room_id, from_minute, to_minute"),
+        @Index(name = "IDX_BOOKING_BOOKED_BY_DATE", columnList = "booked_by, booking_date, from_minute"),
+        // Keyset pages of the booking listing, over all rooms and for one room
+        @Index(name = "IDX_BOOKING_DATE_FROM", columnList = "booking_date, from_minute, id"),
+        @Index(name = "IDX_BOOKING_ROOM_DATE_FROM", columnList = "conference_room_id, booking_date, from_minute, id")})
 public class BookingDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_details_seq")
+    @SequenceGenerator(name = "booking_details_seq", sequenceName = "BOOKING_DETAILS_SEQ", allocationSize = 50)
     private Long id;
 
     private String bookedBy;
 
     private int numberOfPeople;
 
-    private String fromTime;
+    @JsonIgnore
+    private LocalDate bookingDate;
+
+    @JsonIgnore
+    private int fromMinute;
 
-    private String toTime;
+    @JsonIgnore
+    private int toMinute;
 
-    @OneToOne(fetch = FetchType.EAGER,cascade = CascadeType.ALL)
-    @JoinColumn(name = "conference_room_id", referencedColumnName = "id")
+    // Many bookings share a room; the room is never saved through a booking
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "conference_room_id", referencedColumnName = "id", nullable = false)
     private ConferenceRoom conferenceRoom;
+
+    @JsonProperty("date")
+    public String getDate() {
+        return Objects.toString(bookingDate, null);
+    }
+
+    @JsonProperty("date")
+    public void setDate(String date) {
+        this.bookingDate = BookingDates.parse(date);
+    }
+
+    @JsonProperty("fromTime")
+    public String getFromTime() {
+        return TimeOfDay.format(fromMinute);
+    }
+
+    @JsonProperty("fromTime")
+    public void setFromTime(String fromTime) {
+        this.fromMinute = TimeOfDay.toMinuteOfDay(fromTime);
+    }
+
+    @JsonProperty("toTime")
+    public String getToTime() {
+        return TimeOfDay.format(toMinute);
+    }
+
+    @JsonProperty("toTime")
+    public void setToTime(String toTime) {
+        this.toMinute = TimeOfDay.toMinuteOfDay(toTime);
+    }
 }
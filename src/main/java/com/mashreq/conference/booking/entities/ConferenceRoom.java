@@ -5,6 +5,8 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,6 +17,11 @@ import java.io.Serializable;
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
+@Table(indexes = {
+        @Index(name = "IDX_ROOM_STATUS_CAPACITY", columnList = "status, capacity"),
+        // Catalog imports upsert rooms by name
+        @Index(name = "IDX_ROOM_NAME", columnList = "name", unique = true)
+})
 public class ConferenceRoom implements Serializable {
 
     @Id
@@ -0,0 +1,16 @@
+package com.mashreq.conference.booking.exception;
+
+import com.mashreq.conference.booking.domain.CatalogImportReport;
+import lombok.Getter;
+
+@Getter
+public class CatalogImportException extends RuntimeException{
+
+    // What was imported before the import stopped; those rows stay committed
+    private final CatalogImportReport report;
+
+    public CatalogImportException(String message, CatalogImportReport report, Throwable cause){
+        super(message, cause);
+        this.report = report;
+    }
+}
@@ -1,7 +1,10 @@
 package com.mashreq.conference.booking.exception;
 
 import com.mashreq.conference.booking.domain.ConfRoomBookingResponseDto;
+import com.mashreq.conference.booking.metrics.BookingMetrics;
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -14,13 +17,18 @@ import java.util.List;
 import java.util.Map;
 
 @ControllerAdvice
+@RequiredArgsConstructor
 public class ConfRoomBookingExceptionHandler {
 
+  private final BookingMetrics bookingMetrics;
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<?> invalidRequestHandler(MethodArgumentNotValidException ex, HttpServletRequest request) {
     List<String> errors = new ArrayList<>();
 
     ex.getAllErrors().forEach(err -> errors.add(err.getDefaultMessage()));
+    // Only booking request bodies are validated this way; one rejected request however many fields failed
+    bookingMetrics.rejected(RejectionReason.INVALID_REQUEST);
 
     var response = ConfRoomBookingResponseDto.builder()
             .response("Invalid Request")
@@ -42,5 +50,28 @@ public class ConfRoomBookingExceptionHandler {
     return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
   }
 
+  // Not a booking rejection: the rows imported so far stay in, and the report says how many there were
+  @ExceptionHandler(CatalogImportException.class)
+  public ResponseEntity<?> catalogImportHandler(CatalogImportException ex, HttpServletRequest request) {
+    var response = ConfRoomBookingResponseDto.builder()
+            .status("Room Catalog Import Stopped")
+            .response(ex.getReport())
+            .errors(List.of(ex.getMessage()))
+            .build();
+
+    return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+  }
+
+  @ExceptionHandler(TooManyRequestsException.class)
+  public ResponseEntity<?> tooManyRequestsHandler(TooManyRequestsException ex, HttpServletRequest request) {
+    var response = ConfRoomBookingResponseDto.builder()
+            .response("Too Many Requests")
+            .errors(List.of(ex.getMessage()))
+            .build();
+
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(response);
+  }
 
 }
\ No newline at end of file
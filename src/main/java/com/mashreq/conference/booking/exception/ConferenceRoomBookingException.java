@@ -1,16 +1,28 @@
 package com.mashreq.conference.booking.exception;
 
+import lombok.Getter;
+
+@Getter
 public class ConferenceRoomBookingException extends RuntimeException{
 
+    private final RejectionReason reason;
+
     public ConferenceRoomBookingException(){
         super();
+        this.reason = RejectionReason.INVALID_REQUEST;
     }
 
     public ConferenceRoomBookingException(String message){
+        this(RejectionReason.INVALID_REQUEST, message);
+    }
+
+    public ConferenceRoomBookingException(RejectionReason reason, String message){
         super(message);
+        this.reason = reason;
     }
 
     public ConferenceRoomBookingException(String message, Throwable cause){
         super(message, cause);
+        this.reason = RejectionReason.INVALID_REQUEST;
     }
 }
@@ -0,0 +1,21 @@
+package com.mashreq.conference.booking.exception;
+
+// Why a booking request was turned down. The rejection counter is tagged with these, never with message text
+public enum RejectionReason {
+    INVALID_REQUEST,
+    INVALID_DATE,
+    INVALID_TIME,
+    END_BEFORE_START,
+    PAST_TIME,
+    DATE_IN_PAST,
+    BEYOND_LOOK_AHEAD,
+    OFF_INTERVAL,
+    MAINTENANCE,
+    NO_ROOMS,
+    OVER_CAPACITY,
+    NO_ROOM_AVAILABLE,
+    IDEMPOTENCY_KEY,
+    IDEMPOTENCY_KEY_REUSED,
+    BATCH_SIZE,
+    USER_BURST
+}
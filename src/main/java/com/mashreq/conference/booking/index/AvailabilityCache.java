@@ -0,0 +1,91 @@
+package com.mashreq.conference.booking.index;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.entities.ConferenceRoom;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded W-TinyLFU cache of free room lists, keyed by date and the slot range a query covers, so
+ * queries for the same slots share an entry whatever minutes they were asked with. The availability index
+ * reports every slot change and only the entries of that date whose range overlaps the changed slots are
+ * dropped. A list computed while a change was in flight is not kept.
+ */
+@Component
+public class AvailabilityCache {
+
+    private final ConferenceRoomProperties conferenceRoomProperties;
+    private final Cache<Range, List<ConferenceRoom>> cache;
+
+    private final AtomicLong modifications = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public AvailabilityCache(ConferenceRoomProperties conferenceRoomProperties) {
+        this.conferenceRoomProperties = conferenceRoomProperties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(conferenceRoomProperties.getAvailabilityCache().getMaximumSize())
+                .recordStats()
+                .build();
+    }
+
+    public List<ConferenceRoom> get(LocalDate date, int fromMinute, int toMinute, Supplier<List<ConferenceRoom>> loader) {
+        var range = range(date, fromMinute, toMinute);
+        long modification = modifications.get();
+        var freeRooms = cache.get(range, key -> List.copyOf(loader.get()));
+        if(modifications.get() != modification)
+            cache.asMap().remove(range, freeRooms);
+        return freeRooms;
+    }
+
+    public void slotsChanged(LocalDate date, int fromMinute, int toMinute) {
+        var changed = range(date, fromMinute, toMinute);
+        modifications.incrementAndGet();
+        cache.asMap().keySet().removeIf(range -> range.overlaps(changed) && countInvalidation());
+    }
+
+    public void datesBefore(LocalDate date) {
+        modifications.incrementAndGet();
+        cache.asMap().keySet().removeIf(range -> range.date.isBefore(date) && countInvalidation());
+    }
+
+    public void invalidateAll() {
+        modifications.incrementAndGet();
+        invalidations.addAndGet(cache.estimatedSize());
+        cache.invalidateAll();
+    }
+
+    public Cache<?, ?> nativeCache() {
+        return cache;
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    public double hitRatio() {
+        return cache.stats().hitRate();
+    }
+
+    private boolean countInvalidation() {
+        invalidations.incrementAndGet();
+        return true;
+    }
+
+    private Range range(LocalDate date, int fromMinute, int toMinute) {
+        int interval = conferenceRoomProperties.getBooking().getInterval();
+        return new Range(date, SlotMasks.firstSlot(fromMinute, interval), SlotMasks.endSlot(toMinute, interval));
+    }
+
+    private record Range(LocalDate date, int firstSlot, int endSlot) {
+
+        private boolean overlaps(Range other) {
+            return date.equals(other.date) && firstSlot < other.endSlot && endSlot > other.firstSlot;
+        }
+    }
+}
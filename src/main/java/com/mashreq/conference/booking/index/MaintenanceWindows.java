@@ -0,0 +1,87 @@
+package com.mashreq.conference.booking.index;
+
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.domain.MaintenanceTiming;
+import com.mashreq.conference.booking.domain.TimeOfDay;
+import com.mashreq.conference.booking.exception.ConferenceRoomBookingException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The configured maintenance timings compiled into a slot bitmap, plus the next maintenance slot at or
+ * after every slot so an overlap check is a single array lookup. The configuration is recompiled when
+ * the bound maintenance list is replaced, e.g. by a configuration properties rebind.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MaintenanceWindows {
+
+    private final ConferenceRoomProperties conferenceRoomProperties;
+
+    private volatile Compiled compiled;
+
+    public boolean overlaps(int fromMinute, int toMinute) {
+        var current = current();
+        int firstSlot = SlotMasks.firstSlot(fromMinute, current.interval);
+        int endSlot = SlotMasks.endSlot(toMinute, current.interval);
+        return firstSlot < endSlot && current.nextMaintenanceSlot[firstSlot] < endSlot;
+    }
+
+    public long[] mask() {
+        return current().mask.clone();
+    }
+
+    public synchronized void compile() {
+        if(Objects.isNull(conferenceRoomProperties.getBooking()))
+            throw new ConferenceRoomBookingException("Booking Interval cannot be null");
+
+        int interval = conferenceRoomProperties.getBooking().getInterval();
+        var maintenanceTimings = conferenceRoomProperties.getMaintenanceTimings();
+
+        long[] mask = new long[SlotMasks.words(interval)];
+        if(Objects.nonNull(maintenanceTimings)) {
+            for (MaintenanceTiming maintenanceTiming : maintenanceTimings) {
+                int fromMinute = TimeOfDay.toMinuteOfDay(maintenanceTiming.getStartTime());
+                int toMinute = TimeOfDay.toMinuteOfDay(maintenanceTiming.getEndTime());
+                SlotMasks.or(mask, SlotMasks.firstSlot(fromMinute, interval), SlotMasks.endSlot(toMinute, interval));
+            }
+        }
+
+        int slotsPerDay = SlotMasks.slotsPerDay(interval);
+        int[] nextMaintenanceSlot = new int[slotsPerDay + 1];
+        nextMaintenanceSlot[slotsPerDay] = slotsPerDay;
+        for (int slot = slotsPerDay - 1; slot >= 0; slot--) {
+            boolean maintenance = (mask[slot / Long.SIZE] & (1L << (slot % Long.SIZE))) != 0;
+            nextMaintenanceSlot[slot] = maintenance ? slot : nextMaintenanceSlot[slot + 1];
+        }
+
+        // A rebind hands over a new list even when the timings are the same, so only a different bitmap is news
+        var previous = compiled;
+        boolean changed = Objects.isNull(previous) || previous.interval != interval || !Arrays.equals(previous.mask, mask);
+        compiled = new Compiled(maintenanceTimings, interval, mask, nextMaintenanceSlot);
+        if(changed)
+            log.info("Compiled {} maintenance windows into {} minute slots: {}",
+                    Objects.isNull(maintenanceTimings) ? 0 : maintenanceTimings.size(), interval, Arrays.toString(mask));
+        else
+            log.debug("Recompiled unchanged maintenance windows after the timings were rebound");
+    }
+
+    private Compiled current() {
+        var current = compiled;
+        if(Objects.isNull(current) || current.source != conferenceRoomProperties.getMaintenanceTimings()
+                || current.interval != conferenceRoomProperties.getBooking().getInterval()) {
+            compile();
+            current = compiled;
+        }
+        return current;
+    }
+
+    private record Compiled(List<MaintenanceTiming> source, int interval, long[] mask, int[] nextMaintenanceSlot) {
+    }
+}
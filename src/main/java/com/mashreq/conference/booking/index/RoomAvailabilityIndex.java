@@ -0,0 +1,442 @@
+package com.mashreq.conference.booking.index;
+
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.domain.BookedSlot;
+import com.mashreq.conference.booking.domain.BookingStatus;
+import com.mashreq.conference.booking.domain.SlotCandidate;
+import com.mashreq.conference.booking.domain.TimeOfDay;
+import com.mashreq.conference.booking.entities.ConferenceRoom;
+import com.mashreq.conference.booking.exception.ConferenceRoomBookingException;
+import com.mashreq.conference.booking.repo.BookingDetailsRepository;
+import com.mashreq.conference.booking.repo.ConferenceRoomRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Keeps the booked slots of every room as a bitmap of {@code booking.interval} slots per day, so availability
+ * can be answered with word-level masks instead of scanning booking rows. Each day is its own partition; only
+ * today and the {@code booking.look-ahead-days} after it are loaded, and partitions of past days are evicted,
+ * so the working set stays the same size however much booking history the database holds.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomAvailabilityIndex implements SmartInitializingSingleton {
+
+    // Below this many rooms a slot search is cheaper on the calling thread than split across the common pool
+    private static final int PARALLEL_THRESHOLD = 8192;
+
+    private static final Comparator<FreeSlot> EARLIEST = Comparator.comparingInt(FreeSlot::slot)
+            .thenComparingInt(freeSlot -> freeSlot.room().capacity)
+            .thenComparingLong(freeSlot -> freeSlot.room().id);
+
+    private final ConferenceRoomProperties conferenceRoomProperties;
+    private final ConferenceRoomRepository conferenceRoomRepository;
+    private final BookingDetailsRepository bookingDetailsRepository;
+    private final MaintenanceWindows maintenanceWindows;
+    private final AvailabilityCache availabilityCache;
+
+    private final Map<Long, Integer> ordinalsById = new ConcurrentHashMap<>();
+    private final Map<LocalDate, DayPartition> days = new ConcurrentHashMap<>();
+    private volatile RoomInfo[] rooms = new RoomInfo[0];
+
+    // Slot updates hold the read lock; adding a room grows every partition under the write lock
+    private final ReentrantReadWriteLock catalogLock = new ReentrantReadWriteLock();
+
+    private int interval;
+    private int slotsPerDay;
+    private int wordsPerRoom;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    public void reload() {
+        if(Objects.isNull(conferenceRoomProperties.getBooking()))
+            throw new ConferenceRoomBookingException("Booking Interval cannot be null");
+
+        catalogLock.writeLock().lock();
+        try {
+            interval = conferenceRoomProperties.getBooking().getInterval();
+            slotsPerDay = SlotMasks.slotsPerDay(interval);
+            wordsPerRoom = SlotMasks.words(interval);
+
+            ordinalsById.clear();
+            days.clear();
+            var loadedRooms = new ArrayList<RoomInfo>();
+            for (ConferenceRoom conferenceRoom : conferenceRoomRepository.findCatalog()) {
+                ordinalsById.put(conferenceRoom.getId(), loadedRooms.size());
+                loadedRooms.add(new RoomInfo(conferenceRoom));
+            }
+            rooms = loadedRooms.toArray(new RoomInfo[0]);
+
+            var today = LocalDate.now();
+            var lastDay = today.plusDays(conferenceRoomProperties.getBooking().getLookAheadDays());
+            int loadedSlots = 0;
+            for (BookedSlot bookedSlot : bookingDetailsRepository.findBookedSlots(today, lastDay)) {
+                var ordinal = ordinalsById.get(bookedSlot.roomId());
+                if(Objects.isNull(ordinal))
+                    continue;
+                partition(bookedSlot.bookingDate()).reserve(ordinal * wordsPerRoom,
+                        slotMask(bookedSlot.fromMinute(), bookedSlot.toMinute()));
+                loadedSlots++;
+            }
+
+            availabilityCache.invalidateAll();
+            log.info("Availability index loaded with {} rooms of {} slots each, {} bookings from {} to {}",
+                    rooms.length, slotsPerDay, loadedSlots, today, lastDay);
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+    }
+
+    // Picks up a changed catalog without dropping any booked slot: rooms keep their ordinals, new rooms are
+    // appended and every partition grows once. Bookings wait on the write lock only while the arrays are copied.
+    // alongside gets the same catalog under the write lock, so an index swapped there switches together with this one.
+    public void refreshCatalog(Consumer<List<ConferenceRoom>> alongside) {
+        var catalog = conferenceRoomRepository.findCatalog();
+
+        catalogLock.writeLock().lock();
+        try {
+            alongside.accept(catalog);
+            var refreshed = Arrays.copyOf(rooms, rooms.length + catalog.size());
+            int size = rooms.length;
+            for (ConferenceRoom conferenceRoom : catalog) {
+                var ordinal = ordinalsById.get(conferenceRoom.getId());
+                if(Objects.isNull(ordinal)) {
+                    ordinal = size++;
+                    ordinalsById.put(conferenceRoom.getId(), ordinal);
+                }
+                refreshed[ordinal] = new RoomInfo(conferenceRoom);
+            }
+            refreshed = Arrays.copyOf(refreshed, size);
+            for (DayPartition partition : days.values())
+                partition.ensureCapacity(refreshed.length * wordsPerRoom);
+            rooms = refreshed;
+            availabilityCache.invalidateAll();
+            log.info("Availability index refreshed with {} rooms", refreshed.length);
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+    }
+
+    // Sets the slots only if none of them is taken yet, so each slot of a room goes to one caller
+    public boolean tryReserve(ConferenceRoom conferenceRoom, LocalDate date, int fromMinute, int toMinute) {
+        long[] mask = slotMask(fromMinute, toMinute);
+        while(true) {
+            catalogLock.readLock().lock();
+            try {
+                var ordinal = ordinalsById.get(conferenceRoom.getId());
+                if(Objects.nonNull(ordinal)) {
+                    var claim = partition(date).tryReserve(ordinal * wordsPerRoom, mask);
+                    // A claim that was undone still showed its first slots taken for a moment
+                    if(claim != Claim.CONFLICT)
+                        availabilityCache.slotsChanged(date, fromMinute, toMinute);
+                    return claim == Claim.RESERVED;
+                }
+            } finally {
+                catalogLock.readLock().unlock();
+            }
+            register(conferenceRoom);
+        }
+    }
+
+    public void reserve(ConferenceRoom conferenceRoom, LocalDate date, int fromMinute, int toMinute) {
+        long[] mask = slotMask(fromMinute, toMinute);
+        while(true) {
+            catalogLock.readLock().lock();
+            try {
+                var ordinal = ordinalsById.get(conferenceRoom.getId());
+                if(Objects.nonNull(ordinal)) {
+                    partition(date).reserve(ordinal * wordsPerRoom, mask);
+                    availabilityCache.slotsChanged(date, fromMinute, toMinute);
+                    return;
+                }
+            } finally {
+                catalogLock.readLock().unlock();
+            }
+            register(conferenceRoom);
+        }
+    }
+
+    public void release(long roomId, LocalDate date, int fromMinute, int toMinute) {
+        catalogLock.readLock().lock();
+        try {
+            var ordinal = ordinalsById.get(roomId);
+            var partition = days.get(date);
+            if(Objects.nonNull(ordinal) && Objects.nonNull(partition)) {
+                partition.release(ordinal * wordsPerRoom, slotMask(fromMinute, toMinute));
+                availabilityCache.slotsChanged(date, fromMinute, toMinute);
+            }
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    }
+
+    public boolean isFree(long roomId, LocalDate date, int fromMinute, int toMinute) {
+        var ordinal = ordinalsById.get(roomId);
+        var partition = days.get(date);
+        return Objects.isNull(ordinal) || Objects.isNull(partition)
+                || DayPartition.isFree(partition.slots, ordinal * wordsPerRoom, slotMask(fromMinute, toMinute));
+    }
+
+    public List<ConferenceRoom> findFreeRooms(LocalDate date, int fromMinute, int toMinute) {
+        // Rooms are never offered during maintenance
+        if(maintenanceWindows.overlaps(fromMinute, toMinute))
+            return List.of();
+
+        long[] mask = slotMask(fromMinute, toMinute);
+        var snapshot = rooms;
+        var partition = days.get(date);
+        var slots = Objects.isNull(partition) ? null : partition.slots;
+
+        var freeRooms = new ArrayList<ConferenceRoom>();
+        for (int ordinal = 0; ordinal < snapshot.length; ordinal++) {
+            if(Objects.isNull(slots) || DayPartition.isFree(slots, ordinal * wordsPerRoom, mask)) {
+                var room = snapshot[ordinal];
+                freeRooms.add(new ConferenceRoom(room.id, room.name, room.capacity, BookingStatus.AVAILABLE.name()));
+            }
+        }
+        return freeRooms;
+    }
+
+    // The earliest starts, smallest fitting room first on a tie, at which a room seating the head count is free
+    // for the whole duration between earliestStart and latestEnd. Starts are aligned to the booking interval
+    // and runs never cross a maintenance window.
+    public List<SlotCandidate> findEarliestSlots(LocalDate date, int numberOfPeople, int durationMinutes,
+                                                 int earliestStart, int latestEnd, int limit) {
+        int firstStart = (earliestStart + interval - 1) / interval;
+        int endSlot = Math.min(slotsPerDay, latestEnd / interval);
+        int length = Math.max(1, (durationMinutes + interval - 1) / interval);
+        int lastStart = endSlot - length;
+        if(limit <= 0 || lastStart < firstStart)
+            return List.of();
+
+        long[] starts = new long[wordsPerRoom];
+        SlotMasks.or(starts, firstStart, lastStart + 1);
+        long[] maintenance = maintenanceWindows.mask();
+        var snapshot = rooms;
+        var partition = days.get(date);
+        var slots = Objects.isNull(partition) ? null : partition.slots;
+
+        int chunks = snapshot.length < PARALLEL_THRESHOLD ? 1 : ForkJoinPool.getCommonPoolParallelism() * 4;
+        int chunkSize = (snapshot.length + chunks - 1) / chunks;
+        var chunkStream = IntStream.range(0, chunks);
+        if(chunks > 1)
+            chunkStream = chunkStream.parallel();
+
+        return chunkStream
+                .mapToObj(chunk -> scanChunk(snapshot, slots, chunk * chunkSize,
+                        Math.min(snapshot.length, (chunk + 1) * chunkSize), numberOfPeople, length, starts, maintenance, limit))
+                .flatMap(List::stream)
+                .sorted(EARLIEST)
+                .limit(limit)
+                .map(freeSlot -> SlotCandidate.builder()
+                        .roomId(freeSlot.room().id)
+                        .name(freeSlot.room().name)
+                        .capacity(freeSlot.room().capacity)
+                        .date(date.toString())
+                        .startTime(TimeOfDay.format(freeSlot.slot() * interval))
+                        .endTime(TimeOfDay.format((freeSlot.slot() + length) * interval))
+                        .build())
+                .toList();
+    }
+
+    // Drops the partitions of days before the given date; their bookings can no longer change
+    public int evictBefore(LocalDate date) {
+        int before = days.size();
+        days.keySet().removeIf(day -> day.isBefore(date));
+        int evicted = before - days.size();
+        availabilityCache.datesBefore(date);
+        if(evicted > 0)
+            log.info("Evicted {} availability partitions before {}", evicted, date);
+        return evicted;
+    }
+
+    public int size() {
+        return rooms.length;
+    }
+
+    public int partitionCount() {
+        return days.size();
+    }
+
+    long[] slotMask(int fromMinute, int toMinute) {
+        return SlotMasks.mask(fromMinute, toMinute, interval);
+    }
+
+    // A set bit in the run bitmap marks a slot that starts length free slots; runs are grown by doubling, so a
+    // room costs O(log length) word operations and every start it offers is found with a bit scan
+    private List<FreeSlot> scanChunk(RoomInfo[] snapshot, AtomicLongArray slots, int fromOrdinal, int toOrdinal,
+                                     int numberOfPeople, int length, long[] starts, long[] maintenance, int limit) {
+        var best = new PriorityQueue<FreeSlot>(limit, EARLIEST.reversed());
+        long[] run = new long[starts.length];
+
+        for (int ordinal = fromOrdinal; ordinal < toOrdinal; ordinal++) {
+            var room = snapshot[ordinal];
+            if(room.capacity < numberOfPeople)
+                continue;
+
+            int offset = ordinal * wordsPerRoom;
+            for (int word = 0; word < run.length; word++) {
+                long booked = Objects.isNull(slots) || offset + word >= slots.length() ? 0 : slots.get(offset + word);
+                run[word] = ~(booked | maintenance[word]);
+            }
+            for (int covered = 1; covered < length; ) {
+                int step = Math.min(covered, length - covered);
+                SlotMasks.andShiftedRight(run, run, step);
+                covered += step;
+            }
+
+            offers:
+            for (int word = 0; word < run.length; word++) {
+                long bits = run[word] & starts[word];
+                while(bits != 0) {
+                    var freeSlot = new FreeSlot(word * Long.SIZE + Long.numberOfTrailingZeros(bits), room);
+                    if(best.size() < limit) {
+                        best.add(freeSlot);
+                    } else if(EARLIEST.compare(freeSlot, best.peek()) < 0) {
+                        best.poll();
+                        best.add(freeSlot);
+                    } else {
+                        // Later starts of this room can only rank lower
+                        break offers;
+                    }
+                    bits &= bits - 1;
+                }
+            }
+        }
+        return List.copyOf(best);
+    }
+
+    private DayPartition partition(LocalDate date) {
+        return days.computeIfAbsent(date, day -> new DayPartition(rooms.length * wordsPerRoom));
+    }
+
+    private void register(ConferenceRoom conferenceRoom) {
+        catalogLock.writeLock().lock();
+        try {
+            if(ordinalsById.containsKey(conferenceRoom.getId()))
+                return;
+
+            var grown = Arrays.copyOf(rooms, rooms.length + 1);
+            grown[rooms.length] = new RoomInfo(conferenceRoom);
+            for (DayPartition partition : days.values())
+                partition.ensureCapacity(grown.length * wordsPerRoom);
+            rooms = grown;
+            ordinalsById.put(conferenceRoom.getId(), grown.length - 1);
+            // The new room is free on every cached range
+            availabilityCache.invalidateAll();
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+    }
+
+    private record FreeSlot(int slot, RoomInfo room) {
+    }
+
+    private enum Claim {
+        RESERVED, CONFLICT, UNDONE
+    }
+
+    private static final class RoomInfo {
+
+        private final long id;
+        private final String name;
+        private final int capacity;
+
+        private RoomInfo(ConferenceRoom conferenceRoom) {
+            this.id = conferenceRoom.getId();
+            this.name = conferenceRoom.getName();
+            this.capacity = conferenceRoom.getCapacity();
+        }
+    }
+
+    // One day of slots for every room, laid out room after room
+    private static final class DayPartition {
+
+        private volatile AtomicLongArray slots;
+
+        private DayPartition(int words) {
+            this.slots = new AtomicLongArray(Math.max(words, 1));
+        }
+
+        private Claim tryReserve(int offset, long[] mask) {
+            var current = slots;
+            var claim = Claim.CONFLICT;
+            for (int word = 0; word < mask.length; word++) {
+                if(mask[word] == 0)
+                    continue;
+                while(true) {
+                    long bits = current.get(offset + word);
+                    if((bits & mask[word]) != 0) {
+                        clear(current, offset, mask, word);
+                        return claim;
+                    }
+                    if(current.compareAndSet(offset + word, bits, bits | mask[word]))
+                        break;
+                }
+                claim = Claim.UNDONE;
+            }
+            return Claim.RESERVED;
+        }
+
+        private void reserve(int offset, long[] mask) {
+            var current = slots;
+            for (int word = 0; word < mask.length; word++) {
+                if(mask[word] != 0)
+                    current.getAndAccumulate(offset + word, mask[word], (bits, reserved) -> bits | reserved);
+            }
+        }
+
+        private void release(int offset, long[] mask) {
+            clear(slots, offset, mask, mask.length);
+        }
+
+        private static void clear(AtomicLongArray slots, int offset, long[] mask, int words) {
+            for (int word = 0; word < words && offset + word < slots.length(); word++) {
+                if(mask[word] != 0)
+                    slots.getAndAccumulate(offset + word, mask[word], (bits, released) -> bits & ~released);
+            }
+        }
+
+        private static boolean isFree(AtomicLongArray slots, int offset, long[] mask) {
+            if(offset >= slots.length())
+                return true;
+            for (int word = 0; word < mask.length; word++) {
+                if((slots.get(offset + word) & mask[word]) != 0)
+                    return false;
+            }
+            return true;
+        }
+
+        // Called under the write lock only, so no slot update can land in the array being copied
+        private void ensureCapacity(int words) {
+            var current = slots;
+            if(current.length() >= words)
+                return;
+            var grown = new AtomicLongArray(Math.max(words, current.length() * 2));
+            for (int i = 0; i < current.length(); i++)
+                grown.set(i, current.get(i));
+            slots = grown;
+        }
+    }
+}
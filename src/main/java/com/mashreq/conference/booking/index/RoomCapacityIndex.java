@@ -0,0 +1,97 @@
+package com.mashreq.conference.booking.index;
+
+import com.mashreq.conference.booking.entities.ConferenceRoom;
+import com.mashreq.conference.booking.repo.ConferenceRoomRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The room catalog sorted by capacity, so the rooms that fit a head count are a suffix of the array and
+ * allocation can try them smallest first. Whether a room is free is a per-slot question answered by
+ * {@link RoomAvailabilityIndex}; this index only changes when the catalog does.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomCapacityIndex implements SmartInitializingSingleton {
+
+    private static final Comparator<ConferenceRoom> BY_CAPACITY =
+            Comparator.comparingInt(ConferenceRoom::getCapacity).thenComparing(ConferenceRoom::getId);
+
+    private final ConferenceRoomRepository conferenceRoomRepository;
+
+    private volatile ConferenceRoom[] roomsByCapacity = new ConferenceRoom[0];
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    public void reload() {
+        reload(conferenceRoomRepository.findCatalog());
+    }
+
+    // Installs a catalog the caller has read already, so it can switch along with another index
+    public synchronized void reload(List<ConferenceRoom> catalog) {
+        var rooms = catalog.toArray(new ConferenceRoom[0]);
+        Arrays.sort(rooms, BY_CAPACITY);
+        roomsByCapacity = rooms;
+        log.info("Capacity index loaded with {} rooms", rooms.length);
+    }
+
+    // Rooms with at least the given capacity, smallest first
+    public List<ConferenceRoom> roomsFitting(int numberOfPeople) {
+        var snapshot = roomsByCapacity;
+        int low = 0;
+        int high = snapshot.length;
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            if(snapshot[mid].getCapacity() < numberOfPeople)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return Arrays.asList(snapshot).subList(low, snapshot.length);
+    }
+
+    // Rooms of at least minCapacity that sort after (afterCapacity, afterId), in (capacity, id) order
+    public List<ConferenceRoom> roomsAfter(int minCapacity, int afterCapacity, long afterId) {
+        var snapshot = roomsByCapacity;
+        int low = 0;
+        int high = snapshot.length;
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            var room = snapshot[mid];
+            boolean before = room.getCapacity() < minCapacity || room.getCapacity() < afterCapacity
+                    || (room.getCapacity() == afterCapacity && room.getId() <= afterId);
+            if(before)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return Arrays.asList(snapshot).subList(low, snapshot.length);
+    }
+
+    public List<ConferenceRoom> rooms() {
+        return List.of(roomsByCapacity);
+    }
+
+    public int maxCapacity() {
+        var snapshot = roomsByCapacity;
+        return snapshot.length == 0 ? 0 : snapshot[snapshot.length - 1].getCapacity();
+    }
+
+    public boolean isEmpty() {
+        return roomsByCapacity.length == 0;
+    }
+
+    public int size() {
+        return roomsByCapacity.length;
+    }
+}
@@ -0,0 +1,62 @@
+package com.mashreq.conference.booking.index;
+
+/**
+ * Slot arithmetic shared by the in-memory indexes and the SLOT_CLAIM rows. A day is split into {@code interval}
+ * minute slots and a set of slots is a bitmap of longs, slot {@code n} being bit {@code n % 64} of word {@code n / 64}.
+ */
+public final class SlotMasks {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    private SlotMasks() {
+    }
+
+    static int slotsPerDay(int interval) {
+        return MINUTES_PER_DAY / interval;
+    }
+
+    static int words(int interval) {
+        return (slotsPerDay(interval) + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    public static int firstSlot(int fromMinute, int interval) {
+        return Math.max(0, fromMinute / interval);
+    }
+
+    // First slot not touched by a range ending at toMinute
+    public static int endSlot(int toMinute, int interval) {
+        return Math.min(slotsPerDay(interval), (toMinute + interval - 1) / interval);
+    }
+
+    // Slots run from the one containing fromMinute up to, but excluding, the one starting at or after toMinute
+    static long[] mask(int fromMinute, int toMinute, int interval) {
+        long[] mask = new long[words(interval)];
+        or(mask, firstSlot(fromMinute, interval), endSlot(toMinute, interval));
+        return mask;
+    }
+
+    static void or(long[] mask, int firstSlot, int endSlot) {
+        for (int word = 0; word < mask.length && firstSlot < endSlot; word++) {
+            int wordStart = word * Long.SIZE;
+            int from = Math.max(firstSlot, wordStart) - wordStart;
+            int to = Math.min(endSlot, wordStart + Long.SIZE) - wordStart;
+            if(from >= to)
+                continue;
+            long upper = to == Long.SIZE ? -1L : (1L << to) - 1;
+            long lower = (1L << from) - 1;
+            mask[word] |= upper & ~lower;
+        }
+    }
+
+    // target &= source >>> shift, the words read as one bit string; safe in place since word n only reads words >= n
+    static void andShiftedRight(long[] target, long[] source, int shift) {
+        int wordShift = shift / Long.SIZE;
+        int bitShift = shift % Long.SIZE;
+        for (int word = 0; word < target.length; word++) {
+            int from = word + wordShift;
+            long low = from < source.length ? source[from] >>> bitShift : 0;
+            long high = bitShift != 0 && from + 1 < source.length ? source[from + 1] << (Long.SIZE - bitShift) : 0;
+            target[word] &= low | high;
+        }
+    }
+}
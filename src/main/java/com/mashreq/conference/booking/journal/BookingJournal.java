@@ -0,0 +1,508 @@
+package com.mashreq.conference.booking.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only booking journal kept in fixed-size memory-mapped segments. Every entry is framed as
+ * [length][CRC32C][body] and numbered with a log sequence number. An append copies the entry into the mapped
+ * segment under a short lock and then waits for the flusher thread, which forces everything appended since its
+ * last pass in one call, so concurrent writers share each flush (group commit). Replay reads the newest
+ * snapshot and then the entries after it, and stops at the first torn or corrupt entry; appending resumes there.
+ */
+@Slf4j
+public final class BookingJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final int SNAPSHOT_MAGIC = 0x43524253;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_END = -1;
+
+    // length and checksum in front of every body
+    private static final int FRAME_HEADER = 8;
+    // type, lsn, booking, room, epoch day, from, to, people, name length
+    private static final int FIXED_BODY = 1 + 8 + 8 + 8 + 4 + 2 + 2 + 4 + 2;
+    private static final JournalEvent.Type[] TYPES = JournalEvent.Type.values();
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long groupCommitNanos;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final Condition flushRequested = commitLock.newCondition();
+    private final Condition flushed = commitLock.newCondition();
+
+    private Segment segment;
+    private volatile long appendedLsn;
+    private volatile long durableLsn;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+    private volatile Thread flusher;
+
+    private long snapshotLsn;
+    private long replayedEvents;
+
+    private BookingJournal(Path directory, int segmentBytes, long groupCommitNanos) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.groupCommitNanos = groupCommitNanos;
+    }
+
+    // Hands every entry of the newest snapshot and the journal after it to replay, then opens for appending
+    public static BookingJournal open(Path directory, int segmentBytes, long groupCommitMicros,
+                                      Consumer<JournalEvent> replay) throws IOException {
+        var journal = new BookingJournal(directory, segmentBytes, TimeUnit.MICROSECONDS.toNanos(groupCommitMicros));
+        journal.recover(replay);
+        journal.flusher = new Thread(journal::flushLoop, "journal-flusher");
+        journal.flusher.setDaemon(true);
+        journal.flusher.start();
+        return journal;
+    }
+
+    // Copies the entry into the current segment; it is durable once await returns for the returned lsn
+    public long append(JournalEvent event) {
+        var name = event.name().getBytes(StandardCharsets.UTF_8);
+        if(name.length > Short.MAX_VALUE)
+            throw new IllegalArgumentException("Journal entry name is too long");
+        int length = FIXED_BODY + name.length;
+
+        appendLock.lock();
+        try {
+            if(closed)
+                throw new IllegalStateException("Booking journal is closed");
+            if(segment.position + FRAME_HEADER + length > segment.buffer.capacity())
+                roll();
+
+            long lsn = appendedLsn + 1;
+            int at = segment.position;
+            var buffer = segment.buffer;
+            encode(buffer, at + FRAME_HEADER, event, lsn, name);
+            buffer.putInt(at + 4, checksum(buffer, at + FRAME_HEADER, length));
+            buffer.putInt(at, length);
+            segment.position = at + FRAME_HEADER + length;
+            appendedLsn = lsn;
+            return lsn;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public void await(long lsn) {
+        if(durableLsn >= lsn)
+            return;
+        commitLock.lock();
+        try {
+            flushRequested.signal();
+            while(durableLsn < lsn) {
+                if(Objects.nonNull(failure))
+                    throw new IllegalStateException("Booking journal flush failed", failure);
+                if(closed && Objects.isNull(flusher))
+                    throw new IllegalStateException("Booking journal is closed");
+                flushed.awaitUninterruptibly();
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    public long appendAndAwait(JournalEvent event) {
+        long lsn = append(event);
+        await(lsn);
+        return lsn;
+    }
+
+    public long lastLsn() {
+        return appendedLsn;
+    }
+
+    public long durableLsn() {
+        return durableLsn;
+    }
+
+    public long getSnapshotLsn() {
+        return snapshotLsn;
+    }
+
+    public long getReplayedEvents() {
+        return replayedEvents;
+    }
+
+    // Writes the state as of lsn, then drops the older snapshots and the segments it covers. Entries after lsn
+    // that the source already reflects are replayed again, so applying an entry has to be idempotent.
+    public void writeSnapshot(long lsn, Consumer<Consumer<JournalEvent>> source) throws IOException {
+        var target = directory.resolve(fileName(SNAPSHOT_PREFIX, lsn, SNAPSHOT_SUFFIX));
+        var temp = directory.resolve(target.getFileName() + TEMP_SUFFIX);
+
+        try (var channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            var out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(lsn);
+            var writer = new SnapshotWriter(out);
+            try {
+                source.accept(writer);
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            out.writeInt(SNAPSHOT_END);
+            out.writeLong(writer.count);
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        prune(lsn);
+    }
+
+    @Override
+    public void close() throws IOException {
+        commitLock.lock();
+        try {
+            closed = true;
+            flushRequested.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        appendLock.lock();
+        try {
+            segment.buffer.force();
+            segment.channel.close();
+        } finally {
+            appendLock.unlock();
+        }
+        commitLock.lock();
+        try {
+            flusher = null;
+            flushed.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    private void recover(Consumer<JournalEvent> replay) throws IOException {
+        Files.createDirectories(directory);
+        try (var temps = Files.list(directory)) {
+            for (Path temp : temps.filter(x -> x.getFileName().toString().endsWith(TEMP_SUFFIX)).toList())
+                Files.delete(temp);
+        }
+
+        long lastLsn = readLatestSnapshot(replay);
+        var segments = list(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (int i = 0; i < segments.size() && Objects.isNull(segment); i++) {
+            var path = segments.get(i);
+            var recovered = Segment.open(path, lsnOf(path, SEGMENT_PREFIX, SEGMENT_SUFFIX), segmentBytes);
+            var buffer = recovered.buffer;
+            int position = 0;
+            boolean torn = false;
+            while(position + FRAME_HEADER <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                if(length == 0)
+                    break;
+                if(length < FIXED_BODY || position + FRAME_HEADER + length > buffer.capacity()
+                        || buffer.getInt(position + 4) != checksum(buffer, position + FRAME_HEADER, length)) {
+                    torn = true;
+                    break;
+                }
+                var event = decode(buffer, position + FRAME_HEADER);
+                if(event.lsn() > snapshotLsn) {
+                    replay.accept(event);
+                    replayedEvents++;
+                }
+                lastLsn = Math.max(lastLsn, event.lsn());
+                position += FRAME_HEADER + length;
+            }
+
+            if(torn) {
+                log.warn("Booking journal {} is torn at offset {}, dropping everything after lsn {}", path.getFileName(),
+                        position, lastLsn);
+                for (int p = position; p < buffer.capacity(); p++)
+                    buffer.put(p, (byte) 0);
+                buffer.force();
+                for (Path later : segments.subList(i + 1, segments.size()))
+                    Files.delete(later);
+            }
+            if(torn || i == segments.size() - 1) {
+                recovered.position = position;
+                recovered.forced = position;
+                segment = recovered;
+            } else {
+                recovered.channel.close();
+            }
+        }
+
+        if(Objects.isNull(segment))
+            segment = Segment.open(directory.resolve(fileName(SEGMENT_PREFIX, lastLsn + 1, SEGMENT_SUFFIX)), lastLsn + 1, segmentBytes);
+        appendedLsn = lastLsn;
+        durableLsn = lastLsn;
+    }
+
+    private long readLatestSnapshot(Consumer<JournalEvent> replay) throws IOException {
+        var snapshots = list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        if(snapshots.isEmpty())
+            return 0;
+
+        var path = snapshots.get(snapshots.size() - 1);
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if(in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION)
+                throw new IOException("Not a booking journal snapshot: " + path);
+            long lsn = in.readLong();
+
+            var body = new byte[FIXED_BODY + Short.MAX_VALUE];
+            var buffer = ByteBuffer.wrap(body);
+            long count = 0;
+            int length;
+            while((length = in.readInt()) != SNAPSHOT_END) {
+                int checksum = in.readInt();
+                if(length < FIXED_BODY || length > body.length)
+                    throw new IOException("Corrupt booking journal snapshot: " + path);
+                in.readFully(body, 0, length);
+                if(checksum(buffer, 0, length) != checksum)
+                    throw new IOException("Corrupt booking journal snapshot: " + path);
+                replay.accept(decode(buffer, 0));
+                count++;
+            }
+            if(in.readLong() != count)
+                throw new IOException("Corrupt booking journal snapshot: " + path);
+
+            snapshotLsn = lsn;
+            replayedEvents += count;
+            return lsn;
+        } catch (EOFException ex) {
+            throw new IOException("Truncated booking journal snapshot: " + path, ex);
+        }
+    }
+
+    private void roll() {
+        segment.buffer.force();
+        segment.forced = segment.position;
+        try {
+            segment.channel.close();
+            segment = Segment.open(directory.resolve(fileName(SEGMENT_PREFIX, appendedLsn + 1, SEGMENT_SUFFIX)),
+                    appendedLsn + 1, segmentBytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        publishDurable(appendedLsn);
+    }
+
+    private void flushLoop() {
+        while(true) {
+            commitLock.lock();
+            try {
+                while(!closed && durableLsn >= appendedLsn)
+                    flushRequested.awaitUninterruptibly();
+                if(closed && durableLsn >= appendedLsn)
+                    return;
+            } finally {
+                commitLock.unlock();
+            }
+
+            // Lets the writers that are about to append join this flush
+            if(groupCommitNanos > 0 && !closed)
+                LockSupport.parkNanos(groupCommitNanos);
+            try {
+                flush();
+            } catch (RuntimeException ex) {
+                log.error("Booking journal flush failed", ex);
+                commitLock.lock();
+                try {
+                    failure = ex;
+                    flushed.signalAll();
+                } finally {
+                    commitLock.unlock();
+                }
+                return;
+            }
+        }
+    }
+
+    private void flush() {
+        Segment target;
+        int from;
+        int to;
+        long lsn;
+        appendLock.lock();
+        try {
+            target = segment;
+            from = target.forced;
+            to = target.position;
+            lsn = appendedLsn;
+        } finally {
+            appendLock.unlock();
+        }
+
+        if(to > from) {
+            target.buffer.force(from, to - from);
+            target.forced = to;
+        }
+        publishDurable(lsn);
+    }
+
+    private void publishDurable(long lsn) {
+        commitLock.lock();
+        try {
+            if(lsn > durableLsn)
+                durableLsn = lsn;
+            flushed.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    private void prune(long lsn) throws IOException {
+        for (Path snapshot : list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if(lsnOf(snapshot, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < lsn)
+                Files.deleteIfExists(snapshot);
+        }
+
+        long currentFirstLsn;
+        appendLock.lock();
+        try {
+            currentFirstLsn = segment.firstLsn;
+        } finally {
+            appendLock.unlock();
+        }
+        // A segment is covered when the next one starts at or before the first entry after the snapshot
+        var segments = list(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            long firstLsn = lsnOf(segments.get(i), SEGMENT_PREFIX, SEGMENT_SUFFIX);
+            long nextFirstLsn = lsnOf(segments.get(i + 1), SEGMENT_PREFIX, SEGMENT_SUFFIX);
+            if(firstLsn < currentFirstLsn && nextFirstLsn <= lsn + 1)
+                Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    private List<Path> list(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(x -> {
+                        var name = x.getFileName().toString();
+                        return name.startsWith(prefix) && name.endsWith(suffix);
+                    })
+                    .sorted(Comparator.comparingLong(x -> lsnOf(x, prefix, suffix)))
+                    .toList();
+        }
+    }
+
+    private static long lsnOf(Path path, String prefix, String suffix) {
+        var name = path.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    private static String fileName(String prefix, long lsn, String suffix) {
+        return String.format("%s%020d%s", prefix, lsn, suffix);
+    }
+
+    private static void encode(ByteBuffer buffer, int at, JournalEvent event, long lsn, byte[] name) {
+        buffer.put(at, (byte) event.type().ordinal());
+        buffer.putLong(at + 1, lsn);
+        buffer.putLong(at + 9, event.bookingId());
+        buffer.putLong(at + 17, event.roomId());
+        buffer.putInt(at + 25, (int) event.epochDay());
+        buffer.putShort(at + 29, (short) event.fromMinute());
+        buffer.putShort(at + 31, (short) event.toMinute());
+        buffer.putInt(at + 33, event.numberOfPeople());
+        buffer.putShort(at + 37, (short) name.length);
+        buffer.put(at + FIXED_BODY, name);
+    }
+
+    private static JournalEvent decode(ByteBuffer buffer, int at) {
+        var name = new byte[buffer.getShort(at + 37)];
+        buffer.get(at + FIXED_BODY, name);
+        return new JournalEvent(TYPES[buffer.get(at)], buffer.getLong(at + 1), buffer.getLong(at + 9),
+                buffer.getLong(at + 17), buffer.getInt(at + 25), buffer.getShort(at + 29), buffer.getShort(at + 31),
+                buffer.getInt(at + 33), new String(name, StandardCharsets.UTF_8));
+    }
+
+    private static int checksum(ByteBuffer buffer, int at, int length) {
+        var crc = new CRC32C();
+        crc.update(buffer.slice(at, length));
+        return (int) crc.getValue();
+    }
+
+    private static final class Segment {
+
+        private final long firstLsn;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int position;
+        private volatile int forced;
+
+        private Segment(long firstLsn, FileChannel channel, MappedByteBuffer buffer) {
+            this.firstLsn = firstLsn;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        // Existing segments keep the size they were created with
+        private static Segment open(Path path, long firstLsn, int segmentBytes) throws IOException {
+            var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size() > 0 ? channel.size() : segmentBytes;
+            return new Segment(firstLsn, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    private static final class SnapshotWriter implements Consumer<JournalEvent> {
+
+        private final DataOutputStream out;
+        private final ByteBuffer body = ByteBuffer.allocate(FIXED_BODY + Short.MAX_VALUE);
+        private long count;
+
+        private SnapshotWriter(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void accept(JournalEvent event) {
+            var name = event.name().getBytes(StandardCharsets.UTF_8);
+            int length = FIXED_BODY + name.length;
+            encode(body, 0, event, 0, name);
+            try {
+                out.writeInt(length);
+                out.writeInt(checksum(body, 0, length));
+                out.write(body.array(), 0, length);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            count++;
+        }
+    }
+}
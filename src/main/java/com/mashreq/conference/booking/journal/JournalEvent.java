@@ -0,0 +1,27 @@
+package com.mashreq.conference.booking.journal;
+
+/**
+ * One journal or snapshot entry. BOOKED carries a whole booking, RELEASED a room freed by the expiry engine;
+ * snapshots hold the room catalog as ROOM_AVAILABLE / ROOM_BOOKED entries, with the capacity in
+ * numberOfPeople and the room name in name, followed by every booking.
+ */
+public record JournalEvent(Type type, long lsn, long bookingId, long roomId, long epochDay, int fromMinute,
+                           int toMinute, int numberOfPeople, String name) {
+
+    public enum Type {
+        BOOKED, RELEASED, ROOM_AVAILABLE, ROOM_BOOKED
+    }
+
+    public static JournalEvent booked(long bookingId, long roomId, long epochDay, int fromMinute, int toMinute,
+                                      int numberOfPeople, String bookedBy) {
+        return new JournalEvent(Type.BOOKED, 0, bookingId, roomId, epochDay, fromMinute, toMinute, numberOfPeople, bookedBy);
+    }
+
+    public static JournalEvent released(long roomId) {
+        return new JournalEvent(Type.RELEASED, 0, 0, roomId, 0, 0, 0, 0, "");
+    }
+
+    public static JournalEvent room(long roomId, String name, int capacity, boolean booked) {
+        return new JournalEvent(booked ? Type.ROOM_BOOKED : Type.ROOM_AVAILABLE, 0, 0, roomId, 0, 0, 0, capacity, name);
+    }
+}
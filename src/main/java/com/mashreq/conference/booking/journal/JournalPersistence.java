@@ -0,0 +1,240 @@
+package com.mashreq.conference.booking.journal;
+
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.domain.BookedSlot;
+import com.mashreq.conference.booking.domain.BookingStatus;
+import com.mashreq.conference.booking.domain.JournalSettings;
+import com.mashreq.conference.booking.entities.BookingDetails;
+import com.mashreq.conference.booking.entities.ConferenceRoom;
+import com.mashreq.conference.booking.repo.SlotClaimRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the in-memory database recoverable across restarts when conference-room.journal.enabled is set.
+ * Committed bookings and expiry releases are appended to the {@link BookingJournal} before the caller is
+ * answered; a periodic snapshot of the room and booking tables bounds how much journal a restart replays.
+ * Recovery runs while the context starts, after schema.sql and data.sql and before the in-memory indexes load,
+ * and merges the replayed rows back into the tables by id so entries that a snapshot already holds are harmless.
+ * Replayed bookings get their slot claims back the same way.
+ */
+@Slf4j
+@Component
+public class JournalPersistence implements InitializingBean, DisposableBean {
+
+    private static final int REPLAY_BATCH = 1000;
+
+    private static final String MERGE_ROOM = "MERGE INTO CONFERENCE_ROOM(id, name, capacity, status) KEY(id) VALUES (?, ?, ?, ?)";
+    private static final String MERGE_BOOKING = "MERGE INTO %s(id, booked_by, from_minute, to_minute, number_of_people, " +
+            "booking_date, conference_room_id) KEY(id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JournalSettings settings;
+    private final JdbcTemplate jdbcTemplate;
+    private final SlotClaimRepository slotClaimRepository;
+    private final TransactionTemplate snapshotTransaction;
+
+    private BookingJournal bookingJournal;
+    private volatile long snapshotLsn;
+
+    public JournalPersistence(ConferenceRoomProperties conferenceRoomProperties, JdbcTemplate jdbcTemplate,
+                              SlotClaimRepository slotClaimRepository, PlatformTransactionManager transactionManager) {
+        this.settings = conferenceRoomProperties.getJournal();
+        this.jdbcTemplate = jdbcTemplate;
+        this.slotClaimRepository = slotClaimRepository;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        if(!settings.isEnabled())
+            return;
+
+        long started = System.nanoTime();
+        var replay = new Replay();
+        bookingJournal = BookingJournal.open(Path.of(settings.getDirectory()), settings.getSegmentBytes(),
+                settings.getGroupCommitMicros(), replay);
+        replay.finish();
+        snapshotLsn = bookingJournal.getSnapshotLsn();
+
+        log.info("Booking journal replayed {} entries from snapshot lsn {} to lsn {} in {} ms",
+                bookingJournal.getReplayedEvents(), snapshotLsn, bookingJournal.lastLsn(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Returns once every booking is durable in the journal; one flush covers the whole batch
+    public void booked(List<BookingDetails> bookings) {
+        if(Objects.isNull(bookingJournal) || bookings.isEmpty())
+            return;
+
+        long lsn = 0;
+        for (BookingDetails bookingDetails : bookings)
+            lsn = bookingJournal.append(JournalEvent.booked(bookingDetails.getId(), bookingDetails.getConferenceRoom().getId(),
+                    bookingDetails.getBookingDate().toEpochDay(), bookingDetails.getFromMinute(),
+                    bookingDetails.getToMinute(), bookingDetails.getNumberOfPeople(), bookingDetails.getBookedBy()));
+        bookingJournal.await(lsn);
+    }
+
+    public void released(Collection<Long> roomIds) {
+        if(Objects.isNull(bookingJournal) || roomIds.isEmpty())
+            return;
+
+        long lsn = 0;
+        for (Long roomId : roomIds)
+            lsn = bookingJournal.append(JournalEvent.released(roomId));
+        bookingJournal.await(lsn);
+    }
+
+    // Rooms added or changed outside a booking, such as by a catalog import; replay merges them by id
+    public void roomsChanged(List<ConferenceRoom> rooms) {
+        if(Objects.isNull(bookingJournal) || rooms.isEmpty())
+            return;
+
+        long lsn = 0;
+        for (ConferenceRoom conferenceRoom : rooms)
+            lsn = bookingJournal.append(JournalEvent.room(conferenceRoom.getId(), conferenceRoom.getName(),
+                    conferenceRoom.getCapacity(), BookingStatus.BOOKED.name().equals(conferenceRoom.getStatus())));
+        bookingJournal.await(lsn);
+    }
+
+    // Entries appended up to lsn describe bookings that were already committed, so the dump taken afterwards holds them
+    @Scheduled(fixedDelayString = "${conference-room.journal.snapshot-interval-ms:300000}")
+    public void snapshot() throws IOException {
+        if(Objects.isNull(bookingJournal))
+            return;
+
+        long lsn = bookingJournal.lastLsn();
+        if(lsn == snapshotLsn)
+            return;
+
+        long started = System.nanoTime();
+        bookingJournal.writeSnapshot(lsn, this::dumpTables);
+        snapshotLsn = lsn;
+        log.info("Booking journal snapshot at lsn {} written in {} ms", lsn, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public boolean isEnabled() {
+        return Objects.nonNull(bookingJournal);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if(Objects.isNull(bookingJournal))
+            return;
+        try {
+            snapshot();
+        } finally {
+            bookingJournal.close();
+        }
+    }
+
+    // One serializable read, so bookings the archiver moves between the two booking tables mid-dump are seen in
+    // exactly one of them; the snapshot prunes the journal that would otherwise bring them back. H2's repeatable
+    // read only pins a table once it is first read, which still misses a move between the two queries.
+    private void dumpTables(Consumer<JournalEvent> sink) {
+        snapshotTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.query("SELECT id, name, capacity, status FROM CONFERENCE_ROOM", rs -> {
+                sink.accept(JournalEvent.room(rs.getLong(1), rs.getString(2), rs.getInt(3),
+                        BookingStatus.BOOKED.name().equals(rs.getString(4))));
+            });
+            for (String table : List.of("BOOKING_DETAILS_ARCHIVE", "BOOKING_DETAILS"))
+                jdbcTemplate.query("SELECT id, conference_room_id, booking_date, from_minute, to_minute, number_of_people, " +
+                        "booked_by FROM " + table, rs -> {
+                    sink.accept(JournalEvent.booked(rs.getLong(1), rs.getLong(2), rs.getDate(3).toLocalDate().toEpochDay(),
+                            rs.getInt(4), rs.getInt(5), rs.getInt(6), rs.getString(7)));
+                });
+        });
+    }
+
+    // Batches the replayed rows into the tables; past days go straight to the archive, as the archiver would
+    private final class Replay implements Consumer<JournalEvent> {
+
+        private final long today = LocalDate.now().toEpochDay();
+        private final List<Object[]> rooms = new ArrayList<>();
+        private final List<Object[]> bookings = new ArrayList<>();
+        private final List<Object[]> archived = new ArrayList<>();
+        private final List<BookedSlot> claims = new ArrayList<>();
+        private final Map<Long, String> roomStatus = new HashMap<>();
+
+        @Override
+        public void accept(JournalEvent event) {
+            switch (event.type()) {
+                case ROOM_AVAILABLE, ROOM_BOOKED -> {
+                    var status = event.type() == JournalEvent.Type.ROOM_BOOKED ? BookingStatus.BOOKED : BookingStatus.AVAILABLE;
+                    rooms.add(new Object[]{event.roomId(), event.name(), event.numberOfPeople(), status.name()});
+                    if(rooms.size() == REPLAY_BATCH)
+                        flushRooms();
+                }
+                case BOOKED -> {
+                    var row = new Object[]{event.bookingId(), event.name(), event.fromMinute(), event.toMinute(),
+                            event.numberOfPeople(), Date.valueOf(LocalDate.ofEpochDay(event.epochDay())), event.roomId()};
+                    if(event.epochDay() < today) {
+                        archived.add(row);
+                    } else {
+                        bookings.add(row);
+                        claims.add(new BookedSlot(event.roomId(), LocalDate.ofEpochDay(event.epochDay()),
+                                event.fromMinute(), event.toMinute()));
+                        roomStatus.put(event.roomId(), BookingStatus.BOOKED.name());
+                    }
+                    if(bookings.size() + archived.size() >= REPLAY_BATCH)
+                        flushBookings();
+                }
+                case RELEASED -> roomStatus.put(event.roomId(), BookingStatus.AVAILABLE.name());
+            }
+        }
+
+        private void finish() {
+            flushBookings();
+            var statuses = roomStatus.entrySet().stream()
+                    .map(x -> new Object[]{x.getValue(), x.getKey()})
+                    .toList();
+            jdbcTemplate.batchUpdate("UPDATE CONFERENCE_ROOM SET status = ? WHERE id = ?", statuses);
+
+            // New ids have to start past everything replayed; the pooled generator hands out the 50 ids below each value
+            Long maxBookingId = jdbcTemplate.queryForObject("SELECT GREATEST(COALESCE((SELECT MAX(id) FROM BOOKING_DETAILS), 0), " +
+                    "COALESCE((SELECT MAX(id) FROM BOOKING_DETAILS_ARCHIVE), 0))", Long.class);
+            Long maxRoomId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM CONFERENCE_ROOM", Long.class);
+            jdbcTemplate.execute("ALTER SEQUENCE BOOKING_DETAILS_SEQ RESTART WITH " + (maxBookingId + 51));
+            jdbcTemplate.execute("ALTER TABLE CONFERENCE_ROOM ALTER COLUMN id RESTART WITH " + (maxRoomId + 1));
+        }
+
+        private void flushRooms() {
+            if(!rooms.isEmpty())
+                jdbcTemplate.batchUpdate(MERGE_ROOM, rooms);
+            rooms.clear();
+        }
+
+        private void flushBookings() {
+            // Rooms first, the bookings reference them
+            flushRooms();
+            if(!bookings.isEmpty())
+                jdbcTemplate.batchUpdate(String.format(MERGE_BOOKING, "BOOKING_DETAILS"), bookings);
+            if(!archived.isEmpty())
+                jdbcTemplate.batchUpdate(String.format(MERGE_BOOKING, "BOOKING_DETAILS_ARCHIVE"), archived);
+            slotClaimRepository.restore(claims);
+            bookings.clear();
+            archived.clear();
+            claims.clear();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.mashreq.conference.booking.metrics;
+
+import com.mashreq.conference.booking.exception.RejectionReason;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts rejected booking requests by reason. The reasons are the {@link RejectionReason} codes,
+ * so the number of tag values stays bounded.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<RejectionReason, Counter> rejections = new ConcurrentHashMap<>();
+
+    public void rejected(RejectionReason reason) {
+        rejections.computeIfAbsent(reason, key -> Counter.builder("conference.booking.rejections")
+                        .description("Booking requests rejected, by reason")
+                        .tag("reason", key.name())
+                        .register(meterRegistry))
+                .increment();
+    }
+}
@@ -0,0 +1,113 @@
+package com.mashreq.conference.booking.metrics;
+
+import com.mashreq.conference.booking.index.AvailabilityCache;
+import com.mashreq.conference.booking.index.RoomAvailabilityIndex;
+import com.mashreq.conference.booking.index.RoomCapacityIndex;
+import com.mashreq.conference.booking.service.AdmissionControl;
+import com.mashreq.conference.booking.service.BookingExpiryEngine;
+import com.mashreq.conference.booking.service.IdempotentRequests;
+import com.mashreq.conference.booking.service.RoomEventBroadcaster;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateQueryMetrics;
+import org.springframework.stereotype.Component;
+
+/**
+ * Room occupancy and expiry gauges read straight from the in-memory indexes, availability cache hits,
+ * misses and invalidations, event stream subscribers, idempotent replays and shed booking requests, plus
+ * per-query Hibernate statistics (execution count, rows, time) for every HQL statement the repositories run.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConferenceRoomMetrics implements MeterBinder {
+
+    private final RoomCapacityIndex roomCapacityIndex;
+    private final RoomAvailabilityIndex roomAvailabilityIndex;
+    private final BookingExpiryEngine bookingExpiryEngine;
+    private final AvailabilityCache availabilityCache;
+    private final RoomEventBroadcaster roomEventBroadcaster;
+    private final IdempotentRequests idempotentRequests;
+    private final AdmissionControl admissionControl;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("conference.rooms", this, ConferenceRoomMetrics::availableRooms)
+                .description("Conference rooms by status")
+                .tag("status", "available")
+                .register(registry);
+        Gauge.builder("conference.rooms", bookingExpiryEngine, BookingExpiryEngine::bookedCount)
+                .description("Conference rooms by status")
+                .tag("status", "booked")
+                .register(registry);
+        Gauge.builder("conference.availability.partitions", roomAvailabilityIndex, RoomAvailabilityIndex::partitionCount)
+                .description("Days of availability held in memory")
+                .register(registry);
+
+        Gauge.builder("conference.expiry.pending", bookingExpiryEngine, BookingExpiryEngine::pendingCount)
+                .description("Booked rooms waiting for their slot to end")
+                .register(registry);
+        Gauge.builder("conference.expiry.batch.size", bookingExpiryEngine, BookingExpiryEngine::getLastBatchSize)
+                .description("Rooms released by the last expiry run")
+                .register(registry);
+        Gauge.builder("conference.expiry.lag", bookingExpiryEngine, BookingExpiryEngine::getLastExpiryLagMillis)
+                .description("Delay between slot end and release in the last expiry run")
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("conference.expiry.lag.max", bookingExpiryEngine, BookingExpiryEngine::getMaxExpiryLagMillis)
+                .description("Largest delay between slot end and release since startup")
+                .baseUnit("milliseconds")
+                .register(registry);
+        FunctionCounter.builder("conference.expiry.released", bookingExpiryEngine, BookingExpiryEngine::getReleasedRooms)
+                .description("Rooms released by the expiry engine")
+                .register(registry);
+
+        CaffeineCacheMetrics.monitor(registry, availabilityCache.nativeCache(), "availability");
+        Gauge.builder("conference.availability.cache.hit.ratio", availabilityCache, AvailabilityCache::hitRatio)
+                .description("Share of availability queries answered from the cache since startup")
+                .register(registry);
+        FunctionCounter.builder("conference.availability.cache.invalidations", availabilityCache, AvailabilityCache::getInvalidations)
+                .description("Cached availability ranges dropped because their slots changed")
+                .register(registry);
+
+        Gauge.builder("conference.events.subscribers", roomEventBroadcaster, RoomEventBroadcaster::subscriberCount)
+                .description("Clients connected to the room event stream")
+                .register(registry);
+        FunctionCounter.builder("conference.events.dropped", roomEventBroadcaster, RoomEventBroadcaster::getDroppedSubscribers)
+                .description("Event stream clients disconnected for falling a full queue behind")
+                .register(registry);
+
+        Gauge.builder("conference.idempotency.keys", idempotentRequests, IdempotentRequests::keyCount)
+                .description("Idempotency keys remembered for booking retries")
+                .register(registry);
+        FunctionCounter.builder("conference.idempotency.replays", idempotentRequests, IdempotentRequests::getReplays)
+                .description("Booking retries answered with the response of the original request")
+                .register(registry);
+
+        Gauge.builder("conference.admission.in.flight", admissionControl, AdmissionControl::inFlightCount)
+                .description("Booking requests holding a global admission slot")
+                .register(registry);
+        FunctionCounter.builder("conference.admission.shed", admissionControl, AdmissionControl::getShedByUserRate)
+                .description("Booking requests rejected with 429, by reason")
+                .tag("reason", "user_rate")
+                .register(registry);
+        FunctionCounter.builder("conference.admission.shed", admissionControl, AdmissionControl::getShedByConcurrency)
+                .description("Booking requests rejected with 429, by reason")
+                .tag("reason", "concurrency")
+                .register(registry);
+
+        new HibernateQueryMetrics(entityManagerFactory.unwrap(SessionFactory.class), "entityManagerFactory", Tags.empty())
+                .bindTo(registry);
+    }
+
+    private int availableRooms() {
+        return Math.max(0, roomCapacityIndex.size() - bookingExpiryEngine.bookedCount());
+    }
+}
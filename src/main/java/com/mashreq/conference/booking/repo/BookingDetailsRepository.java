@@ -1,16 +1,76 @@
 package com.mashreq.conference.booking.repo;
 
+import com.mashreq.conference.booking.domain.BookedSlot;
+import com.mashreq.conference.booking.domain.BookingUsage;
+import com.mashreq.conference.booking.domain.BookingView;
 import com.mashreq.conference.booking.entities.BookingDetails;
-import com.mashreq.conference.booking.entities.ConferenceRoom;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingDetailsRepository extends JpaRepository<BookingDetails, Long> {
 
-    @Query("SELECT e FROM BookingDetails e WHERE e.fromTime >= :startTime AND e.toTime <= :endTime")
-    List<BookingDetails> getBookingBetweenStartTimeEndTime(String startTime,String endTime);
+    @Query("SELECT e FROM BookingDetails e JOIN FETCH e.conferenceRoom WHERE e.bookingDate = :date AND e.fromMinute < :endMinute AND e.toMinute > :startMinute")
+    List<BookingDetails> getBookingBetweenStartTimeEndTime(LocalDate date, int startMinute, int endMinute);
+
+    @Query("SELECT new com.mashreq.conference.booking.domain.BookedSlot(e.conferenceRoom.id, e.bookingDate, e.fromMinute, e.toMinute) " +
+            "FROM BookingDetails e WHERE e.bookingDate BETWEEN :fromDate AND :toDate")
+    List<BookedSlot> findBookedSlots(LocalDate fromDate, LocalDate toDate);
+
+    @Query("SELECT new com.mashreq.conference.booking.domain.BookingUsage(e.conferenceRoom.id, e.bookedBy, e.bookingDate, " +
+            "e.fromMinute, e.toMinute, e.numberOfPeople) FROM BookingDetails e")
+    List<BookingUsage> findBookingUsage();
+
+    @Query("SELECT new com.mashreq.conference.booking.domain.BookingUsage(e.conferenceRoomId, e.bookedBy, e.bookingDate, " +
+            "e.fromMinute, e.toMinute, e.numberOfPeople) FROM ArchivedBooking e")
+    List<BookingUsage> findArchivedBookingUsage();
+
+    // One statement over both tables, so a booking the archiver moves meanwhile is read exactly once
+    @Query("SELECT new com.mashreq.conference.booking.domain.BookingUsage(e.conferenceRoom.id, e.bookedBy, e.bookingDate, " +
+            "e.fromMinute, e.toMinute, e.numberOfPeople) FROM BookingDetails e WHERE e.bookedBy = :bookedBy " +
+            "UNION ALL SELECT new com.mashreq.conference.booking.domain.BookingUsage(a.conferenceRoomId, a.bookedBy, " +
+            "a.bookingDate, a.fromMinute, a.toMinute, a.numberOfPeople) FROM ArchivedBooking a WHERE a.bookedBy = :bookedBy")
+    List<BookingUsage> findUserBookingUsage(String bookedBy);
+
+    // Keyset page: seeks past the (date, start, id) of the previous page's last row instead of skipping an offset.
+    // Walks IDX_BOOKING_DATE_FROM in order and stops at the page size
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT new com.mashreq.conference.booking.domain.BookingView(e.id, e.bookedBy, e.numberOfPeople, " +
+            "e.bookingDate, e.fromMinute, e.toMinute, r.id, r.name) FROM BookingDetails e JOIN e.conferenceRoom r " +
+            "WHERE (:bookedBy IS NULL OR e.bookedBy = :bookedBy) " +
+            "AND e.bookingDate <= :toDate AND (e.bookingDate, e.fromMinute, e.id) > (:afterDate, :afterMinute, :afterId) " +
+            "ORDER BY e.bookingDate, e.fromMinute, e.id")
+    Stream<BookingView> streamBookings(String bookedBy, LocalDate toDate, LocalDate afterDate,
+                                       int afterMinute, long afterId, Pageable page);
+
+    // The same page for one room. Ordering by the room first, a constant here, lets IDX_BOOKING_ROOM_DATE_FROM
+    // serve the order as well as the seek
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT new com.mashreq.conference.booking.domain.BookingView(e.id, e.bookedBy, e.numberOfPeople, " +
+            "e.bookingDate, e.fromMinute, e.toMinute, r.id, r.name) FROM BookingDetails e JOIN e.conferenceRoom r " +
+            "WHERE e.conferenceRoom.id = :roomId AND (:bookedBy IS NULL OR e.bookedBy = :bookedBy) " +
+            "AND e.bookingDate <= :toDate AND (e.bookingDate, e.fromMinute, e.id) > (:afterDate, :afterMinute, :afterId) " +
+            "ORDER BY e.conferenceRoom.id, e.bookingDate, e.fromMinute, e.id")
+    Stream<BookingView> streamRoomBookings(Long roomId, String bookedBy, LocalDate toDate, LocalDate afterDate,
+                                           int afterMinute, long afterId, Pageable page);
+
+    @Modifying
+    @Query(value = "INSERT INTO BOOKING_DETAILS_ARCHIVE(id, booked_by, from_minute, to_minute, number_of_people, " +
+            "booking_date, conference_room_id) SELECT id, booked_by, from_minute, to_minute, number_of_people, " +
+            "booking_date, conference_room_id FROM BOOKING_DETAILS WHERE booking_date < :date", nativeQuery = true)
+    int archiveBefore(LocalDate date);
+
+    @Modifying
+    @Query("DELETE FROM BookingDetails e WHERE e.bookingDate < :date")
+    int deleteBefore(LocalDate date);
 }
@@ -2,12 +2,37 @@ package com.mashreq.conference.booking.repo;
 
 import com.mashreq.conference.booking.entities.ConferenceRoom;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ConferenceRoomRepository extends JpaRepository<ConferenceRoom, Long> {
 
-    List<ConferenceRoom> findByStatus(String status);
+    // Detached copies for the in-memory indexes, read without going through the persistence context
+    @Query("SELECT new com.mashreq.conference.booking.entities.ConferenceRoom(e.id, e.name, e.capacity, e.status) " +
+            "FROM ConferenceRoom e")
+    List<ConferenceRoom> findCatalog();
+
+    @Query("SELECT e.id FROM ConferenceRoom e WHERE e.status = :status")
+    List<Long> findIdsByStatus(String status);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ConferenceRoom e SET e.status = :status WHERE e.id IN :ids")
+    int updateStatusByIds(String status, Collection<Long> ids);
+
+    // Skips rooms with a booking ending after (date, minute), so a booking committed since the caller decided to
+    // release a room keeps it booked
+    @Modifying
+    @Transactional
+    @Query("UPDATE ConferenceRoom e SET e.status = :status WHERE e.id IN :ids AND NOT EXISTS (" +
+            "SELECT b.id FROM BookingDetails b WHERE b.conferenceRoom.id = e.id " +
+            "AND (b.bookingDate > :date OR (b.bookingDate = :date AND b.toMinute > :minute)))")
+    int updateStatusByIdsUnlessBookedAfter(String status, Collection<Long> ids, LocalDate date, int minute);
 }
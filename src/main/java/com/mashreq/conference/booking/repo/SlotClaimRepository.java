@@ -0,0 +1,96 @@
+package com.mashreq.conference.booking.repo;
+
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.domain.BookedSlot;
+import com.mashreq.conference.booking.index.SlotMasks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The SLOT_CLAIM rows behind every booking: one per room, date and booking interval slot, with the three as
+ * primary key. Whichever transaction inserts a slot first owns it, on this instance or any other sharing the
+ * database, so a claim either takes all of a booking's slots or fails on the key without booking anything.
+ * Claims join the caller's transaction, which JpaTransactionManager shares with JdbcTemplate, under a JDBC
+ * savepoint of their own, so a conflict only undoes the claim and the caller can go on with the next room.
+ */
+@Repository
+public class SlotClaimRepository {
+
+    private static final String CLAIM = "INSERT INTO SLOT_CLAIM(conference_room_id, booking_date, slot) VALUES (?, ?, ?)";
+    // H2's MERGE, like the rest of the journal replay
+    private static final String RESTORE = "MERGE INTO SLOT_CLAIM(conference_room_id, booking_date, slot) " +
+            "KEY(conference_room_id, booking_date, slot) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConferenceRoomProperties conferenceRoomProperties;
+    private final Counter conflicts;
+
+    public SlotClaimRepository(JdbcTemplate jdbcTemplate, ConferenceRoomProperties conferenceRoomProperties,
+                               MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.conferenceRoomProperties = conferenceRoomProperties;
+        this.conflicts = Counter.builder("conference.slot.claim.conflicts")
+                .description("Slot claims that lost to a booking already holding one of the slots")
+                .register(meterRegistry);
+    }
+
+    // False when another booking holds one of the slots
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean claim(Long roomId, LocalDate date, int fromMinute, int toMinute){
+        return claimAll(List.of(new BookedSlot(roomId, date, fromMinute, toMinute)));
+    }
+
+    // The slots of every booking in one batch, or none of them when any slot is taken. The savepoint needs the
+    // caller's transaction; without one the claim would commit on its own and could not be undone with the booking
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean claimAll(List<BookedSlot> bookedSlots){
+        var rows = rows(bookedSlots);
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            var savepoint = connection.setSavepoint();
+            try {
+                jdbcTemplate.batchUpdate(CLAIM, rows);
+                connection.releaseSavepoint(savepoint);
+                return true;
+            } catch (DuplicateKeyException ex) {
+                connection.rollback(savepoint);
+                conflicts.increment();
+                return false;
+            }
+        }));
+    }
+
+    // Claims for bookings that are already known to hold their slots, such as replayed ones; existing rows are kept
+    public void restore(Collection<BookedSlot> bookedSlots){
+        if(!bookedSlots.isEmpty())
+            jdbcTemplate.batchUpdate(RESTORE, rows(bookedSlots));
+    }
+
+    public int deleteBefore(LocalDate date){
+        return jdbcTemplate.update("DELETE FROM SLOT_CLAIM WHERE booking_date < ?", Date.valueOf(date));
+    }
+
+    // One row per slot the availability index marks for the booking
+    private List<Object[]> rows(Collection<BookedSlot> bookedSlots){
+        int interval = conferenceRoomProperties.getBooking().getInterval();
+        var rows = new ArrayList<Object[]>();
+        for (BookedSlot bookedSlot : bookedSlots) {
+            var bookingDate = Date.valueOf(bookedSlot.bookingDate());
+            int endSlot = SlotMasks.endSlot(bookedSlot.toMinute(), interval);
+            for (int slot = SlotMasks.firstSlot(bookedSlot.fromMinute(), interval); slot < endSlot; slot++)
+                rows.add(new Object[]{bookedSlot.roomId(), bookingDate, slot});
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,134 @@
+package com.mashreq.conference.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.domain.AdmissionSettings;
+import com.mashreq.conference.booking.exception.ConferenceRoomBookingException;
+import com.mashreq.conference.booking.exception.RejectionReason;
+import com.mashreq.conference.booking.exception.TooManyRequestsException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission in front of the booking endpoints. Each user draws from a token bucket that refills at
+ * userPermitsPerSecond up to userBurst tokens. The bucket is kept as one theoretical arrival time advanced by
+ * compare-and-set (GCRA), so admitting a request takes no lock. A global cap on bookings in flight sheds the
+ * excess straight away instead of letting it queue for database connections.
+ */
+@Component
+public class AdmissionControl {
+
+    private final AdmissionSettings settings;
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final Cache<String, AtomicLong> buckets;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong shedByUserRate = new AtomicLong();
+    private final AtomicLong shedByConcurrency = new AtomicLong();
+
+    public AdmissionControl(ConferenceRoomProperties conferenceRoomProperties) {
+        this.settings = conferenceRoomProperties.getAdmission();
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / settings.getUserPermitsPerSecond());
+        this.burstNanos = emissionIntervalNanos * settings.getUserBurst();
+        // An idle user's bucket is full again after burstNanos, so forgetting it then changes nothing
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumUsers())
+                .expireAfterAccess(Duration.ofNanos(burstNanos))
+                .build();
+    }
+
+    public void admitUser(String userId) {
+        admitUser(userId, 1);
+    }
+
+    // Takes all of the permits from the user's bucket or none of them
+    public void admitUser(String userId, int permits) {
+        if(!settings.isEnabled())
+            return;
+
+        // More than a full bucket would never be admitted, however long the client waited
+        if(permits > settings.getUserBurst())
+            throw new ConferenceRoomBookingException(RejectionReason.USER_BURST, "A user can make at most " + settings.getUserBurst()
+                    + " bookings in one request");
+
+        long now = System.nanoTime();
+        long cost = emissionIntervalNanos * permits;
+        var bucket = buckets.get(userId, key -> new AtomicLong(now));
+        while(true) {
+            long arrival = bucket.get();
+            long nextArrival = Math.max(arrival, now) + cost;
+            long excess = nextArrival - now - burstNanos;
+            if(excess > 0) {
+                shedByUserRate.incrementAndGet();
+                throw new TooManyRequestsException("Too many booking requests for this user, please retry later",
+                        Math.max(1, (excess + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)));
+            }
+            if(bucket.compareAndSet(arrival, nextArrival))
+                return;
+        }
+    }
+
+    // Every user gets their permits or none is charged: when one user is over the limit, the permits already
+    // taken from the others are handed back before the rejection is thrown
+    public void admitUsers(Map<String, Integer> permitsByUser) {
+        if(!settings.isEnabled())
+            return;
+
+        var admitted = new ArrayList<Map.Entry<String, Integer>>(permitsByUser.size());
+        try {
+            for (var entry : permitsByUser.entrySet()) {
+                admitUser(entry.getKey(), entry.getValue());
+                admitted.add(entry);
+            }
+        } catch (RuntimeException ex) {
+            for (var entry : admitted) {
+                var bucket = buckets.getIfPresent(entry.getKey());
+                if(Objects.nonNull(bucket))
+                    bucket.addAndGet(-emissionIntervalNanos * entry.getValue());
+            }
+            throw ex;
+        }
+    }
+
+    public void enter() {
+        if(!settings.isEnabled())
+            return;
+
+        int limit = settings.getMaxConcurrentBookings();
+        while(true) {
+            int current = inFlight.get();
+            if(current >= limit) {
+                shedByConcurrency.incrementAndGet();
+                throw new TooManyRequestsException("The booking service is at capacity, please retry later", 1);
+            }
+            if(inFlight.compareAndSet(current, current + 1))
+                return;
+        }
+    }
+
+    public void exit() {
+        if(settings.isEnabled())
+            inFlight.decrementAndGet();
+    }
+
+    public int inFlightCount() {
+        return inFlight.get();
+    }
+
+    public long getShedByUserRate() {
+        return shedByUserRate.get();
+    }
+
+    public long getShedByConcurrency() {
+        return shedByConcurrency.get();
+    }
+}
@@ -0,0 +1,54 @@
+package com.mashreq.conference.booking.service;
+
+import com.mashreq.conference.booking.index.RoomAvailabilityIndex;
+import com.mashreq.conference.booking.repo.BookingDetailsRepository;
+import com.mashreq.conference.booking.repo.SlotClaimRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Moves bookings of past days from BOOKING_DETAILS to BOOKING_DETAILS_ARCHIVE, drops their slot claims and
+ * evicts their availability partitions, once at startup and then every night, so the hot tables and the
+ * in-memory index only ever hold today and the look-ahead window. The occupancy counters are seeded right after
+ * the startup run, so no booking is between the two tables while they are read.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingArchiver implements SmartInitializingSingleton {
+
+    private final BookingDetailsRepository bookingDetailsRepository;
+    private final SlotClaimRepository slotClaimRepository;
+    private final RoomAvailabilityIndex roomAvailabilityIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final OccupancyAnalytics occupancyAnalytics;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        archivePastBookings();
+        occupancyAnalytics.reload();
+    }
+
+    @Scheduled(cron = "${conference-room.archive.cron:0 5 0 * * *}")
+    public void archivePastBookings() {
+        var today = LocalDate.now();
+
+        Integer archived = transactionTemplate.execute(status -> {
+            int copied = bookingDetailsRepository.archiveBefore(today);
+            bookingDetailsRepository.deleteBefore(today);
+            slotClaimRepository.deleteBefore(today);
+            return copied;
+        });
+        roomAvailabilityIndex.evictBefore(today);
+
+        if(Objects.nonNull(archived) && archived > 0)
+            log.info("Archived {} bookings before {}", archived, today);
+    }
+}
@@ -0,0 +1,172 @@
+package com.mashreq.conference.booking.service;
+
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.domain.BookedSlot;
+import com.mashreq.conference.booking.domain.BookingStatus;
+import com.mashreq.conference.booking.domain.RoomStatusEvent;
+import com.mashreq.conference.booking.journal.JournalPersistence;
+import com.mashreq.conference.booking.repo.BookingDetailsRepository;
+import com.mashreq.conference.booking.repo.ConferenceRoomRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Marks a booked room available again once its last booking has ended. Pending expirations are kept ordered
+ * by date and end time, so each run only looks at the bookings that are actually due and releases them in a
+ * single update; a room with a later booking still pending, or one booked while the update runs, stays booked.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingExpiryEngine implements SmartInitializingSingleton {
+
+    private static final Comparator<PendingExpiry> BY_END =
+            Comparator.comparing((PendingExpiry expiry) -> expiry.date).thenComparingInt(expiry -> expiry.endMinute);
+
+    private final ConferenceRoomProperties conferenceRoomProperties;
+    private final ConferenceRoomRepository conferenceRoomRepository;
+    private final BookingDetailsRepository bookingDetailsRepository;
+    private final RoomEventBroadcaster roomEventBroadcaster;
+    private final OccupancyAnalytics occupancyAnalytics;
+    private final JournalPersistence journalPersistence;
+
+    private final PriorityBlockingQueue<PendingExpiry> pendingExpiries = new PriorityBlockingQueue<>(64, BY_END);
+    private final Map<Long, PendingExpiry> lastExpiryByRoom = new ConcurrentHashMap<>();
+
+    private final AtomicLong lastBatchSize = new AtomicLong();
+    private final AtomicLong lastExpiryLagMillis = new AtomicLong();
+    private final AtomicLong maxExpiryLagMillis = new AtomicLong();
+    private final AtomicLong releasedRooms = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        var today = LocalDate.now();
+        var lastDay = today.plusDays(conferenceRoomProperties.getBooking().getLookAheadDays());
+        for (BookedSlot bookedSlot : bookingDetailsRepository.findBookedSlots(today, lastDay))
+            schedule(bookedSlot.roomId(), bookedSlot.bookingDate(), bookedSlot.toMinute());
+
+        // Rooms left booked by bookings that are already history
+        var staleRooms = conferenceRoomRepository.findIdsByStatus(BookingStatus.BOOKED.name()).stream()
+                .filter(roomId -> !lastExpiryByRoom.containsKey(roomId))
+                .toList();
+        if(!staleRooms.isEmpty())
+            conferenceRoomRepository.updateStatusByIds(BookingStatus.AVAILABLE.name(), staleRooms);
+
+        log.info("Expiry engine started with {} pending expirations, released {} stale rooms",
+                pendingExpiries.size(), staleRooms.size());
+    }
+
+    public void schedule(Long roomId, LocalDate date, int endMinute) {
+        var pendingExpiry = new PendingExpiry(roomId, date, endMinute);
+        lastExpiryByRoom.merge(roomId, pendingExpiry, (current, added) -> BY_END.compare(added, current) > 0 ? added : current);
+        pendingExpiries.add(pendingExpiry);
+    }
+
+    @Scheduled(fixedDelayString = "${conference-room.expiry.poll-interval-ms:15000}")
+    public void releaseExpiredRooms() {
+        var now = LocalDateTime.now();
+        var due = new PendingExpiry(null, now.toLocalDate(), now.getHour() * 60 + now.getMinute());
+        long nowMillis = now.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        var expiredRooms = new HashSet<Long>();
+        long maxLag = 0;
+        PendingExpiry head;
+        while(Objects.nonNull(head = pendingExpiries.peek()) && BY_END.compare(head, due) <= 0) {
+            var expired = pendingExpiries.poll();
+            if(Objects.isNull(expired))
+                break;
+            occupancyAnalytics.bookingEnded(expired.roomId);
+            // Only the last booking of a room frees it
+            if(lastExpiryByRoom.remove(expired.roomId, expired))
+                expiredRooms.add(expired.roomId);
+            long endMillis = expired.date.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    + expired.endMinute * 60_000L;
+            maxLag = Math.max(maxLag, nowMillis - endMillis);
+        }
+
+        if(expiredRooms.isEmpty())
+            return;
+
+        // A room booked again since it was taken off lastExpiryByRoom keeps its BOOKED status, and is rescheduled
+        // by then, so it is neither journalled nor announced as released
+        int updated = conferenceRoomRepository.updateStatusByIdsUnlessBookedAfter(BookingStatus.AVAILABLE.name(),
+                new ArrayList<>(expiredRooms), due.date, due.endMinute);
+        expiredRooms.removeIf(lastExpiryByRoom::containsKey);
+        journalPersistence.released(expiredRooms);
+
+        lastBatchSize.set(updated);
+        lastExpiryLagMillis.set(maxLag);
+        maxExpiryLagMillis.accumulateAndGet(maxLag, Math::max);
+        releasedRooms.addAndGet(updated);
+        batches.incrementAndGet();
+        expiredRooms.forEach(roomId -> roomEventBroadcaster.publish(RoomEventBroadcaster.RELEASED, RoomStatusEvent.builder()
+                .roomId(roomId)
+                .status(BookingStatus.AVAILABLE.name())
+                .build()));
+        log.info("Released {} expired rooms, expiry lag {} ms", updated, maxLag);
+    }
+
+    public int pendingCount() {
+        return pendingExpiries.size();
+    }
+
+    public long getLastBatchSize() {
+        return lastBatchSize.get();
+    }
+
+    public long getLastExpiryLagMillis() {
+        return lastExpiryLagMillis.get();
+    }
+
+    public long getMaxExpiryLagMillis() {
+        return maxExpiryLagMillis.get();
+    }
+
+    public long getReleasedRooms() {
+        return releasedRooms.get();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public int bookedCount() {
+        return lastExpiryByRoom.size();
+    }
+
+    public Set<Long> bookedRoomIds() {
+        return Collections.unmodifiableSet(lastExpiryByRoom.keySet());
+    }
+
+    // Identity matters: equal entries of two bookings of a room must not release the room early
+    private static final class PendingExpiry {
+
+        private final Long roomId;
+        private final LocalDate date;
+        private final int endMinute;
+
+        private PendingExpiry(Long roomId, LocalDate date, int endMinute) {
+            this.roomId = roomId;
+            this.date = date;
+            this.endMinute = endMinute;
+        }
+    }
+}
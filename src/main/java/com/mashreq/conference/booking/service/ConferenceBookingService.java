@@ -1,101 +1,390 @@
 package com.mashreq.conference.booking.service;
 
+import com.mashreq.conference.booking.domain.BookedSlot;
+import com.mashreq.conference.booking.domain.BookingDates;
+import com.mashreq.conference.booking.domain.BookingQuery;
 import com.mashreq.conference.booking.domain.BookingStatus;
+import com.mashreq.conference.booking.domain.BookingView;
 import com.mashreq.conference.booking.domain.ConfRoomBookingRequestDto;
 import com.mashreq.conference.booking.domain.ConfRoomBookingResponseDto;
+import com.mashreq.conference.booking.domain.PageCursors;
+import com.mashreq.conference.booking.domain.RoomQuery;
+import com.mashreq.conference.booking.domain.RoomStatusEvent;
+import com.mashreq.conference.booking.domain.TimeOfDay;
 import com.mashreq.conference.booking.entities.BookingDetails;
 import com.mashreq.conference.booking.entities.ConferenceRoom;
 import com.mashreq.conference.booking.exception.ConferenceRoomBookingException;
+import com.mashreq.conference.booking.exception.RejectionReason;
+import com.mashreq.conference.booking.index.AvailabilityCache;
+import com.mashreq.conference.booking.index.RoomAvailabilityIndex;
+import com.mashreq.conference.booking.index.RoomCapacityIndex;
+import com.mashreq.conference.booking.journal.JournalPersistence;
 import com.mashreq.conference.booking.repo.BookingDetailsRepository;
 import com.mashreq.conference.booking.repo.ConferenceRoomRepository;
+import com.mashreq.conference.booking.repo.SlotClaimRepository;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.DateTimeException;
+import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
 @AllArgsConstructor
 public class ConferenceBookingService {
 
+    private static final String NO_ROOMS_AVAILABLE = "There are no avaialable rooms at the moment";
+    private static final LocalDate OPEN_START = LocalDate.of(1, 1, 1);
+    private static final LocalDate OPEN_END = LocalDate.of(9999, 12, 31);
+
     private final ConferenceRoomRepository conferenceRoomRepository;
     private final BookingDetailsRepository bookingDetailsRepository;
+    private final RoomAvailabilityIndex roomAvailabilityIndex;
+    private final RoomCapacityIndex roomCapacityIndex;
+    private final BookingExpiryEngine bookingExpiryEngine;
+    private final AvailabilityCache availabilityCache;
+    private final RoomEventBroadcaster roomEventBroadcaster;
+    private final OccupancyAnalytics occupancyAnalytics;
+    private final JournalPersistence journalPersistence;
+    private final SlotClaimRepository slotClaimRepository;
 
+    @Transactional
     public ConfRoomBookingResponseDto bookRoom(ConfRoomBookingRequestDto confRoomBookingRequestDto){
 
-        List<ConferenceRoom> availableConferenceRoomList = conferenceRoomRepository.findByStatus(BookingStatus.AVAILABLE.name());
+        var bookingDetails = toBookingDetails(confRoomBookingRequestDto);
+        bookingDetails.setConferenceRoom(claimRoom(bookingDetails));
+
+        boolean saved = false;
+        try {
+            bookingDetailsRepository.save(bookingDetails);
+            saved = true;
+        } finally {
+            if(!saved)
+                releaseSlots(bookingDetails);
+        }
+
+        onBookingCompletion(bookingDetails);
+        onTransactionCompletion(() -> journalPersistence.booked(List.of(bookingDetails)), () -> {});
+        return booked(bookingDetails);
+    }
+
+    // Reserves slots for every request in memory first, then claims the whole batch's slots with one JDBC batch
+    // and inserts the bookings with a single saveAll, so Hibernate can send them as JDBC batches. Only when
+    // another instance holds one of the slots are the bookings claimed one at a time. Requests that cannot be
+    // allocated are reported per item.
+    @Transactional
+    public List<ConfRoomBookingResponseDto> bookRooms(List<ConfRoomBookingRequestDto> confRoomBookingRequestDtos){
+
+        var results = new ArrayList<ConfRoomBookingResponseDto>(confRoomBookingRequestDtos.size());
+        var bookings = new ArrayList<BookingDetails>();
+        var positions = new ArrayList<Integer>();
+
+        for (ConfRoomBookingRequestDto confRoomBookingRequestDto : confRoomBookingRequestDtos) {
+            var bookingDetails = toBookingDetails(confRoomBookingRequestDto);
+            var conferenceRoom = reserveSlots(bookingDetails);
+            if(conferenceRoom.isEmpty()) {
+                results.add(rejected(NO_ROOMS_AVAILABLE));
+                continue;
+            }
+            bookingDetails.setConferenceRoom(conferenceRoom.get());
+            bookings.add(bookingDetails);
+            positions.add(results.size());
+            results.add(booked(bookingDetails));
+        }
+
+        if(bookings.isEmpty())
+            return results;
+
+        var savedBookings = new ArrayList<BookingDetails>(bookings.size());
+        boolean saved = false;
+        try {
+            var roomIds = bookings.stream().map(x -> x.getConferenceRoom().getId()).distinct().toList();
+            var managedRooms = new HashMap<Long, ConferenceRoom>();
+            conferenceRoomRepository.findAllById(roomIds).forEach(x -> managedRooms.put(x.getId(), x));
+            boolean claimed = bookings.stream().allMatch(x -> managedRooms.containsKey(x.getConferenceRoom().getId()))
+                    && slotClaimRepository.claimAll(bookings.stream().map(ConferenceBookingService::bookedSlot).toList());
 
-        Map<Integer, List<ConferenceRoom>> capacityDifference= availableConferenceRoomList.stream()
-                .filter(x->(confRoomBookingRequestDto.getNumberOfPeople()<=x.getCapacity()))
-                .collect(Collectors.groupingBy(x->x.getCapacity()));
-        Optional<List<ConferenceRoom>> conferenceRoomOptionalList = capacityDifference.entrySet().stream().min(Map.Entry.comparingByKey()).map(x->x.getValue());
-        var  conferenceRoom = conferenceRoomOptionalList.get()!=null ? conferenceRoomOptionalList.get().get(0): null;
+            for (int i = 0; i < bookings.size(); i++) {
+                var bookingDetails = bookings.get(i);
+                var managedRoom = managedRooms.get(bookingDetails.getConferenceRoom().getId());
+                if(Objects.nonNull(managedRoom) && (claimed || slotClaimRepository.claim(managedRoom.getId(),
+                        bookingDetails.getBookingDate(), bookingDetails.getFromMinute(), bookingDetails.getToMinute()))) {
+                    managedRoom.setStatus(BookingStatus.BOOKED.name());
+                    bookingDetails.setConferenceRoom(managedRoom);
+                    savedBookings.add(bookingDetails);
+                    continue;
+                }
 
-        if(Objects.isNull(conferenceRoom))
-            throw new ConferenceRoomBookingException("There are no avaialable rooms at the moment");
+                // Booked by another instance: those slots stay reserved and the request falls back to the next fit
+                if(Objects.isNull(managedRoom))
+                    releaseSlots(bookingDetails);
+                try {
+                    bookingDetails.setConferenceRoom(claimRoom(bookingDetails));
+                    savedBookings.add(bookingDetails);
+                } catch (ConferenceRoomBookingException ex) {
+                    bookingDetails.setConferenceRoom(null);
+                    results.set(positions.get(i), rejected(ex.getMessage()));
+                }
+            }
 
+            bookingDetailsRepository.saveAll(savedBookings);
+            saved = true;
+        } finally {
+            if(!saved)
+                bookings.stream().filter(x -> Objects.nonNull(x.getConferenceRoom())).forEach(this::releaseSlots);
+        }
+
+        savedBookings.forEach(this::onBookingCompletion);
+        onTransactionCompletion(() -> journalPersistence.booked(savedBookings), () -> {});
+        return results;
+    }
 
-        conferenceRoom.setStatus(BookingStatus.BOOKED.name());
+    public ConfRoomBookingResponseDto fetchListOfAvailableRooms(String date, String startTime, String endTime){
 
-        var bookingDetails = BookingDetails.builder()
-                            .fromTime(confRoomBookingRequestDto.getStartTime())
-                            .toTime(confRoomBookingRequestDto.getEndTime())
-                            .bookedBy(confRoomBookingRequestDto.getUserId())
-                            .numberOfPeople(confRoomBookingRequestDto.getNumberOfPeople())
-                            .conferenceRoom(conferenceRoom)
-                            .build();
-        bookingDetailsRepository.save(bookingDetails);
+        var bookingDate = BookingDates.parse(date);
+        int fromMinute = TimeOfDay.toMinuteOfDay(startTime);
+        int toMinute = TimeOfDay.toMinuteOfDay(endTime);
+
+        var finalConferenceList = availabilityCache.get(bookingDate, fromMinute, toMinute,
+                () -> roomAvailabilityIndex.findFreeRooms(bookingDate, fromMinute, toMinute));
 
         return ConfRoomBookingResponseDto.builder()
-                .response(bookingDetails)
-                .status("Conference Room Booked Successfully")
+                .response(finalConferenceList)
                 .build();
     }
 
-    public ConfRoomBookingResponseDto fetchListOfAvailableRooms(String startTime, String endTime){
+    public ConfRoomBookingResponseDto findEarliestSlots(String date, int numberOfPeople, int duration,
+                                                        String earliestStart, String latestEnd, int limit){
+
+        var bookingDate = BookingDates.parse(date);
+        int fromMinute = TimeOfDay.toMinuteOfDay(earliestStart);
+        if(!bookingDate.isAfter(LocalDate.now()))
+            fromMinute = Math.max(fromMinute, TimeOfDay.currentMinuteOfDay());
+
+        var slotCandidates = roomAvailabilityIndex.findEarliestSlots(bookingDate, numberOfPeople, duration,
+                fromMinute, TimeOfDay.toMinuteOfDay(latestEnd), limit);
+
+        if(slotCandidates.isEmpty())
+            throw new ConferenceRoomBookingException(RejectionReason.NO_ROOM_AVAILABLE, NO_ROOMS_AVAILABLE);
+
+        return ConfRoomBookingResponseDto.builder()
+                .response(slotCandidates)
+                .build();
+    }
+
+    public ConfRoomBookingResponseDto fetchOccupancyReport(Long roomId, String userId){
+        return ConfRoomBookingResponseDto.builder()
+                .response(occupancyAnalytics.report(roomId, userId))
+                .build();
+    }
+
+    // Every room with its current status, sent to event stream subscribers when they connect
+    public List<RoomStatusEvent> roomStatusSnapshot(){
+
+        var bookedRooms = bookingExpiryEngine.bookedRoomIds();
+        return roomCapacityIndex.rooms().stream()
+                .map(x -> roomStatus(x, bookedRooms.contains(x.getId())))
+                .toList();
+    }
+
+    public BookingQuery bookingQuery(String bookedBy, Long roomId, String from, String to, String after, int limit){
+
+        var toDate = Objects.isNull(to) ? OPEN_END : BookingDates.parse(to);
+        if(Objects.isNull(after)) {
+            var fromDate = Objects.isNull(from) ? OPEN_START : BookingDates.parse(from);
+            return new BookingQuery(bookedBy, roomId, toDate, fromDate, -1, 0, limit);
+        }
+
+        var keys = PageCursors.decode(after, 3);
+        try {
+            return new BookingQuery(bookedBy, roomId, toDate, LocalDate.ofEpochDay(keys[0]), (int) keys[1], keys[2], limit);
+        } catch (DateTimeException ex) {
+            throw new ConferenceRoomBookingException("Invalid page cursor");
+        }
+    }
+
+    // Rows are handed to the consumer as the driver fetches them, the page is never collected into a list
+    @Transactional(readOnly = true)
+    public void forEachBooking(BookingQuery query, Consumer<BookingView> consumer){
+
+        var page = PageRequest.ofSize(query.limit());
+        try (var bookings = Objects.isNull(query.roomId())
+                ? bookingDetailsRepository.streamBookings(query.bookedBy(), query.toDate(), query.afterDate(),
+                        query.afterMinute(), query.afterId(), page)
+                : bookingDetailsRepository.streamRoomBookings(query.roomId(), query.bookedBy(), query.toDate(),
+                        query.afterDate(), query.afterMinute(), query.afterId(), page)) {
+            bookings.forEach(consumer);
+        }
+    }
+
+    public RoomQuery roomQuery(int minCapacity, String status, String after, int limit){
+
+        if(Objects.isNull(after))
+            return new RoomQuery(minCapacity, status, Integer.MIN_VALUE, Long.MIN_VALUE, limit);
+
+        var keys = PageCursors.decode(after, 2);
+        return new RoomQuery(minCapacity, status, (int) keys[0], keys[1], limit);
+    }
+
+    // Rooms come from the capacity index, which is already in (capacity, id) order, so a page is a seek into it
+    public void forEachRoom(RoomQuery query, Consumer<RoomStatusEvent> consumer){
 
-        var bookingDetailsList = bookingDetailsRepository.getBookingBetweenStartTimeEndTime(startTime,endTime);
+        var bookedRooms = bookingExpiryEngine.bookedRoomIds();
+        int listed = 0;
+        for (ConferenceRoom conferenceRoom : roomCapacityIndex.roomsAfter(query.minCapacity(), query.afterCapacity(), query.afterId())) {
+            if(listed == query.limit())
+                return;
+            var roomStatus = roomStatus(conferenceRoom, bookedRooms.contains(conferenceRoom.getId()));
+            if(Objects.nonNull(query.status()) && !query.status().equals(roomStatus.getStatus()))
+                continue;
+            consumer.accept(roomStatus);
+            listed++;
+        }
+    }
 
-        var conferenceRoomList = conferenceRoomRepository.findAll();
+    private static RoomStatusEvent roomStatus(ConferenceRoom conferenceRoom, boolean booked){
+        return RoomStatusEvent.builder()
+                .roomId(conferenceRoom.getId())
+                .name(conferenceRoom.getName())
+                .capacity(conferenceRoom.getCapacity())
+                .status(booked ? BookingStatus.BOOKED.name() : BookingStatus.AVAILABLE.name())
+                .build();
+    }
+
+    // The availability index hands each slot of a room to one caller in this instance; the slot claim does the
+    // same across every instance sharing the database. A claim lost to a booking made elsewhere leaves the slots
+    // taken in the index too, and the next best fit is tried.
+    private ConferenceRoom claimRoom(BookingDetails bookingDetails){
 
-        var finalConferenceList = new ArrayList<ConferenceRoom>();
+        var date = bookingDetails.getBookingDate();
+        int fromMinute = bookingDetails.getFromMinute();
+        int toMinute = bookingDetails.getToMinute();
 
+        for (ConferenceRoom candidate : roomCapacityIndex.roomsFitting(bookingDetails.getNumberOfPeople())) {
+            if(!roomAvailabilityIndex.tryReserve(candidate, date, fromMinute, toMinute))
+                continue;
 
+            boolean keepSlots = false;
+            try {
+                var conferenceRoom = conferenceRoomRepository.findById(candidate.getId());
+                if(conferenceRoom.isEmpty())
+                    continue;
 
-        if(Objects.nonNull(bookingDetailsList) && !bookingDetailsList.isEmpty()){
-            var bookingDetailsConfList =  bookingDetailsList.stream().map(x->x.getConferenceRoom().getName()).collect(Collectors.toList());
-            conferenceRoomList.stream().filter(x->Objects.nonNull(bookingDetailsConfList)
-                            && !bookingDetailsConfList.isEmpty()
-                            && !bookingDetailsConfList.contains(x.getStatus()))
-                    .forEach(x->{
-                        x.setStatus(BookingStatus.AVAILABLE.name());
-                        finalConferenceList.add(x);
-                    });
-        }else {
-            conferenceRoomList.stream().forEach(x->{
-                        x.setStatus(BookingStatus.AVAILABLE.name());
-                        finalConferenceList.add(x);
-                    });
+                // Either way the slots are taken now, by this booking or by the one holding the claim
+                keepSlots = true;
+                if(!slotClaimRepository.claim(candidate.getId(), date, fromMinute, toMinute)) {
+                    log.debug("Room {} was already claimed on {}, trying the next best fit", candidate.getName(), date);
+                    continue;
+                }
+
+                conferenceRoom.get().setStatus(BookingStatus.BOOKED.name());
+                return conferenceRoom.get();
+            } finally {
+                if(!keepSlots)
+                    roomAvailabilityIndex.release(candidate.getId(), date, fromMinute, toMinute);
+            }
         }
+        throw new ConferenceRoomBookingException(RejectionReason.NO_ROOM_AVAILABLE, NO_ROOMS_AVAILABLE);
+    }
 
+    private Optional<ConferenceRoom> reserveSlots(BookingDetails bookingDetails){
 
+        for (ConferenceRoom candidate : roomCapacityIndex.roomsFitting(bookingDetails.getNumberOfPeople())) {
+            if(roomAvailabilityIndex.tryReserve(candidate, bookingDetails.getBookingDate(),
+                    bookingDetails.getFromMinute(), bookingDetails.getToMinute()))
+                return Optional.of(candidate);
+        }
+        return Optional.empty();
+    }
 
+    private void releaseSlots(BookingDetails bookingDetails){
+        roomAvailabilityIndex.release(bookingDetails.getConferenceRoom().getId(), bookingDetails.getBookingDate(),
+                bookingDetails.getFromMinute(), bookingDetails.getToMinute());
+    }
 
+    private static BookedSlot bookedSlot(BookingDetails bookingDetails){
+        return new BookedSlot(bookingDetails.getConferenceRoom().getId(), bookingDetails.getBookingDate(),
+                bookingDetails.getFromMinute(), bookingDetails.getToMinute());
+    }
 
+    private BookingDetails toBookingDetails(ConfRoomBookingRequestDto confRoomBookingRequestDto){
+        return BookingDetails.builder()
+                .fromMinute(TimeOfDay.toMinuteOfDay(confRoomBookingRequestDto.getStartTime()))
+                .toMinute(TimeOfDay.toMinuteOfDay(confRoomBookingRequestDto.getEndTime()))
+                .bookedBy(confRoomBookingRequestDto.getUserId())
+                .numberOfPeople(confRoomBookingRequestDto.getNumberOfPeople())
+                .bookingDate(BookingDates.parse(confRoomBookingRequestDto.getDate()))
+                .build();
+    }
+
+    private ConfRoomBookingResponseDto booked(BookingDetails bookingDetails){
         return ConfRoomBookingResponseDto.builder()
-                .response(finalConferenceList)
+                .response(bookingDetails)
+                .status("Conference Room Booked Successfully")
                 .build();
     }
 
-    private boolean isConferenceRoomBooked(List<BookingDetails> bookingDetailsList){
+    private ConfRoomBookingResponseDto rejected(String error){
+        return ConfRoomBookingResponseDto.builder()
+                .response("Invalid Request")
+                .errors(List.of(error))
+                .build();
+    }
 
+    private void onBookingCompletion(BookingDetails bookingDetails){
+        Long roomId = bookingDetails.getConferenceRoom().getId();
+        var date = bookingDetails.getBookingDate();
+        int toMinute = bookingDetails.getToMinute();
 
-        return true;
+        onTransactionCompletion(() -> {
+                    bookingExpiryEngine.schedule(roomId, date, toMinute);
+                    occupancyAnalytics.recordBooking(bookingDetails.getConferenceRoom(), bookingDetails.getBookedBy(),
+                            date, bookingDetails.getFromMinute(), toMinute, bookingDetails.getNumberOfPeople());
+                    roomEventBroadcaster.publish(RoomEventBroadcaster.BOOKED, bookedEvent(bookingDetails));
+                },
+                () -> releaseSlots(bookingDetails));
+    }
 
+    private RoomStatusEvent bookedEvent(BookingDetails bookingDetails){
+        var conferenceRoom = bookingDetails.getConferenceRoom();
+        return RoomStatusEvent.builder()
+                .roomId(conferenceRoom.getId())
+                .name(conferenceRoom.getName())
+                .capacity(conferenceRoom.getCapacity())
+                .status(BookingStatus.BOOKED.name())
+                .date(bookingDetails.getDate())
+                .startTime(bookingDetails.getFromTime())
+                .endTime(bookingDetails.getToTime())
+                .build();
     }
 
+    // onCommit runs in afterCommit, where an exception still reaches the caller; afterCompletion swallows them,
+    // so a journal that cannot flush would otherwise be answered as a successful booking
+    private void onTransactionCompletion(Runnable onCommit, Runnable onRollback){
+
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
 
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                onCommit.run();
+            }
 
+            @Override
+            public void afterCompletion(int status) {
+                if(status != STATUS_COMMITTED)
+                    onRollback.run();
+            }
+        });
+    }
 }
@@ -0,0 +1,92 @@
+package com.mashreq.conference.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.domain.ConfRoomBookingResponseDto;
+import com.mashreq.conference.booking.exception.ConferenceRoomBookingException;
+import com.mashreq.conference.booking.exception.RejectionReason;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the response given to each Idempotency-Key, so a client retrying a booking that timed out gets
+ * the original booking back instead of a second room. The first request with a key runs; duplicates that
+ * arrive while it is in flight wait on its result instead of running again. Keys live in a size-bounded
+ * store and expire after the configured TTL. A request that fails is forgotten, so it can be retried.
+ */
+@Component
+public class IdempotentRequests {
+
+    private final Cache<String, Execution> executions;
+
+    private final AtomicLong replays = new AtomicLong();
+
+    public IdempotentRequests(ConferenceRoomProperties conferenceRoomProperties) {
+        var settings = conferenceRoomProperties.getIdempotency();
+        this.executions = Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfterWrite(Duration.ofMinutes(settings.getTtlMinutes()))
+                .build();
+    }
+
+    public ConfRoomBookingResponseDto execute(String key, Object request, Supplier<ConfRoomBookingResponseDto> action) {
+        var execution = new Execution(request);
+        var existing = executions.asMap().putIfAbsent(key, execution);
+        if(Objects.isNull(existing))
+            return run(key, execution, action);
+
+        if(!existing.request.equals(request))
+            throw new ConferenceRoomBookingException(RejectionReason.IDEMPOTENCY_KEY_REUSED, "Idempotency-Key was already used for a different booking request");
+
+        replays.incrementAndGet();
+        try {
+            return existing.result.join();
+        } catch (CompletionException ex) {
+            if(ex.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw ex;
+        }
+    }
+
+    // True while the key's request is running or its response is remembered, so a retry would not book again
+    public boolean isHeld(String key) {
+        return Objects.nonNull(executions.getIfPresent(key));
+    }
+
+    public long keyCount() {
+        return executions.estimatedSize();
+    }
+
+    public long getReplays() {
+        return replays.get();
+    }
+
+    private ConfRoomBookingResponseDto run(String key, Execution execution, Supplier<ConfRoomBookingResponseDto> action) {
+        try {
+            var response = action.get();
+            execution.result.complete(response);
+            return response;
+        } catch (RuntimeException | Error ex) {
+            executions.asMap().remove(key, execution);
+            execution.result.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private static final class Execution {
+
+        private final Object request;
+        private final CompletableFuture<ConfRoomBookingResponseDto> result = new CompletableFuture<>();
+
+        private Execution(Object request) {
+            this.request = request;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.mashreq.conference.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.domain.BookingUsage;
+import com.mashreq.conference.booking.domain.OccupancyReport;
+import com.mashreq.conference.booking.domain.OccupancyStats;
+import com.mashreq.conference.booking.entities.ConferenceRoom;
+import com.mashreq.conference.booking.repo.BookingDetailsRepository;
+import com.mashreq.conference.booking.repo.ConferenceRoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Running occupancy counters, updated as bookings commit and expire, so utilization reports never scan
+ * booking rows. Counters live in flat arrays: one stride of fields per room, one per capacity bucket and one
+ * count per slot of the day. A report reads a fixed number of cells whatever the number of rooms or bookings.
+ * The counters are seeded from BOOKING_DETAILS and BOOKING_DETAILS_ARCHIVE once {@link BookingArchiver} has run
+ * at startup, so archived history survives a restart. Per-user totals are a bounded cache instead: a user's
+ * totals are read from both tables the first time they are reported and kept current while they stay cached.
+ */
+@Slf4j
+@Component
+public class OccupancyAnalytics {
+
+    private static final int BOOKINGS = 0;
+    private static final int BOOKED_MINUTES = 1;
+    private static final int PEOPLE_MINUTES = 2;
+    private static final int SEAT_MINUTES = 3;
+    private static final int UPCOMING = 4;
+    private static final int ROOM_FIELDS = 5;
+    private static final int USAGE_FIELDS = 4;
+
+    private static final int[] BUCKET_UPPER_BOUNDS = {4, 8, 12, 20, Integer.MAX_VALUE};
+    private static final String[] BUCKET_LABELS = {"1-4", "5-8", "9-12", "13-20", "21+"};
+    private static final int PEAK_HOURS = 3;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final ConferenceRoomProperties conferenceRoomProperties;
+    private final ConferenceRoomRepository conferenceRoomRepository;
+    private final BookingDetailsRepository bookingDetailsRepository;
+
+    private final Map<Long, Integer> ordinalsById = new ConcurrentHashMap<>();
+    private final Cache<String, AtomicLongArray> usageByUser;
+    private final AtomicLongArray bucketUsage = new AtomicLongArray(BUCKET_LABELS.length * USAGE_FIELDS);
+    private final AtomicIntegerArray bucketRooms = new AtomicIntegerArray(BUCKET_LABELS.length);
+    private final AtomicLong firstEpochDay = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastEpochDay = new AtomicLong(Long.MIN_VALUE);
+
+    // Counter updates hold the read lock; adding a room grows the room counters under the write lock
+    private final ReentrantReadWriteLock roomsLock = new ReentrantReadWriteLock();
+
+    private volatile ConferenceRoom[] rooms = new ConferenceRoom[0];
+    private volatile AtomicLongArray roomUsage = new AtomicLongArray(0);
+    private volatile AtomicLongArray slotBookings = new AtomicLongArray(0);
+    private int interval;
+
+    public OccupancyAnalytics(ConferenceRoomProperties conferenceRoomProperties,
+                              ConferenceRoomRepository conferenceRoomRepository,
+                              BookingDetailsRepository bookingDetailsRepository) {
+        this.conferenceRoomProperties = conferenceRoomProperties;
+        this.conferenceRoomRepository = conferenceRoomRepository;
+        this.bookingDetailsRepository = bookingDetailsRepository;
+        this.usageByUser = Caffeine.newBuilder()
+                .maximumSize(conferenceRoomProperties.getOccupancyUsers().getMaximumSize())
+                .build();
+    }
+
+    // Reads both booking tables, so it should not run while bookings are being archived
+    public void reload() {
+        roomsLock.writeLock().lock();
+        try {
+            interval = conferenceRoomProperties.getBooking().getInterval();
+            ordinalsById.clear();
+            usageByUser.invalidateAll();
+            rooms = new ConferenceRoom[0];
+            roomUsage = new AtomicLongArray(0);
+            slotBookings = new AtomicLongArray(MINUTES_PER_DAY / interval);
+            for (int i = 0; i < bucketUsage.length(); i++)
+                bucketUsage.set(i, 0);
+            for (int i = 0; i < bucketRooms.length(); i++)
+                bucketRooms.set(i, 0);
+            firstEpochDay.set(Long.MAX_VALUE);
+            lastEpochDay.set(Long.MIN_VALUE);
+
+            conferenceRoomRepository.findCatalog().forEach(this::addRoom);
+        } finally {
+            roomsLock.writeLock().unlock();
+        }
+
+        var today = LocalDate.now();
+        var bookingUsages = new ArrayList<>(bookingDetailsRepository.findArchivedBookingUsage());
+        bookingUsages.addAll(bookingDetailsRepository.findBookingUsage());
+        for (BookingUsage bookingUsage : bookingUsages) {
+            var ordinal = ordinalsById.get(bookingUsage.roomId());
+            if(Objects.isNull(ordinal))
+                continue;
+            // Users are loaded on their first report, seeding them here as well would count them twice
+            record(ordinal, null, bookingUsage.bookingDate(), bookingUsage.fromMinute(),
+                    bookingUsage.toMinute(), bookingUsage.numberOfPeople(), !bookingUsage.bookingDate().isBefore(today));
+        }
+        log.info("Occupancy analytics loaded with {} rooms and {} bookings", rooms.length, bookingUsages.size());
+    }
+
+    // Rooms a catalog import added or resized. New rooms count towards the reports straight away; counters
+    // already recorded for a resized room keep the capacity it had when they were booked
+    public void registerRooms(Collection<ConferenceRoom> conferenceRooms) {
+        roomsLock.writeLock().lock();
+        try {
+            var resized = rooms.clone();
+            boolean anyResized = false;
+            for (ConferenceRoom conferenceRoom : conferenceRooms) {
+                var ordinal = ordinalsById.get(conferenceRoom.getId());
+                if(Objects.isNull(ordinal) || Objects.equals(resized[ordinal].getCapacity(), conferenceRoom.getCapacity()))
+                    continue;
+                var current = resized[ordinal];
+                resized[ordinal] = new ConferenceRoom(current.getId(), current.getName(), conferenceRoom.getCapacity(), null);
+                bucketRooms.decrementAndGet(bucket(current.getCapacity()));
+                bucketRooms.incrementAndGet(bucket(conferenceRoom.getCapacity()));
+                anyResized = true;
+            }
+            if(anyResized)
+                rooms = resized;
+
+            for (ConferenceRoom conferenceRoom : conferenceRooms)
+                if(!ordinalsById.containsKey(conferenceRoom.getId()))
+                    addRoom(conferenceRoom);
+        } finally {
+            roomsLock.writeLock().unlock();
+        }
+    }
+
+    public void recordBooking(ConferenceRoom conferenceRoom, String bookedBy, LocalDate date, int fromMinute,
+                              int toMinute, int numberOfPeople) {
+        record(ordinal(conferenceRoom), bookedBy, date, fromMinute, toMinute, numberOfPeople, true);
+    }
+
+    public void bookingEnded(Long roomId) {
+        var ordinal = ordinalsById.get(roomId);
+        if(Objects.isNull(ordinal))
+            return;
+        roomsLock.readLock().lock();
+        try {
+            roomUsage.getAndUpdate(ordinal * ROOM_FIELDS + UPCOMING, upcoming -> Math.max(0, upcoming - 1));
+        } finally {
+            roomsLock.readLock().unlock();
+        }
+    }
+
+    public OccupancyReport report(Long roomId, String userId) {
+        var snapshot = rooms;
+        var usage = roomUsage;
+        long trackedDays = lastEpochDay.get() < firstEpochDay.get() ? 0 : lastEpochDay.get() - firstEpochDay.get() + 1;
+        long minutesOnOffer = trackedDays * MINUTES_PER_DAY;
+
+        var capacityBuckets = new ArrayList<OccupancyStats>(BUCKET_LABELS.length);
+        long[] overall = new long[USAGE_FIELDS];
+        for (int bucket = 0; bucket < BUCKET_LABELS.length; bucket++) {
+            long[] totals = new long[USAGE_FIELDS];
+            for (int field = 0; field < USAGE_FIELDS; field++) {
+                totals[field] = bucketUsage.get(bucket * USAGE_FIELDS + field);
+                overall[field] += totals[field];
+            }
+            capacityBuckets.add(stats(BUCKET_LABELS[bucket], totals, null, minutesOnOffer * bucketRooms.get(bucket)));
+        }
+
+        var hourlyMinutes = new long[24];
+        var slots = slotBookings;
+        for (int slot = 0; slot < slots.length(); slot++)
+            hourlyMinutes[slot * interval / 60] += slots.get(slot) * interval;
+        var hours = IntStream.range(0, 24)
+                .mapToObj(hour -> OccupancyStats.builder()
+                        .label(String.format("%02d:00", hour))
+                        .bookedMinutes(hourlyMinutes[hour])
+                        .occupancy(ratio(hourlyMinutes[hour], trackedDays * 60 * snapshot.length))
+                        .build())
+                .toList();
+        var peakHours = IntStream.range(0, 24)
+                .filter(hour -> hourlyMinutes[hour] > 0)
+                .boxed()
+                .sorted(Comparator.comparingLong((Integer hour) -> hourlyMinutes[hour]).reversed())
+                .limit(PEAK_HOURS)
+                .toList();
+
+        OccupancyStats room = null;
+        var ordinal = Objects.isNull(roomId) ? null : ordinalsById.get(roomId);
+        if(Objects.nonNull(ordinal) && ordinal < snapshot.length) {
+            long[] totals = new long[ROOM_FIELDS];
+            for (int field = 0; field < ROOM_FIELDS; field++)
+                totals[field] = usage.get(ordinal * ROOM_FIELDS + field);
+            room = stats(snapshot[ordinal].getName(), totals, totals[UPCOMING], minutesOnOffer);
+        }
+
+        OccupancyStats user = null;
+        var userUsage = Objects.isNull(userId) ? null : usageByUser.get(userId, this::loadUserUsage);
+        if(Objects.nonNull(userUsage)) {
+            long[] totals = new long[USAGE_FIELDS];
+            for (int field = 0; field < USAGE_FIELDS; field++)
+                totals[field] = userUsage.get(field);
+            user = stats(userId, totals, null, 0);
+        }
+
+        return OccupancyReport.builder()
+                .trackedDays(trackedDays)
+                .overall(stats("all", overall, null, minutesOnOffer * snapshot.length))
+                .peakHours(peakHours)
+                .hours(hours)
+                .capacityBuckets(capacityBuckets)
+                .room(room)
+                .user(user)
+                .build();
+    }
+
+    private void record(int ordinal, String bookedBy, LocalDate date, int fromMinute, int toMinute,
+                        int numberOfPeople, boolean upcoming) {
+        long minutes = toMinute - fromMinute;
+        firstEpochDay.accumulateAndGet(date.toEpochDay(), Math::min);
+        lastEpochDay.accumulateAndGet(date.toEpochDay(), Math::max);
+
+        roomsLock.readLock().lock();
+        try {
+            int capacity = rooms[ordinal].getCapacity();
+            var usage = roomUsage;
+            int offset = ordinal * ROOM_FIELDS;
+            usage.incrementAndGet(offset + BOOKINGS);
+            usage.addAndGet(offset + BOOKED_MINUTES, minutes);
+            usage.addAndGet(offset + PEOPLE_MINUTES, minutes * numberOfPeople);
+            usage.addAndGet(offset + SEAT_MINUTES, minutes * capacity);
+            if(upcoming)
+                usage.incrementAndGet(offset + UPCOMING);
+
+            int bucketOffset = bucket(capacity) * USAGE_FIELDS;
+            bucketUsage.incrementAndGet(bucketOffset + BOOKINGS);
+            bucketUsage.addAndGet(bucketOffset + BOOKED_MINUTES, minutes);
+            bucketUsage.addAndGet(bucketOffset + PEOPLE_MINUTES, minutes * numberOfPeople);
+            bucketUsage.addAndGet(bucketOffset + SEAT_MINUTES, minutes * capacity);
+
+            var slots = slotBookings;
+            for (int slot = fromMinute / interval; slot < Math.min(slots.length(), (toMinute + interval - 1) / interval); slot++)
+                slots.incrementAndGet(slot);
+
+            // Waits for a load of the same user in flight; a user who is not cached picks the booking up when loaded
+            if(Objects.nonNull(bookedBy))
+                usageByUser.asMap().computeIfPresent(bookedBy, (key, userUsage) ->
+                        addUsage(userUsage, minutes, numberOfPeople, capacity));
+        } finally {
+            roomsLock.readLock().unlock();
+        }
+    }
+
+    // Returns null for a user without bookings, which leaves them uncached
+    private AtomicLongArray loadUserUsage(String userId) {
+        var bookingUsages = bookingDetailsRepository.findUserBookingUsage(userId);
+        if(bookingUsages.isEmpty())
+            return null;
+
+        var userUsage = new AtomicLongArray(USAGE_FIELDS);
+        roomsLock.readLock().lock();
+        try {
+            for (BookingUsage bookingUsage : bookingUsages) {
+                var ordinal = ordinalsById.get(bookingUsage.roomId());
+                if(Objects.nonNull(ordinal))
+                    addUsage(userUsage, bookingUsage.toMinute() - bookingUsage.fromMinute(),
+                            bookingUsage.numberOfPeople(), rooms[ordinal].getCapacity());
+            }
+        } finally {
+            roomsLock.readLock().unlock();
+        }
+        return userUsage;
+    }
+
+    private static AtomicLongArray addUsage(AtomicLongArray userUsage, long minutes, int numberOfPeople, int capacity) {
+        userUsage.incrementAndGet(BOOKINGS);
+        userUsage.addAndGet(BOOKED_MINUTES, minutes);
+        userUsage.addAndGet(PEOPLE_MINUTES, minutes * numberOfPeople);
+        userUsage.addAndGet(SEAT_MINUTES, minutes * capacity);
+        return userUsage;
+    }
+
+    private int ordinal(ConferenceRoom conferenceRoom) {
+        var ordinal = ordinalsById.get(conferenceRoom.getId());
+        if(Objects.nonNull(ordinal))
+            return ordinal;
+
+        roomsLock.writeLock().lock();
+        try {
+            return ordinalsById.containsKey(conferenceRoom.getId()) ? ordinalsById.get(conferenceRoom.getId())
+                    : addRoom(conferenceRoom);
+        } finally {
+            roomsLock.writeLock().unlock();
+        }
+    }
+
+    // Called under the write lock only, so no counter update can land in the array being copied
+    private int addRoom(ConferenceRoom conferenceRoom) {
+        int ordinal = rooms.length;
+        var room = new ConferenceRoom(conferenceRoom.getId(), conferenceRoom.getName(), conferenceRoom.getCapacity(), null);
+        var grownRooms = Arrays.copyOf(rooms, ordinal + 1);
+        grownRooms[ordinal] = room;
+
+        var current = roomUsage;
+        if(current.length() < grownRooms.length * ROOM_FIELDS) {
+            var grown = new AtomicLongArray(Math.max(grownRooms.length, ordinal * 2) * ROOM_FIELDS);
+            for (int i = 0; i < current.length(); i++)
+                grown.set(i, current.get(i));
+            roomUsage = grown;
+        }
+        rooms = grownRooms;
+        ordinalsById.put(room.getId(), ordinal);
+        bucketRooms.incrementAndGet(bucket(room.getCapacity()));
+        return ordinal;
+    }
+
+    private static int bucket(int capacity) {
+        int bucket = 0;
+        while(capacity > BUCKET_UPPER_BOUNDS[bucket])
+            bucket++;
+        return bucket;
+    }
+
+    private static OccupancyStats stats(String label, long[] totals, Long upcoming, long minutesOnOffer) {
+        return OccupancyStats.builder()
+                .label(label)
+                .bookings(totals[BOOKINGS])
+                .bookedMinutes(totals[BOOKED_MINUTES])
+                .upcomingBookings(upcoming)
+                .occupancy(minutesOnOffer > 0 ? ratio(totals[BOOKED_MINUTES], minutesOnOffer) : null)
+                .waste(totals[SEAT_MINUTES] > 0 ? 1 - (double) totals[PEOPLE_MINUTES] / totals[SEAT_MINUTES] : null)
+                .build();
+    }
+
+    private static double ratio(long part, long whole) {
+        return whole > 0 ? (double) part / whole : 0;
+    }
+}
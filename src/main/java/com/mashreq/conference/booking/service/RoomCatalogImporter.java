@@ -0,0 +1,274 @@
+package com.mashreq.conference.booking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.domain.CatalogFormat;
+import com.mashreq.conference.booking.domain.CatalogImportReport;
+import com.mashreq.conference.booking.exception.CatalogImportException;
+import com.mashreq.conference.booking.exception.ConferenceRoomBookingException;
+import com.mashreq.conference.booking.index.RoomAvailabilityIndex;
+import com.mashreq.conference.booking.index.RoomCapacityIndex;
+import com.mashreq.conference.booking.journal.JournalPersistence;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streams a CSV or NDJSON room file into CONFERENCE_ROOM a line at a time, so memory stays flat whatever the
+ * file size. Rows are upserted by room name in batches of conference-room.catalog.batch-size, each batch in
+ * its own short transaction, and the in-memory indexes switch to the new catalog only once every batch is in.
+ * Bookings keep running against the old catalog meanwhile. Rooms missing from the file are left alone.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RoomCatalogImporter implements ApplicationRunner {
+
+    private static final String UPSERT = "MERGE INTO CONFERENCE_ROOM(name, capacity) KEY(name) VALUES (?, ?)";
+    private static final int MAX_NAME_LENGTH = 250;
+
+    private final ConferenceRoomProperties conferenceRoomProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final RoomCapacityIndex roomCapacityIndex;
+    private final RoomAvailabilityIndex roomAvailabilityIndex;
+    private final JournalPersistence journalPersistence;
+    private final OccupancyAnalytics occupancyAnalytics;
+
+    private final ReentrantLock importLock = new ReentrantLock();
+
+    // Imports conference-room.catalog.import-file, if one is configured, once the application has started
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        var importFile = conferenceRoomProperties.getCatalog().getImportFile();
+        if(Objects.isNull(importFile) || importFile.isBlank())
+            return;
+
+        var path = Path.of(importFile);
+        try (var inputStream = Files.newInputStream(path)) {
+            var report = importRooms(inputStream, CatalogFormat.fromFileName(path.getFileName().toString()));
+            log.info("Imported {} rooms from {} ({} rejected) in {} ms", report.getImported(), path,
+                    report.getRejected(), report.getElapsedMillis());
+        }
+    }
+
+    // Rows committed before a read or database failure stay imported; the exception's report says how many there were
+    public CatalogImportReport importRooms(InputStream inputStream, CatalogFormat format) {
+
+        // Two imports of the same names would only fight over the rows
+        if(!importLock.tryLock())
+            throw new ConferenceRoomBookingException("A room catalog import is already running");
+
+        long start = System.nanoTime();
+        long imported = 0;
+        long rejected = 0;
+        var errors = new ArrayList<String>();
+        Exception failure = null;
+        try {
+            var settings = conferenceRoomProperties.getCatalog();
+            var reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+            var rowParser = format == CatalogFormat.CSV ? csvParser(reader.readLine()) : ndjsonParser();
+            long lineNumber = format == CatalogFormat.CSV ? 1 : 0;
+            var batch = new ArrayList<Object[]>(settings.getBatchSize());
+
+            String line;
+            while((line = reader.readLine()) != null) {
+                lineNumber++;
+                if(line.isBlank())
+                    continue;
+
+                try {
+                    batch.add(rowParser.parse(line));
+                } catch (IllegalArgumentException ex) {
+                    rejected++;
+                    if(errors.size() < settings.getMaxReportedErrors())
+                        errors.add("line " + lineNumber + ": " + ex.getMessage());
+                    continue;
+                }
+
+                if(batch.size() == settings.getBatchSize()) {
+                    imported += upsert(batch);
+                    batch.clear();
+                }
+            }
+            imported += upsert(batch);
+        } catch (IOException | DataAccessException ex) {
+            log.warn("Room catalog import stopped after {} rows", imported, ex);
+            failure = ex;
+        } catch (RuntimeException ex) {
+            failure = ex;
+            throw ex;
+        } finally {
+            try {
+                // Batches commit as they go, so the indexes take whatever is in even when the import stopped part way
+                if(imported > 0)
+                    refreshCatalog(failure);
+            } finally {
+                importLock.unlock();
+            }
+        }
+
+        var report = CatalogImportReport.builder()
+                .imported(imported)
+                .rejected(rejected)
+                .rooms(roomCapacityIndex.size())
+                .elapsedMillis((System.nanoTime() - start) / 1_000_000)
+                .errors(errors.isEmpty() ? null : errors)
+                .build();
+        // The cause is logged above; the client only learns how far the import got
+        if(Objects.nonNull(failure))
+            throw new CatalogImportException("Room catalog import stopped part way", report, failure);
+        return report;
+    }
+
+    // Switches the capacity array together with the availability partitions, which grow in place, then registers
+    // the rooms everywhere else. After a failed import a refresh failure is only logged, so the import failure
+    // is what the caller sees.
+    private void refreshCatalog(Exception importFailure) {
+        try {
+            roomAvailabilityIndex.refreshCatalog(roomCapacityIndex::reload);
+            var rooms = roomCapacityIndex.rooms();
+            occupancyAnalytics.registerRooms(rooms);
+            journalPersistence.roomsChanged(rooms);
+        } catch (RuntimeException ex) {
+            if(Objects.isNull(importFailure))
+                throw ex;
+            ex.addSuppressed(importFailure);
+            log.error("Room catalog refresh failed after the import stopped", ex);
+        }
+    }
+
+    private int upsert(List<Object[]> batch) {
+        if(batch.isEmpty())
+            return 0;
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT, batch));
+        return batch.size();
+    }
+
+    // The header names the columns, so they can come in any order and other columns are skipped
+    private RowParser csvParser(String header) {
+        if(Objects.isNull(header))
+            throw new ConferenceRoomBookingException("Room file is empty");
+
+        List<String> columns;
+        try {
+            // A byte order mark some spreadsheet exports start with
+            columns = splitCsv(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        } catch (IllegalArgumentException ex) {
+            throw new ConferenceRoomBookingException("Room file header should have name and capacity columns");
+        }
+        int nameColumn = -1;
+        int capacityColumn = -1;
+        for (int i = 0; i < columns.size(); i++) {
+            var column = columns.get(i).trim().toLowerCase(Locale.ROOT);
+            if(column.equals("name"))
+                nameColumn = i;
+            else if(column.equals("capacity"))
+                capacityColumn = i;
+        }
+        if(nameColumn < 0 || capacityColumn < 0)
+            throw new ConferenceRoomBookingException("Room file header should have name and capacity columns");
+
+        int nameIndex = nameColumn;
+        int capacityIndex = capacityColumn;
+        int columnCount = columns.size();
+        return line -> {
+            var fields = splitCsv(line);
+            if(fields.size() <= Math.max(nameIndex, capacityIndex))
+                throw new IllegalArgumentException("expected " + columnCount + " columns");
+            return row(fields.get(nameIndex), fields.get(capacityIndex));
+        };
+    }
+
+    private RowParser ndjsonParser() {
+        return line -> {
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (JsonProcessingException ex) {
+                throw new IllegalArgumentException("not a JSON object");
+            }
+            if(!node.isObject())
+                throw new IllegalArgumentException("not a JSON object");
+            var name = node.get("name");
+            var capacity = node.get("capacity");
+            return row(Objects.isNull(name) || name.isNull() ? null : name.asText(),
+                    Objects.isNull(capacity) || capacity.isNull() ? null : capacity.asText());
+        };
+    }
+
+    private static Object[] row(String name, String capacity) {
+        var trimmedName = Objects.isNull(name) ? "" : name.trim();
+        if(trimmedName.isEmpty())
+            throw new IllegalArgumentException("name is required");
+        if(trimmedName.length() > MAX_NAME_LENGTH)
+            throw new IllegalArgumentException("name is longer than " + MAX_NAME_LENGTH + " characters");
+
+        int seats;
+        try {
+            seats = Integer.parseInt(Objects.isNull(capacity) ? "" : capacity.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("capacity should be a whole number");
+        }
+        if(seats < 1)
+            throw new IllegalArgumentException("capacity should be at least 1");
+
+        return new Object[]{trimmedName, seats};
+    }
+
+    // One record per line; fields may be quoted, with "" for a quote inside them
+    static List<String> splitCsv(String line) {
+        var fields = new ArrayList<String>();
+        var field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if(quoted) {
+                if(c != '"')
+                    field.append(c);
+                else if(i + 1 < line.length() && line.charAt(i + 1) == '"')
+                    field.append(line.charAt(++i));
+                else
+                    quoted = false;
+            } else if(c == '"') {
+                quoted = true;
+            } else if(c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if(quoted)
+            throw new IllegalArgumentException("unterminated quoted field");
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        // Throws IllegalArgumentException for a row that cannot be imported
+        Object[] parse(String line);
+    }
+}
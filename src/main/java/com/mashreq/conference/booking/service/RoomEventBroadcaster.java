@@ -0,0 +1,146 @@
+package com.mashreq.conference.booking.service;
+
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.domain.RoomStatusEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Fans room status changes out to Server-Sent Events subscribers. Publishing only offers the event to each
+ * subscriber's bounded queue, so booking and expiry threads never wait on a client; a small pool drains the
+ * queues into the emitters, one drain at a time per subscriber. A subscriber that falls a full queue behind
+ * is disconnected and gets a fresh snapshot when it reconnects.
+ */
+@Slf4j
+@Component
+public class RoomEventBroadcaster implements DisposableBean {
+
+    public static final String SNAPSHOT = "snapshot";
+    public static final String BOOKED = "booked";
+    public static final String RELEASED = "released";
+
+    private final ConferenceRoomProperties conferenceRoomProperties;
+    private final ExecutorService dispatcher;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong droppedSubscribers = new AtomicLong();
+
+    public RoomEventBroadcaster(ConferenceRoomProperties conferenceRoomProperties) {
+        this.conferenceRoomProperties = conferenceRoomProperties;
+        var threads = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(conferenceRoomProperties.getEvents().getDispatchThreads(), task -> {
+            var thread = new Thread(task, "room-events-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SseEmitter subscribe(SseEmitter emitter, Supplier<List<RoomStatusEvent>> snapshot) {
+        var subscriber = new Subscriber(emitter, conferenceRoomProperties.getEvents().getQueueCapacity());
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(ex -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        // Registered before the snapshot is taken so no change falls in between; changes that are already
+        // part of the snapshot are queued behind it and simply applied again
+        if(!subscriber.queue.offerFirst(new Event(SNAPSHOT, snapshot.get()))) {
+            drop(subscriber);
+            return emitter;
+        }
+        subscriber.ready = true;
+        dispatch(subscriber);
+        return emitter;
+    }
+
+    public void publish(String name, RoomStatusEvent roomStatusEvent) {
+        if(subscribers.isEmpty())
+            return;
+
+        var event = new Event(name, roomStatusEvent);
+        for (Subscriber subscriber : subscribers) {
+            if(!subscriber.queue.offer(event))
+                drop(subscriber);
+            else if(subscriber.ready)
+                dispatch(subscriber);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getDroppedSubscribers() {
+        return droppedSubscribers.get();
+    }
+
+    @Override
+    public void destroy() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private void dispatch(Subscriber subscriber) {
+        if(subscriber.draining.compareAndSet(false, true))
+            dispatcher.execute(() -> drain(subscriber));
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            Event event;
+            while(Objects.nonNull(event = subscriber.queue.poll())) {
+                try {
+                    subscriber.emitter.send(SseEmitter.event().name(event.name).data(event.data));
+                } catch (Exception ex) {
+                    log.debug("Room event subscriber went away: {}", ex.getMessage());
+                    subscribers.remove(subscriber);
+                    subscriber.queue.clear();
+                    subscriber.emitter.completeWithError(ex);
+                    return;
+                }
+            }
+            subscriber.draining.set(false);
+        } while(!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void drop(Subscriber subscriber) {
+        if(!subscribers.remove(subscriber))
+            return;
+        droppedSubscribers.incrementAndGet();
+        subscriber.queue.clear();
+        subscriber.emitter.complete();
+        log.info("Dropped a room event subscriber that fell {} events behind",
+                conferenceRoomProperties.getEvents().getQueueCapacity());
+    }
+
+    private record Event(String name, Object data) {
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final LinkedBlockingDeque<Event> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean ready;
+
+        private Subscriber(SseEmitter emitter, int queueCapacity) {
+            this.emitter = emitter;
+            this.queue = new LinkedBlockingDeque<>(queueCapacity);
+        }
+    }
+}
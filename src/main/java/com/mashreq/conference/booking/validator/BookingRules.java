@@ -0,0 +1,197 @@
+package com.mashreq.conference.booking.validator;
+
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.domain.BookingDates;
+import com.mashreq.conference.booking.domain.BookingStatus;
+import com.mashreq.conference.booking.domain.ConfRoomBookingRequestDto;
+import com.mashreq.conference.booking.domain.TimeOfDay;
+import com.mashreq.conference.booking.exception.ConferenceRoomBookingException;
+import com.mashreq.conference.booking.exception.RejectionReason;
+import com.mashreq.conference.booking.index.MaintenanceWindows;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The request rules that only need the configuration: dates, times, booking intervals, maintenance windows and
+ * limits. They never touch the room catalog, so {@link RequestValidator} and the reactive validator share them
+ * and each adds the catalog checks from its own store.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingRules {
+
+    private final ConferenceRoomProperties conferenceRoomProperties;
+    private final MaintenanceWindows maintenanceWindows;
+
+    public void checkBookingTimes(ConfRoomBookingRequestDto confRoomBookingRequestDto){
+
+        if(Objects.isNull(confRoomBookingRequestDto)
+            ||  Objects.isNull(confRoomBookingRequestDto.getStartTime())
+            || Objects.isNull(confRoomBookingRequestDto.getEndTime()))
+            throw new ConferenceRoomBookingException("Invalid Request");
+
+        var date = BookingDates.parse(confRoomBookingRequestDto.getDate());
+        int startTime = TimeOfDay.toMinuteOfDay(confRoomBookingRequestDto.getStartTime());
+        int endTime = TimeOfDay.toMinuteOfDay(confRoomBookingRequestDto.getEndTime());
+
+        if(endTime <= startTime)
+            throw new ConferenceRoomBookingException(RejectionReason.END_BEFORE_START, "Start Time should always be lesser than End Time.");
+
+        validateDate(date);
+
+        if(isPastTime(date,startTime,endTime))
+            throw new ConferenceRoomBookingException(RejectionReason.PAST_TIME, "Start Time or End Time should be greater than current time");
+
+        // Bookings start on an interval boundary, so they cover whole slots of the availability index
+        if(isValidBookingInterval(0, startTime)!=0 || isValidBookingInterval(startTime , endTime)!=0)
+            throw new ConferenceRoomBookingException(RejectionReason.OFF_INTERVAL, "Invalid Booking time. It should be intervals of 15 mins for example " +
+                    "2:00 - 2:15 or 2:00 - 2:30 or 2:00 to 3:00");
+        if(maintenanceWindows.overlaps(startTime, endTime))
+            throw new ConferenceRoomBookingException(RejectionReason.MAINTENANCE, "Cannot book room due to maintenance time");
+    }
+
+    // roomCount and maxCapacity describe the catalog as the caller's store sees it
+    public void checkCapacity(long roomCount, int maxCapacity, int numberOfPeople){
+
+        if(roomCount == 0)
+            throw new ConferenceRoomBookingException(RejectionReason.NO_ROOMS, "There are no conference rooms available at the moment");
+
+        if(maxCapacity < numberOfPeople)
+            throw new ConferenceRoomBookingException(RejectionReason.OVER_CAPACITY, "Requested number of people is greater than maximum capacity " +
+                    "of the rooms available");
+    }
+
+    public void checkTimeRange(String dateStr, String startTimeStr, String endTimeStr){
+
+        if(Objects.isNull(startTimeStr) ||  Objects.isNull(endTimeStr))
+            throw new ConferenceRoomBookingException("Invalid Time Range Given");
+
+        var date = BookingDates.parse(dateStr);
+        int startTime = TimeOfDay.toMinuteOfDay(startTimeStr);
+        int endTime = TimeOfDay.toMinuteOfDay(endTimeStr);
+
+        if(endTime <= startTime)
+            throw new ConferenceRoomBookingException(RejectionReason.END_BEFORE_START, "Start Time should always be lesser than End Time.");
+
+        validateDate(date);
+
+        if(isPastTime(date,startTime,endTime))
+            throw new ConferenceRoomBookingException(RejectionReason.PAST_TIME, "Start Time or End Time should be greater than current time");
+    }
+
+    public void checkSlotSearchWindow(String dateStr, int duration, String earliestStartStr, String latestEndStr){
+
+        if(Objects.isNull(earliestStartStr) ||  Objects.isNull(latestEndStr))
+            throw new ConferenceRoomBookingException("Invalid Time Range Given");
+
+        var date = BookingDates.parse(dateStr);
+        int earliestStart = TimeOfDay.toMinuteOfDay(earliestStartStr);
+        int latestEnd = TimeOfDay.toMinuteOfDay(latestEndStr);
+
+        if(latestEnd < earliestStart)
+            throw new ConferenceRoomBookingException(RejectionReason.END_BEFORE_START, "Start Time should always be lesser than End Time.");
+
+        validateDate(date);
+
+        // The search itself starts from the current time, only a window that is over already is rejected
+        if(!date.isAfter(LocalDate.now()) && latestEnd < TimeOfDay.currentMinuteOfDay())
+            throw new ConferenceRoomBookingException(RejectionReason.PAST_TIME, "Start Time or End Time should be greater than current time");
+
+        if(duration <= 0 || isValidBookingInterval(0, duration) != 0)
+            throw new ConferenceRoomBookingException(RejectionReason.OFF_INTERVAL, "Invalid Booking time. It should be intervals of 15 mins for example " +
+                    "2:00 - 2:15 or 2:00 - 2:30 or 2:00 to 3:00");
+
+        if(duration > latestEnd - earliestStart)
+            throw new ConferenceRoomBookingException("Duration does not fit between the earliest start and the latest end");
+    }
+
+    public void checkSlotLimit(int limit){
+        int maxSlotResults = conferenceRoomProperties.getBooking().getMaxSlotResults();
+        if(limit < 1 || limit > maxSlotResults)
+            throw new ConferenceRoomBookingException("Limit should be between 1 and " + maxSlotResults);
+    }
+
+    public void checkIdempotencyKey(String idempotencyKey){
+
+        if(idempotencyKey.isBlank() || idempotencyKey.length() > 255)
+            throw new ConferenceRoomBookingException(RejectionReason.IDEMPOTENCY_KEY, "Idempotency-Key should be between 1 and 255 characters");
+    }
+
+    public void checkBookingListing(String fromStr, String toStr, int limit){
+
+        if(Objects.nonNull(fromStr) && Objects.nonNull(toStr)
+                && BookingDates.parse(toStr).isBefore(BookingDates.parse(fromStr)))
+            throw new ConferenceRoomBookingException("From date should not be after the to date");
+
+        checkPageSize(limit);
+    }
+
+    public void checkRoomListing(String status, int limit){
+
+        if(Objects.nonNull(status) && Arrays.stream(BookingStatus.values()).noneMatch(x -> x.name().equals(status)))
+            throw new ConferenceRoomBookingException("Status should be one of " + Arrays.toString(BookingStatus.values()));
+
+        checkPageSize(limit);
+    }
+
+    public void checkBatchSize(List<ConfRoomBookingRequestDto> confRoomBookingRequestDtos){
+
+        if(Objects.isNull(conferenceRoomProperties.getBooking()))
+            throw new ConferenceRoomBookingException("Booking Interval cannot be null");
+
+        int maxBatchSize = conferenceRoomProperties.getBooking().getMaxBatchSize();
+        if(Objects.isNull(confRoomBookingRequestDtos) || confRoomBookingRequestDtos.isEmpty()
+                || confRoomBookingRequestDtos.size() > maxBatchSize)
+            throw new ConferenceRoomBookingException(RejectionReason.BATCH_SIZE, "Batch should contain between 1 and " + maxBatchSize + " booking requests");
+    }
+
+    private void checkPageSize(int limit){
+        int maxPageSize = conferenceRoomProperties.getBooking().getMaxPageSize();
+        if(limit < 1 || limit > maxPageSize)
+            throw new ConferenceRoomBookingException("Limit should be between 1 and " + maxPageSize);
+    }
+
+    private long isValidBookingInterval(int startTime, int endTime){
+        // Calculate the difference
+        long differenceInMinutes = endTime - startTime;
+
+        if(Objects.isNull(conferenceRoomProperties.getBooking()))
+            throw new ConferenceRoomBookingException("Booking Interval cannot be null");
+
+        int interval = conferenceRoomProperties.getBooking().getInterval();
+        // Calculate the difference in 15-minute intervals
+        long differenceIn15MinIntervals = differenceInMinutes % interval;
+
+
+        return differenceIn15MinIntervals;
+    }
+
+    // Only today and the look-ahead window are bookable, which is also what the availability index keeps in memory
+    private void validateDate(LocalDate date){
+        var today = LocalDate.now();
+        if(date.isBefore(today))
+            throw new ConferenceRoomBookingException(RejectionReason.DATE_IN_PAST, "Booking date should not be in the past");
+
+        if(Objects.isNull(conferenceRoomProperties.getBooking()))
+            throw new ConferenceRoomBookingException("Booking Interval cannot be null");
+
+        int lookAheadDays = conferenceRoomProperties.getBooking().getLookAheadDays();
+        if(date.isAfter(today.plusDays(lookAheadDays)))
+            throw new ConferenceRoomBookingException(RejectionReason.BEYOND_LOOK_AHEAD, "Bookings can only be made up to " + lookAheadDays + " days in advance");
+    }
+
+    private boolean isPastTime(LocalDate date, int startTime, int endTime){
+        if(date.isAfter(LocalDate.now()))
+            return false;
+
+        // Current time truncated to the minute
+        int currentTime = TimeOfDay.currentMinuteOfDay();
+
+        return startTime < currentTime || endTime < currentTime;
+    }
+}
@@ -1,18 +1,45 @@
-DROP TABLE BOOKING_DETAILS;
-DROP TABLE CONFERENCE_ROOM;
+DROP TABLE IF EXISTS SLOT_CLAIM;
+DROP TABLE IF EXISTS BOOKING_DETAILS;
+DROP TABLE IF EXISTS BOOKING_DETAILS_ARCHIVE;
+DROP TABLE IF EXISTS CONFERENCE_ROOM;
+DROP SEQUENCE IF EXISTS BOOKING_DETAILS_SEQ;
 CREATE TABLE CONFERENCE_ROOM (
-  id INT AUTO_INCREMENT  PRIMARY KEY,
+  id BIGINT AUTO_INCREMENT  PRIMARY KEY,
   name VARCHAR(250) NOT NULL,
   capacity int,
   status VARCHAR(250) DEFAULT 'AVAILABLE'
 );
+CREATE SEQUENCE BOOKING_DETAILS_SEQ START WITH 1 INCREMENT BY 50;
 CREATE TABLE BOOKING_DETAILS (
-  id INT AUTO_INCREMENT  PRIMARY KEY,
+  id BIGINT PRIMARY KEY,
   booked_by VARCHAR(250) NOT NULL,
-  from_time VARCHAR(250),
-  to_time VARCHAR(250),
+  from_minute INT NOT NULL,
+  to_minute INT NOT NULL,
   number_of_people int,
-  CONFERENCE_ROOM_ID INT,
+  booking_date DATE NOT NULL,
+  CONFERENCE_ROOM_ID BIGINT NOT NULL,
   FOREIGN KEY (conference_room_id) REFERENCES CONFERENCE_ROOM(id)
 );
-
+CREATE INDEX IDX_BOOKING_DATE_ROOM_TIME ON BOOKING_DETAILS(booking_date, conference_room_id, from_minute, to_minute);
+CREATE TABLE SLOT_CLAIM (
+  conference_room_id BIGINT NOT NULL,
+  booking_date DATE NOT NULL,
+  slot INT NOT NULL,
+  PRIMARY KEY (conference_room_id, booking_date, slot),
+  FOREIGN KEY (conference_room_id) REFERENCES CONFERENCE_ROOM(id)
+);
+CREATE INDEX IDX_BOOKING_BOOKED_BY_DATE ON BOOKING_DETAILS(booked_by, booking_date, from_minute);
+CREATE INDEX IDX_BOOKING_DATE_FROM ON BOOKING_DETAILS(booking_date, from_minute, id);
+CREATE INDEX IDX_BOOKING_ROOM_DATE_FROM ON BOOKING_DETAILS(conference_room_id, booking_date, from_minute, id);
+CREATE TABLE BOOKING_DETAILS_ARCHIVE (
+  id BIGINT PRIMARY KEY,
+  booked_by VARCHAR(250) NOT NULL,
+  from_minute INT NOT NULL,
+  to_minute INT NOT NULL,
+  number_of_people int,
+  booking_date DATE NOT NULL,
+  CONFERENCE_ROOM_ID BIGINT
+);
+CREATE INDEX IDX_ARCHIVE_BOOKED_BY ON BOOKING_DETAILS_ARCHIVE(booked_by);
+CREATE INDEX IDX_ROOM_STATUS_CAPACITY ON CONFERENCE_ROOM(status, capacity);
+CREATE UNIQUE INDEX IDX_ROOM_NAME ON CONFERENCE_ROOM(name);
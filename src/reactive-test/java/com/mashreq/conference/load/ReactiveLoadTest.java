@@ -0,0 +1,228 @@
+package com.mashreq.conference.load;
+
+import com.mashreq.conference.booking.ConferenceRoomBookingApplication;
+import com.mashreq.conference.booking.index.RoomAvailabilityIndex;
+import com.mashreq.conference.booking.index.RoomCapacityIndex;
+import com.mashreq.conference.reactive.ReactiveConferenceRoomBookingApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ramps clients, each holding its own connection, against POST /conference/book on the servlet stack (Tomcat,
+ * JPA) and on the reactive variant (Netty, R2DBC), both with a pool of 10 connections to H2 and the same 1000
+ * rooms. Bookings are spread over the look-ahead days and the non-maintenance slots so the rooms do not run
+ * out. Besides throughput and latency it reports the live threads and the heap after a GC per client while the
+ * level is running; clients run in this JVM too, so their share of the heap is the same for both stacks.
+ * Tagged {@code load}, so it only runs with {@code mvn -Pload-test test}.
+ */
+@Tag("load")
+public class ReactiveLoadTest {
+
+    private static final int ROOMS = 1_000;
+    private static final int[] CLIENTS = {256, 1024, 4096};
+    private static final Duration LEVEL_DURATION = Duration.ofSeconds(5);
+    private static final String[] START_TIMES = {"10:00", "10:30", "11:00", "11:30", "12:00", "14:00", "14:30",
+            "15:00", "15:30", "16:00"};
+
+    private static final Map<String, List<LevelResult>> results = new LinkedHashMap<>();
+
+    @Test
+    public void testServletStack() throws Exception {
+        try (var context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(ConferenceRoomBookingApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:load-servlet",
+                        // every connection is accepted and waits for a worker instead of being refused
+                        "--server.tomcat.max-connections=10000",
+                        "--server.tomcat.accept-count=10000",
+                        "--conference-room.expiry.poll-interval-ms=3600000",
+                        // every client books as the same user; this measures the stack, not admission
+                        "--conference-room.admission.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN")) {
+
+            var jdbcTemplate = context.getBean(JdbcTemplate.class);
+            var rows = new ArrayList<Object[]>(ROOMS);
+            for (int i = 0; i < ROOMS; i++)
+                rows.add(new Object[]{"Load-" + i, 2 + i % 18});
+            jdbcTemplate.batchUpdate("INSERT INTO CONFERENCE_ROOM(name, capacity) VALUES (?, ?)", rows);
+
+            results.put("servlet", runRamp(context.getWebServer().getPort(), () -> {
+                jdbcTemplate.update("DELETE FROM SLOT_CLAIM");
+                jdbcTemplate.update("DELETE FROM BOOKING_DETAILS");
+                jdbcTemplate.update("UPDATE CONFERENCE_ROOM SET status = 'AVAILABLE'");
+                context.getBean(RoomCapacityIndex.class).reload();
+                context.getBean(RoomAvailabilityIndex.class).reload();
+            }));
+        }
+    }
+
+    @Test
+    public void testReactiveStack() throws Exception {
+        try (var context = (ReactiveWebServerApplicationContext) ReactiveConferenceRoomBookingApplication.application()
+                .run("--server.port=0",
+                        "--spring.r2dbc.url=r2dbc:h2:mem:///load-reactive?options=DB_CLOSE_DELAY=-1",
+                        "--logging.level.root=WARN")) {
+
+            var databaseClient = context.getBean(DatabaseClient.class);
+            for (int i = 0; i < ROOMS; i++)
+                databaseClient.sql("INSERT INTO CONFERENCE_ROOM(name, capacity) VALUES (:name, :capacity)")
+                        .bind("name", "Load-" + i)
+                        .bind("capacity", 2 + i % 18)
+                        .then()
+                        .block();
+
+            results.put("reactive", runRamp(context.getWebServer().getPort(), () -> {
+                databaseClient.sql("DELETE FROM SLOT_CLAIM").then().block();
+                databaseClient.sql("DELETE FROM BOOKING_DETAILS").then().block();
+                databaseClient.sql("UPDATE CONFERENCE_ROOM SET status = 'AVAILABLE'").then().block();
+            }));
+        }
+    }
+
+    @AfterAll
+    public static void report() {
+        results.forEach((stack, levels) -> {
+            System.out.printf("%n%s stack, 10 database connections, %d rooms%n", stack, ROOMS);
+            System.out.printf("%8s %10s %10s %10s %8s %8s %12s%n", "clients", "req/s", "p50 ms", "p99 ms", "errors",
+                    "threads", "KB/client");
+            for (LevelResult level : levels)
+                System.out.printf("%8d %10.0f %10.1f %10.1f %8d %8d %12.1f%n", level.clients(), level.throughput(),
+                        level.p50Millis(), level.p99Millis(), level.errors(), level.threads(),
+                        level.heapBytesPerClient() / 1024.0);
+        });
+    }
+
+    private static List<LevelResult> runRamp(int port, Runnable reset) throws Exception {
+        var uri = URI.create("http://localhost:" + port + "/conference/book");
+        IntFunction<HttpRequest> requests = x -> {
+            var random = ThreadLocalRandom.current();
+            var body = String.format("{\"userId\":\"load\",\"date\":\"%s\",\"startTime\":\"%s\",\"endTime\":\"%s\",\"numberOfPeople\":2}",
+                    LocalDate.now().plusDays(1 + random.nextInt(7)), START_TIMES[x % START_TIMES.length],
+                    START_TIMES[x % START_TIMES.length].replace(":00", ":15").replace(":30", ":45"));
+            return HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        };
+
+        // Not reported: lets the JIT compile both stacks before the first measured level
+        runLevel(requests, CLIENTS[0]);
+
+        var levels = new ArrayList<LevelResult>();
+        for (int clients : CLIENTS) {
+            reset.run();
+            var level = runLevel(requests, clients);
+            levels.add(level);
+            assertTrue(level.requests() < ROOMS * 7L * START_TIMES.length,
+                    "catalog ran out of slots, the level measured rejections");
+        }
+        return levels;
+    }
+
+    private static LevelResult runLevel(IntFunction<HttpRequest> requests, int clients) throws Exception {
+        long heapBefore = heapAfterGc();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        // HTTP/1.1 without pipelining: one connection per client in flight
+        var httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(executor)
+                .build();
+        var errors = new AtomicInteger();
+        var counter = new AtomicInteger();
+        long deadline = System.nanoTime() + LEVEL_DURATION.toNanos();
+
+        var latencies = new ArrayList<long[]>(clients);
+        var clientsDone = new ArrayList<CompletableFuture<Void>>(clients);
+        long start = System.nanoTime();
+        for (int client = 0; client < clients; client++) {
+            var recorded = new long[1][256];
+            var count = new int[1];
+            var done = new CompletableFuture<Void>();
+            clientsDone.add(done.thenRun(() -> {
+                synchronized (latencies) {
+                    latencies.add(Arrays.copyOf(recorded[0], count[0]));
+                }
+            }));
+            sendLoop(httpClient, requests, counter, errors, deadline, recorded, count, done);
+        }
+
+        // Halfway through every client has its connection open and a request in flight or queued
+        Thread.sleep(LEVEL_DURATION.toMillis() / 2);
+        long heapDuring = heapAfterGc();
+        int threads = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        CompletableFuture.allOf(clientsDone.toArray(CompletableFuture[]::new)).get();
+        long elapsed = System.nanoTime() - start;
+        executor.shutdownNow();
+
+        long[] sorted = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new LevelResult(clients, sorted.length, sorted.length / (elapsed / 1_000_000_000.0),
+                percentile(sorted, 0.50), percentile(sorted, 0.99), errors.get(), threads,
+                Math.max(0, heapDuring - heapBefore) / (double) clients);
+    }
+
+    // Closed loop: the client sends its next request when the previous answer arrives, until the deadline
+    private static void sendLoop(HttpClient httpClient, IntFunction<HttpRequest> requests, AtomicInteger counter,
+                                 AtomicInteger errors, long deadline, long[][] recorded, int[] count,
+                                 CompletableFuture<Void> done) {
+        if(System.nanoTime() >= deadline) {
+            done.complete(null);
+            return;
+        }
+        long start = System.nanoTime();
+        httpClient.sendAsync(requests.apply(counter.getAndIncrement()), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, ex) -> {
+                    if(ex != null || response.statusCode() != 200)
+                        errors.incrementAndGet();
+                    if(count[0] == recorded[0].length)
+                        recorded[0] = Arrays.copyOf(recorded[0], count[0] * 2);
+                    recorded[0][count[0]++] = System.nanoTime() - start;
+                    sendLoop(httpClient, requests, counter, errors, deadline, recorded, count, done);
+                });
+    }
+
+    private static long heapAfterGc() {
+        System.gc();
+        var runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        if(sortedNanos.length == 0)
+            return 0;
+        int rank = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, rank)] / 1_000_000.0;
+    }
+
+    private record LevelResult(int clients, int requests, double throughput, double p50Millis, double p99Millis,
+                               int errors, int threads, double heapBytesPerClient) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.mashreq.conference.reactive;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The reactive variant on Netty and R2DBC, over HTTP: the same rooms, responses and validation messages as the
+ * servlet controller.
+ */
+public class ReactiveBookingApiTest {
+
+    private static final String DATE = LocalDate.now().plusDays(1).toString();
+
+    private static ConfigurableApplicationContext context;
+    private static WebTestClient webTestClient;
+
+    @BeforeAll
+    public static void start() {
+        context = ReactiveConferenceRoomBookingApplication.application()
+                .run("--server.port=0",
+                        "--spring.r2dbc.url=r2dbc:h2:mem:///reactiveapidb?options=DB_CLOSE_DELAY=-1");
+        int port = ((ReactiveWebServerApplicationContext) context).getWebServer().getPort();
+        webTestClient = WebTestClient.bindToServer().baseUrl("http://localhost:" + port).build();
+    }
+
+    @AfterAll
+    public static void stop() {
+        context.close();
+    }
+
+    @Test
+    public void testBookingTakesTheSmallestFreeRoom() {
+
+        assertEquals("Amaze", book("10:00", "10:30", 2).get("response").get("conferenceRoom").get("name").asText());
+        // Amaze is taken for the slot now, the next smallest room seats the same request
+        var second = book("10:15", "10:30", 2);
+        assertEquals("Conference Room Booked Successfully", second.get("status").asText());
+        assertEquals("Beauty", second.get("response").get("conferenceRoom").get("name").asText());
+        assertEquals("10:15", second.get("response").get("fromTime").asText());
+
+        var available = webTestClient.get()
+                .uri("/conference?date={date}&startTime=10:00&endTime=10:30", DATE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class).returnResult().getResponseBody();
+        available.get("response").forEach(x -> {
+            assertFalse(x.get("name").asText().equals("Amaze") || x.get("name").asText().equals("Beauty"));
+            assertEquals("AVAILABLE", x.get("status").asText());
+        });
+        assertEquals(2, available.get("response").size());
+    }
+
+    @Test
+    public void testSlotsClaimedByAnotherInstanceAreSkipped() {
+
+        var databaseClient = context.getBean(DatabaseClient.class);
+        // 15:15 to 15:30 on Amaze, as another instance sharing the database would claim it
+        databaseClient.sql("INSERT INTO SLOT_CLAIM(conference_room_id, booking_date, slot) " +
+                        "SELECT id, :date, 61 FROM CONFERENCE_ROOM WHERE name = 'Amaze'")
+                .bind("date", LocalDate.parse(DATE))
+                .then()
+                .block();
+
+        assertEquals("Beauty", book("15:00", "15:30", 2).get("response").get("conferenceRoom").get("name").asText());
+        long claimed = databaseClient.sql("SELECT COUNT(*) FROM SLOT_CLAIM c JOIN CONFERENCE_ROOM r " +
+                        "ON r.id = c.conference_room_id WHERE r.name = 'Beauty' AND c.booking_date = :date AND c.slot IN (60, 61)")
+                .bind("date", LocalDate.parse(DATE))
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .block();
+        assertEquals(2, claimed);
+    }
+
+    @Test
+    public void testInvalidRequestsAreRejected() {
+
+        var overCapacity = webTestClient.post().uri("/conference/book")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request("11:00", "11:15", 21))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(JsonNode.class).returnResult().getResponseBody();
+        assertEquals("Invalid Request", overCapacity.get("response").asText());
+        assertTrue(overCapacity.get("errors").get(0).asText().contains("maximum capacity"));
+
+        var maintenance = webTestClient.post().uri("/conference/book")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request("13:00", "13:15", 2))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(JsonNode.class).returnResult().getResponseBody();
+        assertEquals("Cannot book room due to maintenance time", maintenance.get("errors").get(0).asText());
+
+        webTestClient.get()
+                .uri("/conference?date={date}&startTime=12:00&endTime=11:00", DATE)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        var empty = webTestClient.post().uri("/conference/book")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(JsonNode.class).returnResult().getResponseBody();
+        assertFalse(empty.get("errors").isEmpty());
+    }
+
+    private static JsonNode book(String startTime, String endTime, int numberOfPeople) {
+        return webTestClient.post().uri("/conference/book")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request(startTime, endTime, numberOfPeople))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class).returnResult().getResponseBody();
+    }
+
+    private static Map<String, Object> request(String startTime, String endTime, int numberOfPeople) {
+        return Map.of("userId", "reactive", "date", DATE, "startTime", startTime, "endTime", endTime,
+                "numberOfPeople", numberOfPeople);
+    }
+}
@@ -0,0 +1,41 @@
+package com.mashreq.conference.reactive;
+
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.index.MaintenanceWindows;
+import com.mashreq.conference.booking.validator.BookingRules;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+/**
+ * The /conference booking API on WebFlux and R2DBC, started in place of the servlet application with
+ * {@code mvn -Preactive spring-boot:run}; the default build neither compiles it nor ships its dependencies.
+ * It shares the configuration, the DTOs and the booking rules with the servlet application, but none of its
+ * JPA repositories or in-memory indexes: every read and write is an R2DBC query against the schema.sql tables.
+ */
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+@Import({ConferenceRoomProperties.class, MaintenanceWindows.class, BookingRules.class})
+public class ReactiveConferenceRoomBookingApplication {
+
+	public static void main(String[] args) {
+		application().run(args);
+	}
+
+	// The profile adds WebFlux next to Spring MVC, which would otherwise make this a servlet application
+	public static SpringApplicationBuilder application() {
+		return new SpringApplicationBuilder(ReactiveConferenceRoomBookingApplication.class)
+				.web(WebApplicationType.REACTIVE)
+				.profiles("reactive");
+	}
+
+	// Tomcat stays on the classpath for the servlet application and would win the reactive server lookup
+	@Bean
+	public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+		return new NettyReactiveWebServerFactory();
+	}
+}
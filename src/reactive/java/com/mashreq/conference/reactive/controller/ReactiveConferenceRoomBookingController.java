@@ -0,0 +1,49 @@
+package com.mashreq.conference.reactive.controller;
+
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.domain.ConfRoomBookingRequestDto;
+import com.mashreq.conference.booking.domain.ConfRoomBookingResponseDto;
+import com.mashreq.conference.booking.domain.MaintenanceTiming;
+import com.mashreq.conference.reactive.service.ReactiveBookingService;
+import com.mashreq.conference.reactive.validator.ReactiveRequestValidator;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// The servlet controller's booking and availability endpoints, answered without holding a thread per request
+@RestController
+@RequestMapping("/conference")
+@AllArgsConstructor
+public class ReactiveConferenceRoomBookingController {
+
+    private final ReactiveRequestValidator requestValidator;
+    private final ReactiveBookingService bookingService;
+    private final ConferenceRoomProperties conferenceRoomProperties;
+
+    @GetMapping("/maintenance-timings")
+    public List<MaintenanceTiming> getMaintenanceTimings() {
+        return conferenceRoomProperties.getMaintenanceTimings();
+    }
+
+    @PostMapping("/book")
+    public Mono<ConfRoomBookingResponseDto> book(@Valid @RequestBody ConfRoomBookingRequestDto confRoomBookingRequestDto) {
+        return requestValidator.validateBookingRequest(confRoomBookingRequestDto)
+                .flatMap(bookingService::bookRoom);
+    }
+
+    @GetMapping
+    public Mono<ConfRoomBookingResponseDto> getAvailableMeetingRooms(@RequestParam(required = false) String date,
+                                                                    @RequestParam String startTime,
+                                                                    @RequestParam String endTime) {
+        return requestValidator.validateTimeRange(date, startTime, endTime)
+                .then(Mono.defer(() -> bookingService.fetchListOfAvailableRooms(date, startTime, endTime)));
+    }
+}
@@ -0,0 +1,35 @@
+package com.mashreq.conference.reactive.controller;
+
+import com.mashreq.conference.booking.domain.ConfRoomBookingResponseDto;
+import com.mashreq.conference.booking.exception.ConferenceRoomBookingException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.ObjectError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import java.util.List;
+
+// Same bodies and statuses as ConfRoomBookingExceptionHandler on the servlet side
+@RestControllerAdvice
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ConfRoomBookingResponseDto> invalidRequestHandler(WebExchangeBindException ex) {
+        return invalidRequest(ex.getAllErrors().stream().map(ObjectError::getDefaultMessage).toList());
+    }
+
+    @ExceptionHandler(ConferenceRoomBookingException.class)
+    public ResponseEntity<ConfRoomBookingResponseDto> invalidRequestHandler(ConferenceRoomBookingException ex) {
+        return invalidRequest(List.of(ex.getMessage()));
+    }
+
+    private static ResponseEntity<ConfRoomBookingResponseDto> invalidRequest(List<String> errors) {
+        var response = ConfRoomBookingResponseDto.builder()
+                .response("Invalid Request")
+                .errors(errors)
+                .build();
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+}
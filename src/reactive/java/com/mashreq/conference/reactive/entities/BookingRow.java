@@ -0,0 +1,11 @@
+package com.mashreq.conference.reactive.entities;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+
+@Table("BOOKING_DETAILS")
+public record BookingRow(@Id Long id, String bookedBy, int fromMinute, int toMinute, int numberOfPeople,
+                         LocalDate bookingDate, Long conferenceRoomId) {
+}
@@ -0,0 +1,4 @@
+package com.mashreq.conference.reactive.entities;
+
+public record CatalogSummary(long roomCount, int maxCapacity) {
+}
@@ -0,0 +1,13 @@
+package com.mashreq.conference.reactive.entities;
+
+import com.mashreq.conference.booking.entities.ConferenceRoom;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("CONFERENCE_ROOM")
+public record ConferenceRoomRow(@Id Long id, String name, int capacity, String status) {
+
+    public ConferenceRoom toConferenceRoom(String status) {
+        return new ConferenceRoom(id, name, capacity, status);
+    }
+}
@@ -0,0 +1,20 @@
+package com.mashreq.conference.reactive.repo;
+
+import com.mashreq.conference.reactive.entities.BookingRow;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+@Repository
+public interface ReactiveBookingDetailsRepository extends R2dbcRepository<BookingRow, Long> {
+
+    @Query("SELECT NEXT VALUE FOR BOOKING_DETAILS_SEQ")
+    Mono<Long> nextId();
+
+    @Query("SELECT EXISTS (SELECT 1 FROM BOOKING_DETAILS WHERE conference_room_id = :roomId AND booking_date = :date " +
+            "AND from_minute < :toMinute AND to_minute > :fromMinute)")
+    Mono<Boolean> existsOverlapping(Long roomId, LocalDate date, int fromMinute, int toMinute);
+}
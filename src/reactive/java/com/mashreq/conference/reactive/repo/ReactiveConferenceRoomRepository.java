@@ -0,0 +1,43 @@
+package com.mashreq.conference.reactive.repo;
+
+import com.mashreq.conference.reactive.entities.CatalogSummary;
+import com.mashreq.conference.reactive.entities.ConferenceRoomRow;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+@Repository
+public interface ReactiveConferenceRoomRepository extends R2dbcRepository<ConferenceRoomRow, Long> {
+
+    @Query("SELECT COUNT(*) AS room_count, COALESCE(MAX(capacity), 0) AS max_capacity FROM CONFERENCE_ROOM")
+    Mono<CatalogSummary> summarize();
+
+    // Rooms seating numberOfPeople with no booking overlapping [fromMinute, toMinute) on date, smallest first
+    @Query("SELECT r.* FROM CONFERENCE_ROOM r WHERE r.capacity >= :numberOfPeople AND NOT EXISTS (" +
+            "SELECT 1 FROM BOOKING_DETAILS b WHERE b.conference_room_id = r.id AND b.booking_date = :date " +
+            "AND b.from_minute < :toMinute AND b.to_minute > :fromMinute) ORDER BY r.capacity, r.id")
+    Flux<ConferenceRoomRow> findFreeRooms(LocalDate date, int fromMinute, int toMinute, int numberOfPeople);
+
+    // The first limit of those rooms; bookings read a few candidates at a time rather than the whole result
+    @Query("SELECT r.* FROM CONFERENCE_ROOM r WHERE r.capacity >= :numberOfPeople AND NOT EXISTS (" +
+            "SELECT 1 FROM BOOKING_DETAILS b WHERE b.conference_room_id = r.id AND b.booking_date = :date " +
+            "AND b.from_minute < :toMinute AND b.to_minute > :fromMinute) ORDER BY r.capacity, r.id LIMIT :limit")
+    Flux<ConferenceRoomRow> findFreeRooms(LocalDate date, int fromMinute, int toMinute, int numberOfPeople, int limit);
+
+    // The next limit of those rooms after (afterCapacity, afterId), so a retry moves past the rooms already tried
+    @Query("SELECT r.* FROM CONFERENCE_ROOM r WHERE r.capacity >= :numberOfPeople " +
+            "AND (r.capacity > :afterCapacity OR (r.capacity = :afterCapacity AND r.id > :afterId)) AND NOT EXISTS (" +
+            "SELECT 1 FROM BOOKING_DETAILS b WHERE b.conference_room_id = r.id AND b.booking_date = :date " +
+            "AND b.from_minute < :toMinute AND b.to_minute > :fromMinute) ORDER BY r.capacity, r.id LIMIT :limit")
+    Flux<ConferenceRoomRow> findFreeRoomsAfter(LocalDate date, int fromMinute, int toMinute, int numberOfPeople,
+                                               int afterCapacity, long afterId, int limit);
+
+    @Modifying
+    @Query("UPDATE CONFERENCE_ROOM SET status = :status WHERE id = :id")
+    Mono<Integer> updateStatus(Long id, String status);
+}
@@ -0,0 +1,183 @@
+package com.mashreq.conference.reactive.service;
+
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.domain.BookingDates;
+import com.mashreq.conference.booking.domain.BookingStatus;
+import com.mashreq.conference.booking.domain.ConfRoomBookingRequestDto;
+import com.mashreq.conference.booking.domain.ConfRoomBookingResponseDto;
+import com.mashreq.conference.booking.domain.TimeOfDay;
+import com.mashreq.conference.booking.entities.BookingDetails;
+import com.mashreq.conference.booking.exception.ConferenceRoomBookingException;
+import com.mashreq.conference.booking.exception.RejectionReason;
+import com.mashreq.conference.booking.index.MaintenanceWindows;
+import com.mashreq.conference.booking.index.SlotMasks;
+import com.mashreq.conference.reactive.entities.BookingRow;
+import com.mashreq.conference.reactive.entities.ConferenceRoomRow;
+import com.mashreq.conference.reactive.repo.ReactiveBookingDetailsRepository;
+import com.mashreq.conference.reactive.repo.ReactiveConferenceRoomRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Books rooms with R2DBC queries only. Candidates come from one query that already skips rooms with an
+ * overlapping booking; before a candidate is re-checked and written, its slots are claimed in memory so two
+ * requests in this instance never write overlapping bookings for the same room, then as SLOT_CLAIM rows so
+ * neither do other instances, servlet or reactive, sharing the database.
+ * The SLOT_CLAIM rows, the booking and the room status are written in one transaction, so a failure or a crash
+ * part way never leaves claims behind that would block the slots on every instance. The transaction stays
+ * short: the slots are already held in memory, and the claim rows go in as one statement.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReactiveBookingService {
+
+    private static final String NO_ROOMS_AVAILABLE = "There are no avaialable rooms at the moment";
+    private static final int CANDIDATES = 16;
+
+    private final ReactiveConferenceRoomRepository conferenceRoomRepository;
+    private final ReactiveBookingDetailsRepository bookingDetailsRepository;
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+    private final TransactionalOperator transactionalOperator;
+    private final ConferenceRoomProperties conferenceRoomProperties;
+    private final MaintenanceWindows maintenanceWindows;
+
+    private final Set<SlotClaim> claimedSlots = ConcurrentHashMap.newKeySet();
+
+    public Mono<ConfRoomBookingResponseDto> bookRoom(ConfRoomBookingRequestDto confRoomBookingRequestDto){
+
+        var request = new BookingRow(null, confRoomBookingRequestDto.getUserId(),
+                TimeOfDay.toMinuteOfDay(confRoomBookingRequestDto.getStartTime()),
+                TimeOfDay.toMinuteOfDay(confRoomBookingRequestDto.getEndTime()),
+                confRoomBookingRequestDto.getNumberOfPeople(),
+                BookingDates.parse(confRoomBookingRequestDto.getDate()), null);
+
+        return bookFirstFree(request, conferenceRoomRepository.findFreeRooms(request.bookingDate(), request.fromMinute(),
+                        request.toMinute(), request.numberOfPeople(), CANDIDATES))
+                .map(bookingDetails -> ConfRoomBookingResponseDto.builder()
+                        .response(bookingDetails)
+                        .status("Conference Room Booked Successfully")
+                        .build());
+    }
+
+    public Mono<ConfRoomBookingResponseDto> fetchListOfAvailableRooms(String date, String startTime, String endTime){
+
+        var bookingDate = BookingDates.parse(date);
+        int fromMinute = TimeOfDay.toMinuteOfDay(startTime);
+        int toMinute = TimeOfDay.toMinuteOfDay(endTime);
+
+        // Rooms are never offered during maintenance
+        if(maintenanceWindows.overlaps(fromMinute, toMinute))
+            return Mono.just(ConfRoomBookingResponseDto.builder().response(List.of()).build());
+
+        return conferenceRoomRepository.findFreeRooms(bookingDate, fromMinute, toMinute, 0)
+                .map(x -> x.toConferenceRoom(BookingStatus.AVAILABLE.name()))
+                .collectList()
+                .map(rooms -> ConfRoomBookingResponseDto.builder()
+                        .response(rooms)
+                        .build());
+    }
+
+    // Candidates are read in full before any is tried: cancelling a result half read would leave its connection
+    // busy. When every candidate was taken by concurrent requests, the candidates after the last one tried are read.
+    private Mono<BookingDetails> bookFirstFree(BookingRow request, Flux<ConferenceRoomRow> candidateRooms){
+
+        return candidateRooms
+                .collectList()
+                .flatMap(candidates -> Flux.fromIterable(candidates)
+                        .concatMap(candidate -> tryBook(candidate, request))
+                        .next()
+                        .switchIfEmpty(Mono.defer(() -> candidates.size() < CANDIDATES
+                                ? Mono.error(new ConferenceRoomBookingException(RejectionReason.NO_ROOM_AVAILABLE, NO_ROOMS_AVAILABLE))
+                                : bookFirstFree(request, nextCandidates(request, candidates.get(candidates.size() - 1))))));
+    }
+
+    private Flux<ConferenceRoomRow> nextCandidates(BookingRow request, ConferenceRoomRow last){
+        return conferenceRoomRepository.findFreeRoomsAfter(request.bookingDate(), request.fromMinute(),
+                request.toMinute(), request.numberOfPeople(), last.capacity(), last.id(), CANDIDATES);
+    }
+
+    // Empty when another request holds one of the slots or the room was booked since the candidates were read
+    private Mono<BookingDetails> tryBook(ConferenceRoomRow candidate, BookingRow request){
+
+        var claims = claim(candidate.id(), request.bookingDate(), request.fromMinute(), request.toMinute());
+        if(Objects.isNull(claims))
+            return Mono.empty();
+
+        return bookingDetailsRepository.existsOverlapping(candidate.id(), request.bookingDate(), request.fromMinute(),
+                        request.toMinute())
+                .filter(overlapping -> !overlapping)
+                .flatMap(x -> claimRows(claims))
+                .filter(claimed -> claimed)
+                .flatMap(x -> bookingDetailsRepository.nextId())
+                .flatMap(id -> r2dbcEntityTemplate.insert(new BookingRow(id, request.bookedBy(), request.fromMinute(),
+                        request.toMinute(), request.numberOfPeople(), request.bookingDate(), candidate.id())))
+                .flatMap(saved -> conferenceRoomRepository.updateStatus(candidate.id(), BookingStatus.BOOKED.name())
+                        .thenReturn(toBookingDetails(saved, candidate)))
+                .as(transactionalOperator::transactional)
+                .doFinally(x -> claimedSlots.removeAll(claims));
+    }
+
+    // False when a booking made by another instance holds one of the slots; a failed statement inserts no rows and
+    // leaves the transaction open, so the empty result commits nothing
+    private Mono<Boolean> claimRows(List<SlotClaim> claims){
+
+        var values = new StringJoiner(", ");
+        for (int i = 0; i < claims.size(); i++)
+            values.add("(:roomId, :date, :slot" + i + ")");
+
+        var spec = r2dbcEntityTemplate.getDatabaseClient()
+                .sql("INSERT INTO SLOT_CLAIM(conference_room_id, booking_date, slot) VALUES " + values)
+                .bind("roomId", claims.get(0).roomId())
+                .bind("date", claims.get(0).date());
+        for (int i = 0; i < claims.size(); i++)
+            spec = spec.bind("slot" + i, claims.get(i).slot());
+        return spec.then()
+                .thenReturn(true)
+                .onErrorResume(DataIntegrityViolationException.class, x -> Mono.just(false));
+    }
+
+    // All of the booking's slots on the room, or null when another request holds one of them
+    private List<SlotClaim> claim(Long roomId, LocalDate date, int fromMinute, int toMinute){
+
+        int interval = conferenceRoomProperties.getBooking().getInterval();
+        var claims = new ArrayList<SlotClaim>();
+        int endSlot = SlotMasks.endSlot(toMinute, interval);
+        for (int slot = SlotMasks.firstSlot(fromMinute, interval); slot < endSlot; slot++) {
+            var claim = new SlotClaim(roomId, date, slot);
+            if(!claimedSlots.add(claim)) {
+                claimedSlots.removeAll(claims);
+                return null;
+            }
+            claims.add(claim);
+        }
+        return claims;
+    }
+
+    private static BookingDetails toBookingDetails(BookingRow bookingRow, ConferenceRoomRow conferenceRoom){
+        return BookingDetails.builder()
+                .id(bookingRow.id())
+                .bookedBy(bookingRow.bookedBy())
+                .numberOfPeople(bookingRow.numberOfPeople())
+                .bookingDate(bookingRow.bookingDate())
+                .fromMinute(bookingRow.fromMinute())
+                .toMinute(bookingRow.toMinute())
+                .conferenceRoom(conferenceRoom.toConferenceRoom(BookingStatus.BOOKED.name()))
+                .build();
+    }
+
+    private record SlotClaim(Long roomId, LocalDate date, int slot) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.mashreq.conference.reactive.validator;
+
+import com.mashreq.conference.booking.domain.ConfRoomBookingRequestDto;
+import com.mashreq.conference.booking.validator.BookingRules;
+import com.mashreq.conference.reactive.entities.CatalogSummary;
+import com.mashreq.conference.reactive.repo.ReactiveConferenceRoomRepository;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * The RequestValidator rules for the reactive variant. Date, time and maintenance rules run as they are; the
+ * room count and largest capacity come from an R2DBC query whose result is shared for a second, the reactive
+ * counterpart of the servlet side reading them from the capacity index.
+ */
+@Component
+public class ReactiveRequestValidator {
+
+    private static final Duration CATALOG_TTL = Duration.ofSeconds(1);
+
+    private final BookingRules bookingRules;
+    private final Mono<CatalogSummary> catalogSummary;
+
+    public ReactiveRequestValidator(BookingRules bookingRules, ReactiveConferenceRoomRepository conferenceRoomRepository) {
+        this.bookingRules = bookingRules;
+        this.catalogSummary = conferenceRoomRepository.summarize()
+                .cache(x -> CATALOG_TTL, x -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    public Mono<ConfRoomBookingRequestDto> validateBookingRequest(ConfRoomBookingRequestDto confRoomBookingRequestDto){
+
+        return Mono.fromRunnable(() -> bookingRules.checkBookingTimes(confRoomBookingRequestDto))
+                .then(catalogSummary)
+                .doOnNext(x -> bookingRules.checkCapacity(x.roomCount(), x.maxCapacity(),
+                        confRoomBookingRequestDto.getNumberOfPeople()))
+                .thenReturn(confRoomBookingRequestDto);
+    }
+
+    public Mono<Void> validateTimeRange(String date, String startTime, String endTime){
+        return Mono.fromRunnable(() -> bookingRules.checkTimeRange(date, startTime, endTime));
+    }
+}
@@ -9,10 +9,27 @@ import com.mashreq.conference.booking.domain.ConfRoomBookingResponseDto;
 import com.mashreq.conference.booking.entities.BookingDetails;
 import com.mashreq.conference.booking.entities.ConferenceRoom;
 import com.mashreq.conference.booking.exception.ConfRoomBookingExceptionHandler;
+import com.mashreq.conference.booking.index.AvailabilityCache;
+import com.mashreq.conference.booking.index.MaintenanceWindows;
+import com.mashreq.conference.booking.index.RoomAvailabilityIndex;
+import com.mashreq.conference.booking.index.RoomCapacityIndex;
+import com.mashreq.conference.booking.journal.JournalPersistence;
+import com.mashreq.conference.booking.metrics.BookingMetrics;
 import com.mashreq.conference.booking.repo.BookingDetailsRepository;
 import com.mashreq.conference.booking.repo.ConferenceRoomRepository;
+import com.mashreq.conference.booking.repo.SlotClaimRepository;
+import com.mashreq.conference.booking.service.AdmissionControl;
+import com.mashreq.conference.booking.service.BookingExpiryEngine;
 import com.mashreq.conference.booking.service.ConferenceBookingService;
+import com.mashreq.conference.booking.service.IdempotentRequests;
+import com.mashreq.conference.booking.service.BookingArchiver;
+import com.mashreq.conference.booking.service.OccupancyAnalytics;
+import com.mashreq.conference.booking.service.RoomCatalogImporter;
+import com.mashreq.conference.booking.service.RoomEventBroadcaster;
+import com.mashreq.conference.booking.validator.BookingRules;
 import com.mashreq.conference.booking.validator.RequestValidator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -21,13 +38,22 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ConferenceRoomBookingController.class)
 @ContextConfiguration(classes = {
@@ -35,8 +61,21 @@ import static org.mockito.Mockito.when;
         ConferenceRoomProperties.class,
         ConfRoomBookingExceptionHandler.class,
         RequestValidator.class,
+        BookingRules.class,
         ConferenceRoomRepository.class,
-        ConferenceBookingService.class})
+        ConferenceBookingService.class,
+        RoomAvailabilityIndex.class,
+        BookingExpiryEngine.class,
+        RoomCapacityIndex.class,
+        MaintenanceWindows.class,
+        AvailabilityCache.class,
+        RoomEventBroadcaster.class,
+        OccupancyAnalytics.class,
+        BookingArchiver.class,
+        IdempotentRequests.class,
+        AdmissionControl.class,
+        BookingMetrics.class,
+        SimpleMeterRegistry.class})
 public class ConferenceRoomBookingControllerTest {
 
     @Autowired
@@ -51,12 +90,33 @@ public class ConferenceRoomBookingControllerTest {
     @MockBean
     BookingDetailsRepository bookingDetailsRepository;
 
+    @MockBean
+    JournalPersistence journalPersistence;
+
+    @MockBean
+    SlotClaimRepository slotClaimRepository;
+
+    @MockBean
+    RoomCatalogImporter roomCatalogImporter;
+
+    @MockBean
+    TransactionTemplate transactionTemplate;
+
     @Autowired
     ConferenceBookingService conferenceBookingService;
 
     @Autowired
     ConferenceRoomProperties conferenceRoomProperties;
 
+    @Autowired
+    RoomCapacityIndex roomCapacityIndex;
+
+    @Autowired
+    RoomAvailabilityIndex roomAvailabilityIndex;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
     ObjectMapper objectMapper = new ObjectMapper();
 
     @Test
@@ -114,6 +174,38 @@ public class ConferenceRoomBookingControllerTest {
         var errorList = confRoomBookingRes.getErrors();
 
         assertTrue(errorList.contains("Start Time should always be lesser than End Time."));
+        assertEquals(1.0, meterRegistry.counter("conference.booking.rejections",
+                "reason", "END_BEFORE_START").count());
+    }
+
+    @Test
+    public void testRoomBookingValidRequestWithPastDate() throws Exception {
+
+        var request = ConfRoomBookingRequestDto.builder()
+                .userId("12345")
+                .date(LocalDate.now().minusDays(1).toString())
+                .startTime("10:00")
+                .endTime("10:15")
+                .numberOfPeople(2)
+                .build();
+
+        String requestBodyJson = objectMapper.writeValueAsString(request);
+
+        var response = mockMvc.perform(
+                MockMvcRequestBuilders.post("/conference/book")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBodyJson)
+        );
+
+        var result = response.andReturn();
+        var confRoomBookingResStr = result.getResponse().getContentAsString();
+        var confRoomBookingRes = objectMapper.readValue(confRoomBookingResStr,ConfRoomBookingResponseDto.class);
+
+        assertEquals("Invalid Request", confRoomBookingRes.getResponse());
+
+        var errorList = confRoomBookingRes.getErrors();
+
+        assertTrue(errorList.contains("Booking date should not be in the past"));
     }
 
     @Test
@@ -156,11 +248,68 @@ public class ConferenceRoomBookingControllerTest {
                 "2:00 - 2:15 or 2:00 - 2:30 or 2:00 to 3:00"));
     }
 
+    @Test
+    public void testRoomBookingRejectsEmptyAndUnalignedTimes() throws Exception {
+
+        var tomorrow = LocalDate.now().plusDays(1).toString();
+        var empty = ConfRoomBookingRequestDto.builder()
+                .userId("12345")
+                .date(tomorrow)
+                .startTime("10:00")
+                .endTime("10:00")
+                .numberOfPeople(2)
+                .build();
+        var unaligned = ConfRoomBookingRequestDto.builder()
+                .userId("12345")
+                .date(tomorrow)
+                .startTime("10:05")
+                .endTime("10:20")
+                .numberOfPeople(2)
+                .build();
+
+        assertTrue(bookingErrors(empty).contains("Start Time should always be lesser than End Time."));
+        assertTrue(bookingErrors(unaligned).contains("Invalid Booking time. It should be intervals of 15 mins for example " +
+                "2:00 - 2:15 or 2:00 - 2:30 or 2:00 to 3:00"));
+    }
+
+    @Test
+    public void testOnlyBookingRequestsCountAsRejections() throws Exception {
+
+        double before = meterRegistry.counter("conference.booking.rejections", "reason", "END_BEFORE_START").count();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/conference")
+                        .param("date", LocalDate.now().plusDays(1).toString())
+                        .param("startTime", "12:00")
+                        .param("endTime", "11:00"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(before, meterRegistry.counter("conference.booking.rejections", "reason", "END_BEFORE_START").count());
+    }
+
+    @Test
+    public void testARequestWithSeveralInvalidFieldsCountsAsOneRejection() throws Exception {
+
+        double before = meterRegistry.counter("conference.booking.rejections", "reason", "INVALID_REQUEST").count();
+
+        var result = mockMvc.perform(MockMvcRequestBuilders.post("/conference/book")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ConfRoomBookingRequestDto.builder().build())))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        var confRoomBookingRes = objectMapper.readValue(result.getResponse().getContentAsString(),
+                ConfRoomBookingResponseDto.class);
+        assertTrue(confRoomBookingRes.getErrors().size() > 1);
+        assertEquals(before + 1, meterRegistry.counter("conference.booking.rejections", "reason", "INVALID_REQUEST").count());
+    }
+
     @Test
     public void testRoomBookingValidRequestWithInvalidTimeDuringMaintenance() throws Exception {
 
+        // Tomorrow, so the slot is not rejected as past time in the afternoon
         var request = ConfRoomBookingRequestDto.builder()
                 .userId("12345")
+                .date(LocalDate.now().plusDays(1).toString())
                 .startTime("13:00")
                 .endTime("13:15")
                 .numberOfPeople(2)
@@ -192,8 +341,6 @@ public class ConferenceRoomBookingControllerTest {
         String formattedStartTime = String.format("%02d:%02d", startTime.getHour(), startTime.getMinute());
 
         var endTime = startTime.plusMinutes(15L);
-        while(verifyBookingTimeWithinMaintenance(endTime))
-            endTime = endTime.plusMinutes(15L);
 
         String formattedEndTime = String.format("%02d:%02d", endTime.getHour(), endTime.getMinute());
 
@@ -212,7 +359,9 @@ public class ConferenceRoomBookingControllerTest {
         conferenceRoomsList.add(new ConferenceRoom(3L, "Inspire", 12, BookingStatus.AVAILABLE.name()));
         conferenceRoomsList.add(new ConferenceRoom(4L, "Strive", 20, BookingStatus.AVAILABLE.name()));
 
-        when(conferenceRoomRepository.findByStatus(BookingStatus.AVAILABLE.name())).thenReturn(conferenceRoomsList);
+        when(conferenceRoomRepository.findCatalog()).thenReturn(conferenceRoomsList);
+        roomCapacityIndex.reload();
+        roomAvailabilityIndex.reload();
 
         var response = mockMvc.perform(
                 MockMvcRequestBuilders.post("/conference/book")
@@ -238,8 +387,6 @@ public class ConferenceRoomBookingControllerTest {
         String formattedStartTime = String.format("%02d:%02d", startTime.getHour(), startTime.getMinute());
 
         var endTime = startTime.plusMinutes(15L);
-        while(verifyBookingTimeWithinMaintenance(endTime))
-            endTime = endTime.plusMinutes(15L);
 
         String formattedEndTime = String.format("%02d:%02d", endTime.getHour(), endTime.getMinute());
 
@@ -258,7 +405,12 @@ public class ConferenceRoomBookingControllerTest {
         conferenceRoomsList.add(new ConferenceRoom(3L, "Inspire", 12, BookingStatus.AVAILABLE.name()));
         conferenceRoomsList.add(new ConferenceRoom(4L, "Strive", 20, BookingStatus.AVAILABLE.name()));
 
-        when(conferenceRoomRepository.findByStatus(BookingStatus.AVAILABLE.name())).thenReturn(conferenceRoomsList);
+        when(conferenceRoomRepository.findCatalog()).thenReturn(conferenceRoomsList);
+        when(conferenceRoomRepository.findById(4L))
+                .thenReturn(Optional.of(new ConferenceRoom(4L, "Strive", 20, BookingStatus.AVAILABLE.name())));
+        when(slotClaimRepository.claim(any(), any(), anyInt(), anyInt())).thenReturn(true);
+        roomCapacityIndex.reload();
+        roomAvailabilityIndex.reload();
 
         var response = mockMvc.perform(
                 MockMvcRequestBuilders.post("/conference/book")
@@ -276,10 +428,139 @@ public class ConferenceRoomBookingControllerTest {
 
         assertEquals("Strive", bookingDetails.getConferenceRoom().getName());
         assertEquals("BOOKED",bookingDetails.getConferenceRoom().getStatus());
+        assertEquals(LocalDate.now().toString(), bookingDetails.getDate());
+
+    }
+
+
+    @Test
+    public void testRoomBookingRetryWithIdempotencyKeyReturnsOriginalBooking() throws Exception {
+
+        var request = ConfRoomBookingRequestDto.builder()
+                .userId("12345")
+                .date(LocalDate.now().plusDays(1).toString())
+                .startTime("10:00")
+                .endTime("10:15")
+                .numberOfPeople(20)
+                .build();
+
+        when(conferenceRoomRepository.findCatalog())
+                .thenReturn(List.of(new ConferenceRoom(4L, "Strive", 20, BookingStatus.AVAILABLE.name())));
+        when(conferenceRoomRepository.findById(4L))
+                .thenReturn(Optional.of(new ConferenceRoom(4L, "Strive", 20, BookingStatus.AVAILABLE.name())));
+        when(slotClaimRepository.claim(any(), any(), anyInt(), anyInt())).thenReturn(true);
+        roomCapacityIndex.reload();
+        roomAvailabilityIndex.reload();
+
+        var first = mockMvc.perform(MockMvcRequestBuilders.post("/conference/book")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andReturn().getResponse().getContentAsString();
+        var retry = mockMvc.perform(MockMvcRequestBuilders.post("/conference/book")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("Conference Room Booked Successfully",
+                objectMapper.readValue(retry, ConfRoomBookingResponseDto.class).getStatus());
+        assertEquals(first, retry);
+        verify(bookingDetailsRepository, times(1)).save(any());
+
+        // replays answered from the key spend none of the user's tokens
+        for (int i = 0; i < conferenceRoomProperties.getAdmission().getUserBurst() + 5; i++)
+            mockMvc.perform(MockMvcRequestBuilders.post("/conference/book")
+                            .header("Idempotency-Key", "retry-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk());
+
+        request.setNumberOfPeople(2);
+        var reused = mockMvc.perform(MockMvcRequestBuilders.post("/conference/book")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(objectMapper.readValue(reused, ConfRoomBookingResponseDto.class).getErrors()
+                .contains("Idempotency-Key was already used for a different booking request"));
+    }
+
+    @Test
+    public void testBatchRoomBookingReturnsPerItemResults() throws Exception {
+
+        var startTime = nextAvailableStartTime();
+        String formattedStartTime = String.format("%02d:%02d", startTime.getHour(), startTime.getMinute());
+
+        var endTime = startTime.plusMinutes(15L);
+
+        String formattedEndTime = String.format("%02d:%02d", endTime.getHour(), endTime.getMinute());
+
+        var validRequest = ConfRoomBookingRequestDto.builder()
+                .userId("12345")
+                .startTime(formattedStartTime)
+                .endTime(formattedEndTime)
+                .numberOfPeople(20)
+                .build();
+        var invalidRequest = ConfRoomBookingRequestDto.builder()
+                .build();
+        var unavailableRequest = ConfRoomBookingRequestDto.builder()
+                .userId("12345")
+                .startTime(formattedStartTime)
+                .endTime(formattedEndTime)
+                .numberOfPeople(20)
+                .build();
+
+        var requestBodyJson = objectMapper.writeValueAsString(List.of(invalidRequest, validRequest, unavailableRequest));
+
+        var conferenceRoomsList = new ArrayList<ConferenceRoom>();
+        conferenceRoomsList.add(new ConferenceRoom(3L, "Inspire", 12, BookingStatus.AVAILABLE.name()));
+        conferenceRoomsList.add(new ConferenceRoom(4L, "Strive", 20, BookingStatus.AVAILABLE.name()));
 
+        when(conferenceRoomRepository.findCatalog()).thenReturn(conferenceRoomsList);
+        when(conferenceRoomRepository.findAllById(List.of(4L)))
+                .thenReturn(List.of(new ConferenceRoom(4L, "Strive", 20, BookingStatus.AVAILABLE.name())));
+        when(slotClaimRepository.claimAll(any())).thenReturn(true);
+        roomCapacityIndex.reload();
+        roomAvailabilityIndex.reload();
+
+        var response = mockMvc.perform(
+                MockMvcRequestBuilders.post("/conference/book/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBodyJson)
+        );
+
+        var result = response.andReturn();
+        var confRoomBookingResStr = result.getResponse().getContentAsString();
+        var confRoomBookingRes = objectMapper.readValue(confRoomBookingResStr,ConfRoomBookingResponseDto.class);
+
+        assertEquals("Batch Booking Processed", confRoomBookingRes.getStatus());
+
+        var itemResults = objectMapper.convertValue(confRoomBookingRes.getResponse(), ConfRoomBookingResponseDto[].class);
+
+        assertEquals(3, itemResults.length);
+        assertEquals("Invalid Request", itemResults[0].getResponse());
+        assertTrue(itemResults[0].getErrors().contains("user Id is required"));
+
+        assertEquals("Conference Room Booked Successfully", itemResults[1].getStatus());
+        var bookingDetails = objectMapper.convertValue(itemResults[1].getResponse(), BookingDetails.class);
+        assertEquals("Strive", bookingDetails.getConferenceRoom().getName());
+
+        assertEquals("Invalid Request", itemResults[2].getResponse());
+        assertTrue(itemResults[2].getErrors().contains("There are no avaialable rooms at the moment"));
     }
 
+    private List<String> bookingErrors(ConfRoomBookingRequestDto request) throws Exception {
+        var confRoomBookingResStr = mockMvc.perform(MockMvcRequestBuilders.post("/conference/book")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(confRoomBookingResStr, ConfRoomBookingResponseDto.class).getErrors();
+    }
 
+    // Never a maintenance slot, so a single 15 minute booking from it cannot overlap one
     private LocalTime nextAvailableStartTime(){
         LocalTime currentTime = LocalTime.now();
 
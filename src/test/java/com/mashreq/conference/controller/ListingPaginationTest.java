@@ -0,0 +1,140 @@
+package com.mashreq.conference.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mashreq.conference.booking.ConferenceRoomBookingApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = ConferenceRoomBookingApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:listingdb",
+        "conference-room.expiry.poll-interval-ms=3600000"})
+@AutoConfigureMockMvc
+public class ListingPaginationTest {
+
+    private static final String DATE = LocalDate.now().plusDays(1).toString();
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    public void testBookingPagesFollowTheCursor() throws Exception {
+
+        book("listing-a", "15:00", "15:30");
+        book("listing-b", "10:00", "10:15");
+        book("listing-a", "11:00", "11:15");
+        book("listing-a", "10:00", "10:15");
+        book("listing-a", "16:00", "16:15");
+
+        var startTimes = new ArrayList<String>();
+        var pages = 0;
+        String after = null;
+        do {
+            var request = MockMvcRequestBuilders.get("/conference/bookings")
+                    .param("bookedBy", "listing-a").param("from", DATE).param("limit", "2");
+            if(after != null)
+                request.param("after", after);
+            var page = page(request);
+            page.get("response").forEach(x -> {
+                assertEquals("listing-a", x.get("bookedBy").asText());
+                startTimes.add(x.get("fromTime").asText());
+            });
+            after = page.has("next") ? page.get("next").asText() : null;
+            pages++;
+        } while(after != null);
+
+        assertEquals(List.of("10:00", "11:00", "15:00", "16:00"), startTimes);
+        // the last full page hands out a cursor that turns up an empty page
+        assertEquals(3, pages);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/conference/bookings").param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testOneRoomsBookingsPageInOrder() throws Exception {
+
+        book("listing-room", "19:00", "19:15");
+        book("listing-room", "18:00", "18:15");
+        book("listing-room", "18:30", "18:45");
+
+        var first = page(MockMvcRequestBuilders.get("/conference/bookings")
+                .param("roomId", "1").param("from", DATE).param("limit", "2"));
+        assertEquals(2, first.get("response").size());
+        first.get("response").forEach(x -> assertEquals("Amaze", x.get("roomName").asText()));
+
+        var startTimes = new ArrayList<String>();
+        String after = null;
+        do {
+            var request = MockMvcRequestBuilders.get("/conference/bookings")
+                    .param("roomId", "1").param("bookedBy", "listing-room").param("from", DATE).param("limit", "2");
+            if(after != null)
+                request.param("after", after);
+            var page = page(request);
+            page.get("response").forEach(x -> startTimes.add(x.get("fromTime").asText()));
+            after = page.has("next") ? page.get("next").asText() : null;
+        } while(after != null);
+
+        assertEquals(List.of("18:00", "18:30", "19:00"), startTimes);
+    }
+
+    @Test
+    public void testRoomPagesSeekByCapacity() throws Exception {
+
+        var first = page(MockMvcRequestBuilders.get("/conference/rooms").param("minCapacity", "5").param("limit", "2"));
+        assertEquals(List.of("Beauty", "Inspire"), names(first));
+        assertTrue(first.has("next"));
+
+        var second = page(MockMvcRequestBuilders.get("/conference/rooms").param("minCapacity", "5").param("limit", "2")
+                .param("after", first.get("next").asText()));
+        assertEquals(List.of("Strive"), names(second));
+        assertFalse(second.has("next"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/conference/rooms").param("status", "UNKNOWN"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void book(String userId, String startTime, String endTime) throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/conference/book")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.format("{\"userId\":\"%s\",\"date\":\"%s\",\"startTime\":\"%s\",\"endTime\":\"%s\"," +
+                                "\"numberOfPeople\":2}", userId, DATE, startTime, endTime)))
+                .andExpect(status().isOk());
+    }
+
+    private JsonNode page(MockHttpServletRequestBuilder builder) throws Exception {
+        var started = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        var body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static List<String> names(JsonNode page) {
+        var names = new ArrayList<String>();
+        page.get("response").forEach(x -> names.add(x.get("name").asText()));
+        return names;
+    }
+}
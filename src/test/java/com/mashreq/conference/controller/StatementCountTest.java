@@ -0,0 +1,97 @@
+package com.mashreq.conference.controller;
+
+import com.mashreq.conference.booking.ConferenceRoomBookingApplication;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the JDBC statements each endpoint prepares, so a lazy association that starts loading per row, or a
+ * read that goes back to the database instead of the in-memory indexes, fails the build.
+ */
+@SpringBootTest(classes = ConferenceRoomBookingApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:statementdb",
+        "conference-room.expiry.poll-interval-ms=3600000"})
+@AutoConfigureMockMvc
+public class StatementCountTest {
+
+    private static final String DATE = LocalDate.now().plusDays(1).toString();
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void testBookingStatementsDoNotGrowWithTheBatch() throws Exception {
+
+        // The pooled id generator reads the sequence for the first two ids; later ids come from the allocated block
+        statements(post("/conference/book", booking("06:00", "06:15", 2)));
+        statements(post("/conference/book", booking("06:15", "06:30", 2)));
+
+        // Hibernate's count: read the room, insert booking, update room status. The slot claim is one more
+        // statement, sent with JdbcTemplate outside these statistics.
+        assertEquals(3, statements(post("/conference/book", booking("10:00", "10:15", 10))));
+
+        // one select, one batched insert and one batched update for the whole batch, plus one JDBC batch of
+        // slot claims; both batches book at least one room that was still available, so both update a room status
+        assertEquals(3, statements(post("/conference/book/batch", "[" + booking("11:00", "11:15", 5) + "]")));
+        assertEquals(3, statements(post("/conference/book/batch", "[" + booking("12:00", "12:15", 2) + ","
+                + booking("12:00", "12:15", 2) + "," + booking("12:00", "12:15", 2) + ","
+                + booking("12:00", "12:15", 2) + "]")));
+    }
+
+    @Test
+    public void testReadsAreServedWithoutStatements() throws Exception {
+
+        assertEquals(0, statements(MockMvcRequestBuilders.get("/conference")
+                .param("date", DATE).param("startTime", "14:00").param("endTime", "14:30")));
+        assertEquals(0, statements(MockMvcRequestBuilders.get("/conference/slots")
+                .param("date", DATE).param("numberOfPeople", "4").param("duration", "60")
+                .param("earliestStart", "08:00").param("latestEnd", "18:00")));
+        assertEquals(0, statements(MockMvcRequestBuilders.get("/conference/analytics").param("roomId", "1")));
+        assertEquals(0, statements(MockMvcRequestBuilders.get("/conference/maintenance-timings")));
+        assertEquals(0, statements(MockMvcRequestBuilders.get("/conference/rooms").param("minCapacity", "5")));
+    }
+
+    private long statements(RequestBuilder request) throws Exception {
+        statistics.clear();
+        var result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+        if(result.getRequest().isAsyncStarted())
+            mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static RequestBuilder post(String path, String body) {
+        return MockMvcRequestBuilders.post(path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+
+    private static String booking(String startTime, String endTime, int numberOfPeople) {
+        return String.format("{\"userId\":\"statements\",\"date\":\"%s\",\"startTime\":\"%s\",\"endTime\":\"%s\"," +
+                "\"numberOfPeople\":%d}", DATE, startTime, endTime, numberOfPeople);
+    }
+}
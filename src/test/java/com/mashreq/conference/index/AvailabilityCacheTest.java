@@ -0,0 +1,101 @@
+package com.mashreq.conference.index;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.domain.Booking;
+import com.mashreq.conference.booking.domain.BookingStatus;
+import com.mashreq.conference.booking.domain.TimeOfDay;
+import com.mashreq.conference.booking.entities.ConferenceRoom;
+import com.mashreq.conference.booking.index.AvailabilityCache;
+import com.mashreq.conference.booking.index.MaintenanceWindows;
+import com.mashreq.conference.booking.index.RoomAvailabilityIndex;
+import com.mashreq.conference.booking.repo.BookingDetailsRepository;
+import com.mashreq.conference.booking.repo.ConferenceRoomRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AvailabilityCacheTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private final List<ConferenceRoom> rooms = List.of(
+            new ConferenceRoom(1L, "Amaze", 3, BookingStatus.AVAILABLE.name()),
+            new ConferenceRoom(2L, "Beauty", 7, BookingStatus.AVAILABLE.name()));
+
+    @Test
+    public void testOnlyOverlappingRangesAreInvalidated() {
+
+        var properties = properties();
+        var availabilityCache = new AvailabilityCache(properties);
+        var index = newIndex(properties, availabilityCache);
+
+        assertEquals(2, freeRooms(availabilityCache, index, TODAY, "10:00", "11:00"));
+        assertEquals(2, freeRooms(availabilityCache, index, TODAY, "14:00", "14:30"));
+        // same slots, different minutes: one entry
+        assertEquals(2, freeRooms(availabilityCache, index, TODAY, "10:05", "10:50"));
+        assertEquals(1, stats(availabilityCache).hitCount());
+
+        index.tryReserve(rooms.get(0), TODAY, minutes("10:30"), minutes("10:45"));
+        index.tryReserve(rooms.get(1), TODAY.plusDays(1), minutes("14:00"), minutes("14:15"));
+
+        assertEquals(1, availabilityCache.getInvalidations());
+        assertEquals(1, freeRooms(availabilityCache, index, TODAY, "10:00", "11:00"));
+        assertEquals(2, freeRooms(availabilityCache, index, TODAY, "14:00", "14:30"));
+        assertEquals(2, stats(availabilityCache).hitCount());
+        assertEquals(3, stats(availabilityCache).missCount());
+
+        // a claim that conflicts on its first slot changes nothing
+        index.tryReserve(rooms.get(0), TODAY, minutes("10:30"), minutes("11:00"));
+        assertEquals(1, freeRooms(availabilityCache, index, TODAY, "10:00", "11:00"));
+        assertEquals(3, stats(availabilityCache).hitCount());
+
+        index.release(1L, TODAY, minutes("10:30"), minutes("10:45"));
+        assertEquals(2, freeRooms(availabilityCache, index, TODAY, "10:00", "11:00"));
+
+        index.evictBefore(TODAY.plusDays(1));
+        assertEquals(0, availabilityCache.nativeCache().estimatedSize());
+    }
+
+    private ConferenceRoomProperties properties() {
+        var booking = new Booking();
+        booking.setInterval(15);
+        var properties = new ConferenceRoomProperties();
+        properties.setBooking(booking);
+        return properties;
+    }
+
+    private RoomAvailabilityIndex newIndex(ConferenceRoomProperties properties, AvailabilityCache availabilityCache) {
+        var conferenceRoomRepository = mock(ConferenceRoomRepository.class);
+        var bookingDetailsRepository = mock(BookingDetailsRepository.class);
+        when(conferenceRoomRepository.findCatalog()).thenReturn(rooms);
+        when(bookingDetailsRepository.findBookedSlots(any(LocalDate.class), any(LocalDate.class))).thenReturn(List.of());
+
+        var index = new RoomAvailabilityIndex(properties, conferenceRoomRepository, bookingDetailsRepository,
+                new MaintenanceWindows(properties), availabilityCache);
+        index.reload();
+        return index;
+    }
+
+    private static int freeRooms(AvailabilityCache availabilityCache, RoomAvailabilityIndex index, LocalDate date,
+                                 String fromTime, String toTime) {
+        int fromMinute = minutes(fromTime);
+        int toMinute = minutes(toTime);
+        return availabilityCache.get(date, fromMinute, toMinute,
+                () -> index.findFreeRooms(date, fromMinute, toMinute)).size();
+    }
+
+    private static CacheStats stats(AvailabilityCache availabilityCache) {
+        return availabilityCache.nativeCache().stats();
+    }
+
+    private static int minutes(String time) {
+        return TimeOfDay.toMinuteOfDay(time);
+    }
+}
@@ -0,0 +1,63 @@
+package com.mashreq.conference.index;
+
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.domain.Booking;
+import com.mashreq.conference.booking.domain.MaintenanceTiming;
+import com.mashreq.conference.booking.index.MaintenanceWindows;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MaintenanceWindowsTest {
+
+    @Test
+    public void testOverlapsDetectsPartialOverlap() {
+
+        var properties = properties(List.of(timing("09:00", "09:15"), timing("13:00", "13:15")));
+        var maintenanceWindows = new MaintenanceWindows(properties);
+
+        assertTrue(maintenanceWindows.overlaps(minutes("13:00"), minutes("13:15")));
+        assertTrue(maintenanceWindows.overlaps(minutes("12:45"), minutes("13:30")));
+        assertTrue(maintenanceWindows.overlaps(minutes("08:00"), minutes("10:00")));
+        assertFalse(maintenanceWindows.overlaps(minutes("12:45"), minutes("13:00")));
+        assertFalse(maintenanceWindows.overlaps(minutes("13:15"), minutes("14:00")));
+        assertFalse(maintenanceWindows.overlaps(minutes("23:00"), minutes("23:45")));
+    }
+
+    @Test
+    public void testRecompilesWhenTimingsAreRebound() {
+
+        var properties = properties(List.of(timing("09:00", "09:15")));
+        var maintenanceWindows = new MaintenanceWindows(properties);
+
+        assertFalse(maintenanceWindows.overlaps(minutes("17:00"), minutes("17:15")));
+
+        properties.setMaintenanceTimings(List.of(timing("17:00", "17:15")));
+
+        assertTrue(maintenanceWindows.overlaps(minutes("17:00"), minutes("17:15")));
+        assertFalse(maintenanceWindows.overlaps(minutes("09:00"), minutes("09:15")));
+    }
+
+    private static ConferenceRoomProperties properties(List<MaintenanceTiming> maintenanceTimings) {
+        var booking = new Booking();
+        booking.setInterval(15);
+        var properties = new ConferenceRoomProperties();
+        properties.setBooking(booking);
+        properties.setMaintenanceTimings(maintenanceTimings);
+        return properties;
+    }
+
+    private static MaintenanceTiming timing(String startTime, String endTime) {
+        var maintenanceTiming = new MaintenanceTiming();
+        maintenanceTiming.setStartTime(startTime);
+        maintenanceTiming.setEndTime(endTime);
+        return maintenanceTiming;
+    }
+
+    private static int minutes(String time) {
+        return Integer.parseInt(time.substring(0, 2)) * 60 + Integer.parseInt(time.substring(3));
+    }
+}
@@ -0,0 +1,249 @@
+package com.mashreq.conference.index;
+
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.domain.BookedSlot;
+import com.mashreq.conference.booking.domain.Booking;
+import com.mashreq.conference.booking.domain.BookingStatus;
+import com.mashreq.conference.booking.domain.MaintenanceTiming;
+import com.mashreq.conference.booking.domain.TimeOfDay;
+import com.mashreq.conference.booking.entities.ConferenceRoom;
+import com.mashreq.conference.booking.index.AvailabilityCache;
+import com.mashreq.conference.booking.index.MaintenanceWindows;
+import com.mashreq.conference.booking.index.RoomAvailabilityIndex;
+import com.mashreq.conference.booking.repo.BookingDetailsRepository;
+import com.mashreq.conference.booking.repo.ConferenceRoomRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RoomAvailabilityIndexTest {
+
+    private static final int INTERVAL = 15;
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Test
+    public void testFreeRoomsExcludeOverlappingBookings() {
+
+        var rooms = List.of(
+                new ConferenceRoom(1L, "Amaze", 3, BookingStatus.AVAILABLE.name()),
+                new ConferenceRoom(2L, "Beauty", 7, BookingStatus.AVAILABLE.name()),
+                new ConferenceRoom(3L, "Inspire", 12, BookingStatus.AVAILABLE.name()));
+
+        var bookings = List.of(
+                booking(rooms.get(0), TODAY, "10:00", "11:00"),
+                booking(rooms.get(1), TODAY, "23:30", "23:45"),
+                booking(rooms.get(2), TODAY.plusDays(1), "10:00", "11:00"));
+
+        var index = newIndex(rooms, bookings);
+
+        assertEquals(List.of("Beauty", "Inspire"), names(index.findFreeRooms(TODAY, minutes("10:45"), minutes("11:15"))));
+        assertEquals(List.of("Amaze", "Beauty", "Inspire"), names(index.findFreeRooms(TODAY, minutes("11:00"), minutes("11:15"))));
+        assertEquals(List.of("Amaze", "Inspire"), names(index.findFreeRooms(TODAY, minutes("23:00"), minutes("23:59"))));
+        assertEquals(List.of("Amaze", "Beauty"), names(index.findFreeRooms(TODAY.plusDays(1), minutes("10:45"), minutes("11:15"))));
+
+        index.reserve(rooms.get(2), TODAY, minutes("15:00"), minutes("16:00"));
+
+        assertFalse(index.isFree(3L, TODAY, minutes("15:45"), minutes("16:00")));
+        assertTrue(index.isFree(3L, TODAY, minutes("16:00"), minutes("16:15")));
+        assertTrue(index.isFree(3L, TODAY.plusDays(2), minutes("15:45"), minutes("16:00")));
+    }
+
+    @Test
+    public void testSlotsAreHandedOutOncePerDayAndPastDaysAreEvicted() {
+
+        var rooms = List.of(new ConferenceRoom(1L, "Amaze", 3, BookingStatus.AVAILABLE.name()));
+        var index = newIndex(rooms, List.of());
+        var strive = new ConferenceRoom(4L, "Strive", 20, BookingStatus.AVAILABLE.name());
+
+        assertTrue(index.tryReserve(rooms.get(0), TODAY, minutes("15:45"), minutes("16:30")));
+        assertFalse(index.tryReserve(rooms.get(0), TODAY, minutes("16:15"), minutes("16:30")));
+        assertTrue(index.tryReserve(rooms.get(0), TODAY, minutes("15:00"), minutes("15:45")));
+        assertTrue(index.tryReserve(rooms.get(0), TODAY.minusDays(1), minutes("16:15"), minutes("16:30")));
+
+        // rooms that were not loaded are registered on first use
+        assertTrue(index.tryReserve(strive, TODAY, minutes("16:15"), minutes("16:30")));
+        assertEquals(2, index.size());
+        assertFalse(index.isFree(1L, TODAY, minutes("15:45"), minutes("16:00")));
+        assertFalse(index.isFree(4L, TODAY, minutes("16:15"), minutes("16:30")));
+
+        index.release(1L, TODAY, minutes("15:45"), minutes("16:30"));
+        assertTrue(index.tryReserve(rooms.get(0), TODAY, minutes("16:15"), minutes("16:30")));
+
+        assertEquals(2, index.partitionCount());
+        assertEquals(1, index.evictBefore(TODAY));
+        assertEquals(1, index.partitionCount());
+        assertTrue(index.isFree(1L, TODAY.minusDays(1), minutes("16:15"), minutes("16:30")));
+    }
+
+    @Test
+    public void testFreeRoomsMatchBruteForceAtTenThousandRooms() {
+
+        var random = new Random(42);
+        int roomCount = 10_000;
+        int slotsPerDay = 24 * 60 / INTERVAL;
+
+        var rooms = new ArrayList<ConferenceRoom>();
+        for (long id = 1; id <= roomCount; id++)
+            rooms.add(new ConferenceRoom(id, "Room-" + id, 2 + random.nextInt(30), BookingStatus.AVAILABLE.name()));
+
+        var bookings = new ArrayList<BookedSlot>();
+        var occupied = new boolean[roomCount][slotsPerDay];
+        for (int i = 0; i < roomCount * 4; i++) {
+            int room = random.nextInt(roomCount);
+            int fromSlot = random.nextInt(slotsPerDay - 1);
+            int toSlot = fromSlot + 1 + random.nextInt(Math.min(8, slotsPerDay - fromSlot - 1) + 1);
+            toSlot = Math.min(toSlot, slotsPerDay - 1);
+            for (int slot = fromSlot; slot < toSlot; slot++)
+                occupied[room][slot] = true;
+            bookings.add(booking(rooms.get(room), TODAY, format(fromSlot * INTERVAL), format(toSlot * INTERVAL)));
+        }
+
+        var index = newIndex(rooms, bookings);
+
+        int queries = 2_000;
+        int[][] ranges = new int[queries][2];
+        for (int i = 0; i < queries; i++) {
+            int fromSlot = random.nextInt(slotsPerDay - 1);
+            int toSlot = fromSlot + 1 + random.nextInt(Math.min(8, slotsPerDay - fromSlot - 1));
+            ranges[i][0] = fromSlot;
+            ranges[i][1] = toSlot;
+        }
+
+        for (int i = 0; i < 50; i++) {
+            int fromSlot = ranges[i][0];
+            int toSlot = ranges[i][1];
+            int expected = 0;
+            for (int room = 0; room < roomCount; room++) {
+                boolean free = true;
+                for (int slot = fromSlot; slot < toSlot && free; slot++)
+                    free = !occupied[room][slot];
+                if(free)
+                    expected++;
+            }
+            assertEquals(expected, index.findFreeRooms(TODAY, fromSlot * INTERVAL, toSlot * INTERVAL).size());
+        }
+
+        // warm up before timing
+        for (int i = 0; i < queries; i++)
+            index.findFreeRooms(TODAY, ranges[i][0] * INTERVAL, ranges[i][1] * INTERVAL);
+
+        long start = System.nanoTime();
+        long found = 0;
+        for (int i = 0; i < queries; i++)
+            found += index.findFreeRooms(TODAY, ranges[i][0] * INTERVAL, ranges[i][1] * INTERVAL).size();
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("Availability query over %d rooms: %.1f us/query (%d rooms returned on average)%n",
+                roomCount, elapsed / 1_000.0 / queries, found / queries);
+        assertTrue(found > 0);
+    }
+
+    @Test
+    public void testEarliestSlotsMatchBruteForce() {
+
+        var random = new Random(7);
+        int roomCount = 10_000;
+        int slotsPerDay = 24 * 60 / INTERVAL;
+
+        var rooms = new ArrayList<ConferenceRoom>();
+        for (long id = 1; id <= roomCount; id++)
+            rooms.add(new ConferenceRoom(id, "Room-" + id, 2 + random.nextInt(30), BookingStatus.AVAILABLE.name()));
+
+        var occupied = new boolean[roomCount][slotsPerDay];
+        for (int slot = minutes("13:00") / INTERVAL; slot < minutes("13:30") / INTERVAL; slot++)
+            for (int room = 0; room < roomCount; room++)
+                occupied[room][slot] = true;
+
+        var bookings = new ArrayList<BookedSlot>();
+        for (int i = 0; i < roomCount * 6; i++) {
+            int room = random.nextInt(roomCount);
+            int fromSlot = 32 + random.nextInt(40);
+            int toSlot = fromSlot + 1 + random.nextInt(4);
+            for (int slot = fromSlot; slot < toSlot; slot++)
+                occupied[room][slot] = true;
+            bookings.add(booking(rooms.get(room), TODAY, format(fromSlot * INTERVAL), format(toSlot * INTERVAL)));
+        }
+
+        var maintenance = new MaintenanceTiming();
+        maintenance.setStartTime("13:00");
+        maintenance.setEndTime("13:30");
+        var index = newIndex(rooms, bookings, List.of(maintenance));
+
+        for (int query = 0; query < 20; query++) {
+            int numberOfPeople = 2 + random.nextInt(30);
+            int length = 1 + random.nextInt(8);
+            int earliestStart = (32 + random.nextInt(30)) * INTERVAL + random.nextInt(INTERVAL);
+            int latestEnd = Math.min(slotsPerDay - 1, earliestStart / INTERVAL + length + random.nextInt(16)) * INTERVAL;
+
+            var expected = new ArrayList<String>();
+            for (int start = (earliestStart + INTERVAL - 1) / INTERVAL; start + length <= latestEnd / INTERVAL; start++) {
+                for (int room = 0; room < roomCount; room++) {
+                    boolean free = rooms.get(room).getCapacity() >= numberOfPeople;
+                    for (int slot = start; slot < start + length && free; slot++)
+                        free = !occupied[room][slot];
+                    if(free)
+                        expected.add(start + "/" + rooms.get(room).getId());
+                }
+            }
+            // earliest start first, then the smallest room, then the lowest id
+            expected.sort(Comparator.comparingInt((String x) -> Integer.parseInt(x.split("/")[0]))
+                    .thenComparingInt(x -> rooms.get(Integer.parseInt(x.split("/")[1]) - 1).getCapacity())
+                    .thenComparingLong(x -> Long.parseLong(x.split("/")[1])));
+
+            var found = index.findEarliestSlots(TODAY, numberOfPeople, length * INTERVAL, earliestStart, latestEnd, 25).stream()
+                    .map(x -> minutes(x.getStartTime()) / INTERVAL + "/" + x.getRoomId())
+                    .toList();
+            assertEquals(expected.subList(0, Math.min(25, expected.size())), found);
+        }
+    }
+
+    private RoomAvailabilityIndex newIndex(List<ConferenceRoom> rooms, List<BookedSlot> bookings) {
+        return newIndex(rooms, bookings, null);
+    }
+
+    private RoomAvailabilityIndex newIndex(List<ConferenceRoom> rooms, List<BookedSlot> bookings,
+                                           List<MaintenanceTiming> maintenanceTimings) {
+        var booking = new Booking();
+        booking.setInterval(INTERVAL);
+        var properties = new ConferenceRoomProperties();
+        properties.setBooking(booking);
+        properties.setMaintenanceTimings(maintenanceTimings);
+
+        var conferenceRoomRepository = mock(ConferenceRoomRepository.class);
+        var bookingDetailsRepository = mock(BookingDetailsRepository.class);
+        when(conferenceRoomRepository.findCatalog()).thenReturn(rooms);
+        when(bookingDetailsRepository.findBookedSlots(TODAY, TODAY.plusDays(booking.getLookAheadDays())))
+                .thenReturn(bookings);
+
+        var index = new RoomAvailabilityIndex(properties, conferenceRoomRepository, bookingDetailsRepository,
+                new MaintenanceWindows(properties), new AvailabilityCache(properties));
+        index.reload();
+        return index;
+    }
+
+    private static BookedSlot booking(ConferenceRoom conferenceRoom, LocalDate date, String fromTime, String toTime) {
+        return new BookedSlot(conferenceRoom.getId(), date, minutes(fromTime), minutes(toTime));
+    }
+
+    private static List<String> names(List<ConferenceRoom> rooms) {
+        return rooms.stream().map(ConferenceRoom::getName).toList();
+    }
+
+    private static int minutes(String time) {
+        return TimeOfDay.toMinuteOfDay(time);
+    }
+
+    private static String format(int minuteOfDay) {
+        return String.format("%02d:%02d", minuteOfDay / 60, minuteOfDay % 60);
+    }
+}
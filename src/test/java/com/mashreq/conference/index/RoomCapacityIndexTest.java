@@ -0,0 +1,49 @@
+package com.mashreq.conference.index;
+
+import com.mashreq.conference.booking.domain.BookingStatus;
+import com.mashreq.conference.booking.entities.ConferenceRoom;
+import com.mashreq.conference.booking.index.RoomCapacityIndex;
+import com.mashreq.conference.booking.repo.ConferenceRoomRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RoomCapacityIndexTest {
+
+    @Test
+    public void testRoomsFittingStartWithTheSmallestRoom() {
+
+        var amaze = new ConferenceRoom(1L, "Amaze", 3, BookingStatus.AVAILABLE.name());
+        var beauty = new ConferenceRoom(2L, "Beauty", 7, BookingStatus.AVAILABLE.name());
+        var beautyTwo = new ConferenceRoom(5L, "Beauty 2", 7, BookingStatus.BOOKED.name());
+        var strive = new ConferenceRoom(4L, "Strive", 20, BookingStatus.AVAILABLE.name());
+
+        var conferenceRoomRepository = mock(ConferenceRoomRepository.class);
+        when(conferenceRoomRepository.findCatalog()).thenReturn(List.of(strive, beautyTwo, amaze, beauty));
+
+        var index = new RoomCapacityIndex(conferenceRoomRepository);
+        index.reload();
+
+        assertEquals(20, index.maxCapacity());
+        assertEquals(4, index.size());
+        assertEquals(List.of("Beauty", "Beauty 2", "Strive"), names(index.roomsFitting(4)));
+        assertEquals(List.of("Beauty", "Beauty 2", "Strive"), names(index.roomsFitting(7)));
+        assertEquals(List.of("Amaze", "Beauty", "Beauty 2", "Strive"), names(index.roomsFitting(2)));
+        assertTrue(index.roomsFitting(21).isEmpty());
+
+        when(conferenceRoomRepository.findCatalog()).thenReturn(List.of());
+        index.reload();
+
+        assertTrue(index.isEmpty());
+        assertEquals(0, index.maxCapacity());
+    }
+
+    private static List<String> names(List<ConferenceRoom> rooms) {
+        return rooms.stream().map(ConferenceRoom::getName).toList();
+    }
+}
@@ -0,0 +1,123 @@
+package com.mashreq.conference.journal;
+
+import com.mashreq.conference.booking.journal.BookingJournal;
+import com.mashreq.conference.booking.journal.JournalEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BookingJournalTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testConcurrentAppendsAreReplayedInOrder() throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (var journal = BookingJournal.open(directory, SEGMENT_BYTES, 200, x -> {})) {
+            var futures = new ArrayList<Future<Long>>();
+            for (int i = 0; i < 400; i++) {
+                long bookingId = i + 1;
+                futures.add(executor.submit(() -> journal.appendAndAwait(booking(bookingId))));
+            }
+            for (Future<Long> future : futures)
+                assertTrue(future.get() <= journal.durableLsn());
+            assertEquals(400, journal.lastLsn());
+        } finally {
+            executor.shutdown();
+        }
+
+        // 400 entries do not fit in one 4 KB segment
+        assertTrue(segments().size() > 1);
+
+        var replayed = new ArrayList<JournalEvent>();
+        try (var journal = BookingJournal.open(directory, SEGMENT_BYTES, 200, replayed::add)) {
+            assertEquals(400, replayed.size());
+            for (int i = 0; i < replayed.size(); i++)
+                assertEquals(i + 1, replayed.get(i).lsn());
+            assertEquals(400, replayed.stream().map(JournalEvent::bookingId).distinct().count());
+
+            assertEquals(401, journal.appendAndAwait(JournalEvent.released(4)));
+        }
+    }
+
+    @Test
+    public void testTornTailIsDroppedAndOverwritten() throws Exception {
+
+        try (var journal = BookingJournal.open(directory, SEGMENT_BYTES, 0, x -> {})) {
+            journal.appendAndAwait(booking(1));
+            journal.appendAndAwait(booking(2));
+        }
+
+        // A crash halfway through the second entry: its checksum no longer matches
+        long secondEntry = 8 + 39 + "user-1".length();
+        try (var channel = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), secondEntry + 8 + 20);
+        }
+
+        var replayed = new ArrayList<JournalEvent>();
+        try (var journal = BookingJournal.open(directory, SEGMENT_BYTES, 0, replayed::add)) {
+            assertEquals(List.of(1L), replayed.stream().map(JournalEvent::bookingId).toList());
+            assertEquals(2, journal.appendAndAwait(booking(3)));
+        }
+
+        replayed.clear();
+        try (var ignored = BookingJournal.open(directory, SEGMENT_BYTES, 0, replayed::add)) {
+            assertEquals(List.of(1L, 3L), replayed.stream().map(JournalEvent::bookingId).toList());
+        }
+    }
+
+    @Test
+    public void testSnapshotReplacesTheSegmentsItCovers() throws Exception {
+
+        try (var journal = BookingJournal.open(directory, SEGMENT_BYTES, 0, x -> {})) {
+            for (int i = 1; i <= 200; i++)
+                journal.appendAndAwait(booking(i));
+            int before = segments().size();
+
+            journal.writeSnapshot(journal.lastLsn(), sink -> {
+                sink.accept(JournalEvent.room(1, "Amaze", 3, true));
+                sink.accept(booking(200));
+            });
+            journal.appendAndAwait(JournalEvent.released(1));
+
+            assertTrue(segments().size() < before);
+        }
+
+        var replayed = new ArrayList<JournalEvent>();
+        try (var journal = BookingJournal.open(directory, SEGMENT_BYTES, 0, replayed::add)) {
+            assertEquals(List.of(JournalEvent.Type.ROOM_BOOKED, JournalEvent.Type.BOOKED, JournalEvent.Type.RELEASED),
+                    replayed.stream().map(JournalEvent::type).toList());
+            assertEquals("Amaze", replayed.get(0).name());
+            assertEquals(200, journal.getSnapshotLsn());
+            assertEquals(201, journal.lastLsn());
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(x -> x.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+
+    private static JournalEvent booking(long bookingId) {
+        return JournalEvent.booked(bookingId, 1, 20_000, 600, 615, 2, "user-" + bookingId);
+    }
+}
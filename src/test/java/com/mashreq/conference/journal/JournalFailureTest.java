@@ -0,0 +1,55 @@
+package com.mashreq.conference.journal;
+
+import com.mashreq.conference.booking.ConferenceRoomBookingApplication;
+import com.mashreq.conference.booking.domain.ConfRoomBookingRequestDto;
+import com.mashreq.conference.booking.journal.JournalPersistence;
+import com.mashreq.conference.booking.service.ConferenceBookingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * A booking is only answered once it is durable in the journal, so a journal that cannot flush has to fail the
+ * request instead of reporting the room as booked.
+ */
+@SpringBootTest(classes = ConferenceRoomBookingApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:journalfailuredb",
+        "conference-room.expiry.poll-interval-ms=3600000"})
+public class JournalFailureTest {
+
+    private static final String DATE = LocalDate.now().plusDays(1).toString();
+
+    @SpyBean
+    JournalPersistence journalPersistence;
+
+    @Autowired
+    ConferenceBookingService conferenceBookingService;
+
+    @Test
+    public void testBookingFailsWhenTheJournalCannotFlush() {
+
+        doThrow(new IllegalStateException("Booking journal flush failed")).when(journalPersistence).booked(anyList());
+
+        assertThrows(IllegalStateException.class, () -> conferenceBookingService.bookRoom(request("10:00", "10:15")));
+        assertThrows(IllegalStateException.class, () -> conferenceBookingService.bookRooms(
+                List.of(request("11:00", "11:15"), request("11:15", "11:30"))));
+    }
+
+    private static ConfRoomBookingRequestDto request(String startTime, String endTime) {
+        return ConfRoomBookingRequestDto.builder()
+                .userId("journal")
+                .date(DATE)
+                .startTime(startTime)
+                .endTime(endTime)
+                .numberOfPeople(2)
+                .build();
+    }
+}
@@ -0,0 +1,88 @@
+package com.mashreq.conference.journal;
+
+import com.mashreq.conference.booking.ConferenceRoomBookingApplication;
+import com.mashreq.conference.booking.domain.ConfRoomBookingRequestDto;
+import com.mashreq.conference.booking.entities.BookingDetails;
+import com.mashreq.conference.booking.journal.JournalPersistence;
+import com.mashreq.conference.booking.service.ConferenceBookingService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Restarts the application on a fresh in-memory database and expects the journal directory to bring the bookings
+ * and room statuses back. Replay of the raw journal, torn tails and pruning are covered by BookingJournalTest.
+ */
+public class JournalRecoveryTest {
+
+    private static final String DATE = LocalDate.now().plusDays(1).toString();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testBookingsSurviveARestart() throws Exception {
+
+        long first;
+        try (var context = start("journal-a")) {
+            first = book(context, "10:00", "10:15");
+        }
+
+        long second;
+        try (var context = start("journal-b")) {
+            var jdbcTemplate = context.getBean(JdbcTemplate.class);
+            assertEquals("journal", jdbcTemplate.queryForObject("SELECT booked_by FROM BOOKING_DETAILS WHERE id = ?",
+                    String.class, first));
+            assertEquals("BOOKED", jdbcTemplate.queryForObject("SELECT status FROM CONFERENCE_ROOM WHERE id = 1",
+                    String.class));
+            assertEquals("AVAILABLE", jdbcTemplate.queryForObject("SELECT status FROM CONFERENCE_ROOM WHERE id = 2",
+                    String.class));
+
+            // The recovered booking still blocks its room and new ids do not collide with it
+            second = book(context, "10:00", "10:15");
+            assertTrue(second > first);
+            assertEquals(2, jdbcTemplate.queryForObject("SELECT conference_room_id FROM BOOKING_DETAILS WHERE id = ?",
+                    Integer.class, second));
+            assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BOOKING_DETAILS", Integer.class));
+        }
+
+        try (var context = start("journal-c")) {
+            var jdbcTemplate = context.getBean(JdbcTemplate.class);
+            assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BOOKING_DETAILS WHERE id IN (?, ?)",
+                    Integer.class, first, second));
+        }
+    }
+
+    private ConfigurableApplicationContext start(String database) {
+        return new SpringApplicationBuilder(ConferenceRoomBookingApplication.class)
+                .web(WebApplicationType.NONE)
+                // command line arguments, default properties would lose to application.yaml
+                .run("--spring.datasource.url=jdbc:h2:mem:" + database,
+                        "--conference-room.expiry.poll-interval-ms=3600000",
+                        "--conference-room.journal.enabled=true",
+                        "--conference-room.journal.directory=" + directory,
+                        "--conference-room.journal.segment-bytes=65536",
+                        "--conference-room.journal.snapshot-interval-ms=3600000");
+    }
+
+    private static long book(ConfigurableApplicationContext context, String startTime, String endTime) {
+        assertTrue(context.getBean(JournalPersistence.class).isEnabled());
+        var response = context.getBean(ConferenceBookingService.class).bookRoom(ConfRoomBookingRequestDto.builder()
+                .userId("journal")
+                .date(DATE)
+                .startTime(startTime)
+                .endTime(endTime)
+                .numberOfPeople(2)
+                .build());
+        return ((BookingDetails) response.getResponse()).getId();
+    }
+}
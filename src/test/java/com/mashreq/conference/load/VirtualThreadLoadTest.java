@@ -0,0 +1,172 @@
+package com.mashreq.conference.load;
+
+import com.mashreq.conference.booking.ConferenceRoomBookingApplication;
+import com.mashreq.conference.booking.index.RoomAvailabilityIndex;
+import com.mashreq.conference.booking.index.RoomCapacityIndex;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Ramps closed-loop clients against POST /conference/book with platform Tomcat threads and with virtual
+ * threads, on the same Hikari pool size, and reports the highest concurrency that still meets the p99 target
+ * without errors. Tagged {@code load}, so it only runs with {@code mvn -Pload-test test}.
+ */
+@Tag("load")
+public class VirtualThreadLoadTest {
+
+    private static final int ROOMS = 50_000;
+    private static final int[] CONCURRENCY = {16, 32, 64, 128, 256, 512, 1024};
+    private static final Duration LEVEL_DURATION = Duration.ofSeconds(3);
+    private static final long P99_TARGET_MILLIS = 250;
+
+    private static final Map<String, List<LevelResult>> results = new LinkedHashMap<>();
+
+    @Test
+    public void testPlatformThreads() throws Exception {
+        results.put("platform", runRamp(false));
+    }
+
+    @Test
+    public void testVirtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need JDK 21, build with -Pvirtual-threads");
+        results.put("virtual", runRamp(true));
+    }
+
+    @AfterAll
+    public static void report() {
+        results.forEach((mode, levels) -> {
+            System.out.printf("%n%s threads, Hikari pool 10, p99 target %d ms%n", mode, P99_TARGET_MILLIS);
+            System.out.printf("%8s %10s %10s %10s %8s%n", "clients", "req/s", "p50 ms", "p99 ms", "errors");
+            int sustainable = 0;
+            for (LevelResult level : levels) {
+                System.out.printf("%8d %10.0f %10.1f %10.1f %8d%n", level.concurrency(), level.throughput(),
+                        level.p50Millis(), level.p99Millis(), level.errors());
+                if(level.errors() == 0 && level.p99Millis() <= P99_TARGET_MILLIS)
+                    sustainable = level.concurrency();
+            }
+            System.out.printf("max sustainable concurrency: %d%n", sustainable);
+        });
+    }
+
+    private List<LevelResult> runRamp(boolean virtualThreads) throws Exception {
+        var mode = virtualThreads ? "virtual" : "platform";
+        try (var context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(ConferenceRoomBookingApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:load-" + mode,
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "conference-room.expiry.poll-interval-ms=3600000",
+                        // every client books as the same user; this measures the thread model, not admission
+                        "conference-room.admission.enabled=false",
+                        "logging.level.root=WARN")
+                .run()) {
+
+            var jdbcTemplate = context.getBean(JdbcTemplate.class);
+            var rows = new ArrayList<Object[]>(ROOMS);
+            for (int i = 0; i < ROOMS; i++)
+                rows.add(new Object[]{"Load-" + i, 2 + i % 18});
+            jdbcTemplate.batchUpdate("INSERT INTO CONFERENCE_ROOM(name, capacity) VALUES (?, ?)", rows);
+
+            var body = String.format("{\"userId\":\"load\",\"date\":\"%s\",\"startTime\":\"10:00\",\"endTime\":\"10:15\",\"numberOfPeople\":2}",
+                    LocalDate.now().plusDays(1));
+            var request = HttpRequest.newBuilder(URI.create("http://localhost:" + context.getWebServer().getPort() + "/conference/book"))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(5))
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+
+            var levels = new ArrayList<LevelResult>();
+            for (int concurrency : CONCURRENCY) {
+                jdbcTemplate.update("DELETE FROM SLOT_CLAIM");
+                jdbcTemplate.update("DELETE FROM BOOKING_DETAILS");
+                jdbcTemplate.update("UPDATE CONFERENCE_ROOM SET status = 'AVAILABLE'");
+                context.getBean(RoomCapacityIndex.class).reload();
+                context.getBean(RoomAvailabilityIndex.class).reload();
+
+                var level = runLevel(request, concurrency);
+                levels.add(level);
+                assertTrue(level.requests() < ROOMS, "catalog ran out of rooms, the level measured rejections");
+            }
+            return levels;
+        }
+    }
+
+    private static LevelResult runLevel(HttpRequest request, int concurrency) throws Exception {
+        var httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(Math.min(concurrency, 64)))
+                .build();
+        var executor = Executors.newFixedThreadPool(concurrency);
+        var errors = new AtomicInteger();
+        var startGate = new CountDownLatch(1);
+        var futures = new ArrayList<Future<long[]>>(concurrency);
+
+        for (int client = 0; client < concurrency; client++) {
+            futures.add(executor.submit(() -> {
+                var latencies = new long[1024];
+                int count = 0;
+                startGate.await();
+                long deadline = System.nanoTime() + LEVEL_DURATION.toNanos();
+                while(System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        if(httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200)
+                            errors.incrementAndGet();
+                    } catch (Exception ex) {
+                        errors.incrementAndGet();
+                    }
+                    if(count == latencies.length)
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    latencies[count++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+
+        long start = System.nanoTime();
+        startGate.countDown();
+        var all = new ArrayList<long[]>(concurrency);
+        for (Future<long[]> future : futures)
+            all.add(future.get());
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        long[] latencies = all.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new LevelResult(concurrency, latencies.length, latencies.length / (elapsed / 1_000_000_000.0),
+                percentile(latencies, 0.50), percentile(latencies, 0.99), errors.get());
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        if(sortedNanos.length == 0)
+            return 0;
+        int rank = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, rank)] / 1_000_000.0;
+    }
+
+    private record LevelResult(int concurrency, int requests, double throughput, double p50Millis, double p99Millis,
+                               int errors) {
+    }
+}
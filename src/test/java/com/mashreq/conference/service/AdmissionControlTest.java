@@ -0,0 +1,98 @@
+package com.mashreq.conference.service;
+
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.exception.ConferenceRoomBookingException;
+import com.mashreq.conference.booking.exception.TooManyRequestsException;
+import com.mashreq.conference.booking.service.AdmissionControl;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdmissionControlTest {
+
+    @Test
+    public void testUserBucketAllowsTheBurstThenSheds() throws Exception {
+
+        var properties = new ConferenceRoomProperties();
+        // one token a minute, so nothing refills while the test runs
+        properties.getAdmission().setUserPermitsPerSecond(1.0 / 60);
+        properties.getAdmission().setUserBurst(5);
+        var admissionControl = new AdmissionControl(properties);
+
+        var admitted = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < 20; i++)
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        admissionControl.admitUser("flooder");
+                        admitted.incrementAndGet();
+                    } catch (TooManyRequestsException ex) {
+                        assertTrue(ex.getRetryAfterSeconds() >= 59 && ex.getRetryAfterSeconds() <= 61);
+                    }
+                    return null;
+                }));
+            start.countDown();
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(5, admitted.get());
+        assertEquals(15, admissionControl.getShedByUserRate());
+
+        // other users keep their own budget
+        admissionControl.admitUser("someone-else");
+    }
+
+    @Test
+    public void testBatchTakesEveryUsersPermitsOrNone() {
+
+        var properties = new ConferenceRoomProperties();
+        properties.getAdmission().setUserPermitsPerSecond(1.0 / 60);
+        properties.getAdmission().setUserBurst(5);
+        var admissionControl = new AdmissionControl(properties);
+
+        admissionControl.admitUser("busy", 4);
+        var permits = new LinkedHashMap<String, Integer>();
+        permits.put("idle", 3);
+        permits.put("busy", 2);
+        assertThrows(TooManyRequestsException.class, () -> admissionControl.admitUsers(permits));
+
+        // the rejected batch handed idle's three permits back
+        admissionControl.admitUser("idle", 5);
+        assertThrows(TooManyRequestsException.class, () -> admissionControl.admitUser("idle"));
+        assertThrows(ConferenceRoomBookingException.class, () -> admissionControl.admitUser("bulk", 6));
+    }
+
+    @Test
+    public void testConcurrencyLimitShedsInsteadOfQueueing() {
+
+        var properties = new ConferenceRoomProperties();
+        properties.getAdmission().setMaxConcurrentBookings(2);
+        var admissionControl = new AdmissionControl(properties);
+
+        admissionControl.enter();
+        admissionControl.enter();
+        var ex = assertThrows(TooManyRequestsException.class, admissionControl::enter);
+        assertEquals(1, ex.getRetryAfterSeconds());
+        assertEquals(2, admissionControl.inFlightCount());
+
+        admissionControl.exit();
+        admissionControl.enter();
+        assertEquals(1, admissionControl.getShedByConcurrency());
+    }
+}
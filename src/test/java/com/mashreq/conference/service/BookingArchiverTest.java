@@ -0,0 +1,77 @@
+package com.mashreq.conference.service;
+
+import com.mashreq.conference.booking.ConferenceRoomBookingApplication;
+import com.mashreq.conference.booking.index.RoomAvailabilityIndex;
+import com.mashreq.conference.booking.service.BookingArchiver;
+import com.mashreq.conference.booking.service.OccupancyAnalytics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(classes = ConferenceRoomBookingApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:archivedb",
+        "conference-room.expiry.poll-interval-ms=3600000"})
+public class BookingArchiverTest {
+
+    @Autowired
+    BookingArchiver bookingArchiver;
+
+    @Autowired
+    RoomAvailabilityIndex roomAvailabilityIndex;
+
+    @Autowired
+    OccupancyAnalytics occupancyAnalytics;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testPastBookingsMoveToTheArchive() {
+
+        var today = LocalDate.now();
+        insertBooking(1_000_001L, today.minusDays(30));
+        insertBooking(1_000_002L, today.minusDays(1));
+        insertBooking(1_000_003L, today);
+        insertBooking(1_000_004L, today.plusDays(1));
+
+        var room = roomAvailabilityIndex.findFreeRooms(today, 600, 615).get(0);
+        roomAvailabilityIndex.reserve(room, today.minusDays(1), 600, 615);
+
+        bookingArchiver.archivePastBookings();
+
+        assertEquals(2, count("SELECT COUNT(*) FROM BOOKING_DETAILS"));
+        assertEquals(2, count("SELECT COUNT(*) FROM BOOKING_DETAILS_ARCHIVE WHERE id IN (1000001, 1000002)"));
+        assertEquals(0, count("SELECT COUNT(*) FROM BOOKING_DETAILS WHERE booking_date < CURRENT_DATE"));
+        assertEquals(0, roomAvailabilityIndex.evictBefore(today));
+    }
+
+    @Test
+    public void testOccupancyCountersKeepArchivedBookingsAcrossARestart() {
+
+        insertBooking(2_000_001L, LocalDate.now().minusDays(2), "archive-restart");
+
+        // What startup does: the past booking is archived before the counters are seeded from both tables
+        bookingArchiver.afterSingletonsInstantiated();
+
+        assertEquals(1, count("SELECT COUNT(*) FROM BOOKING_DETAILS_ARCHIVE WHERE id = 2000001"));
+        assertEquals(1, occupancyAnalytics.report(null, "archive-restart").getUser().getBookings());
+    }
+
+    private void insertBooking(long id, LocalDate date) {
+        insertBooking(id, date, "archive");
+    }
+
+    private void insertBooking(long id, LocalDate date, String bookedBy) {
+        jdbcTemplate.update("INSERT INTO BOOKING_DETAILS(id, booked_by, from_minute, to_minute, number_of_people, " +
+                "booking_date, conference_room_id) VALUES (?, ?, 600, 615, 2, ?, 1)", id, bookedBy, date);
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+}
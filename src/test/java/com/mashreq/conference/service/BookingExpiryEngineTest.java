@@ -0,0 +1,125 @@
+package com.mashreq.conference.service;
+
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.domain.Booking;
+import com.mashreq.conference.booking.domain.BookingStatus;
+import com.mashreq.conference.booking.journal.JournalPersistence;
+import com.mashreq.conference.booking.repo.BookingDetailsRepository;
+import com.mashreq.conference.booking.repo.ConferenceRoomRepository;
+import com.mashreq.conference.booking.service.BookingExpiryEngine;
+import com.mashreq.conference.booking.service.OccupancyAnalytics;
+import com.mashreq.conference.booking.service.RoomEventBroadcaster;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BookingExpiryEngineTest {
+
+    @Test
+    public void testDueBookingsAreReleasedInOneBatch() {
+
+        var conferenceRoomRepository = mock(ConferenceRoomRepository.class);
+        var engine = newEngine(conferenceRoomRepository);
+
+        when(conferenceRoomRepository.updateStatusByIdsUnlessBookedAfter(eq(BookingStatus.AVAILABLE.name()),
+                anyCollection(), any(), anyInt()))
+                .thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(1)).size());
+
+        // 00:00 today has always passed, 23:59 has not (outside the last minute of the day)
+        var today = LocalDate.now();
+        engine.schedule(1L, today.minusDays(1), 23 * 60);
+        engine.schedule(2L, today, 0);
+        engine.schedule(2L, today, 0);
+        engine.schedule(3L, today, 23 * 60 + 59);
+
+        engine.releaseExpiredRooms();
+
+        verify(conferenceRoomRepository, times(1)).updateStatusByIdsUnlessBookedAfter(eq(BookingStatus.AVAILABLE.name()),
+                eq(List.of(1L, 2L)), eq(today), anyInt());
+        assertEquals(2, engine.getLastBatchSize());
+        assertEquals(1, engine.getBatches());
+        assertEquals(1, engine.pendingCount());
+        assertEquals(1, engine.bookedCount());
+    }
+
+    @Test
+    public void testRoomStaysBookedUntilItsLastBookingEnds() {
+
+        var conferenceRoomRepository = mock(ConferenceRoomRepository.class);
+        var engine = newEngine(conferenceRoomRepository);
+
+        var today = LocalDate.now();
+        engine.schedule(1L, today, 0);
+        engine.schedule(1L, today.plusDays(1), 10 * 60);
+
+        engine.releaseExpiredRooms();
+
+        verify(conferenceRoomRepository, never()).updateStatusByIdsUnlessBookedAfter(eq(BookingStatus.AVAILABLE.name()),
+                anyCollection(), any(), anyInt());
+        assertEquals(1, engine.pendingCount());
+        assertEquals(1, engine.bookedCount());
+    }
+
+    @Test
+    public void testRoomBookedDuringTheReleaseIsNotAnnouncedAsReleased() {
+
+        var conferenceRoomRepository = mock(ConferenceRoomRepository.class);
+        var journalPersistence = mock(JournalPersistence.class);
+        var engine = newEngine(conferenceRoomRepository, journalPersistence);
+
+        var today = LocalDate.now();
+        engine.schedule(1L, today, 0);
+        engine.schedule(2L, today, 0);
+        // Room 2 is booked again while the update runs, which leaves it BOOKED in the database
+        when(conferenceRoomRepository.updateStatusByIdsUnlessBookedAfter(eq(BookingStatus.AVAILABLE.name()),
+                anyCollection(), any(), anyInt()))
+                .thenAnswer(invocation -> {
+                    engine.schedule(2L, today.plusDays(1), 10 * 60);
+                    return 1;
+                });
+
+        engine.releaseExpiredRooms();
+
+        verify(journalPersistence).released(Set.of(1L));
+        assertEquals(Set.of(2L), engine.bookedRoomIds());
+    }
+
+    @Test
+    public void testNothingDueSkipsTheDatabase() {
+
+        var conferenceRoomRepository = mock(ConferenceRoomRepository.class);
+        var engine = newEngine(conferenceRoomRepository);
+
+        engine.releaseExpiredRooms();
+
+        verify(conferenceRoomRepository, never()).updateStatusByIdsUnlessBookedAfter(eq(BookingStatus.AVAILABLE.name()),
+                anyCollection(), any(), anyInt());
+        assertEquals(0, engine.getBatches());
+    }
+
+    private static BookingExpiryEngine newEngine(ConferenceRoomRepository conferenceRoomRepository) {
+        return newEngine(conferenceRoomRepository, mock(JournalPersistence.class));
+    }
+
+    private static BookingExpiryEngine newEngine(ConferenceRoomRepository conferenceRoomRepository,
+                                                 JournalPersistence journalPersistence) {
+        var properties = new ConferenceRoomProperties();
+        properties.setBooking(new Booking());
+        return new BookingExpiryEngine(properties, conferenceRoomRepository, mock(BookingDetailsRepository.class),
+                mock(RoomEventBroadcaster.class), mock(OccupancyAnalytics.class), journalPersistence);
+    }
+}
@@ -0,0 +1,112 @@
+package com.mashreq.conference.service;
+
+import com.mashreq.conference.booking.ConferenceRoomBookingApplication;
+import com.mashreq.conference.booking.domain.ConfRoomBookingRequestDto;
+import com.mashreq.conference.booking.exception.ConferenceRoomBookingException;
+import com.mashreq.conference.booking.index.RoomAvailabilityIndex;
+import com.mashreq.conference.booking.index.RoomCapacityIndex;
+import com.mashreq.conference.booking.service.ConferenceBookingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(classes = ConferenceRoomBookingApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:stressdb",
+        "conference-room.expiry.poll-interval-ms=3600000"})
+public class ConcurrentBookingStressTest {
+
+    private static final int ROOMS = 500;
+    private static final int ATTEMPTS = 750;
+
+    @Autowired
+    ConferenceBookingService conferenceBookingService;
+
+    @Autowired
+    RoomCapacityIndex roomCapacityIndex;
+
+    @Autowired
+    RoomAvailabilityIndex roomAvailabilityIndex;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testConcurrentBookingsNeverShareARoom() throws Exception {
+
+        int existingRooms = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM CONFERENCE_ROOM", Integer.class);
+        var rows = new ArrayList<Object[]>();
+        for (int i = existingRooms; i < ROOMS; i++)
+            rows.add(new Object[]{"Stress-" + i, 2 + i % 18});
+        jdbcTemplate.batchUpdate("INSERT INTO CONFERENCE_ROOM(name, capacity) VALUES (?, ?)", rows);
+
+        // Tomorrow, so the slot is never in the past whatever time the test runs
+        var tomorrow = LocalDate.now().plusDays(1).toString();
+
+        for (int threads = 1; threads <= 64; threads *= 2) {
+            resetBookings();
+
+            var booked = new AtomicInteger();
+            var rejected = new AtomicInteger();
+            var startGate = new CountDownLatch(1);
+            var executor = Executors.newFixedThreadPool(threads);
+            var futures = new ArrayList<Future<?>>();
+
+            for (int i = 0; i < ATTEMPTS; i++) {
+                var request = ConfRoomBookingRequestDto.builder()
+                        .userId("user-" + i)
+                        .date(tomorrow)
+                        .startTime("23:00")
+                        .endTime("23:45")
+                        .numberOfPeople(2)
+                        .build();
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    try {
+                        conferenceBookingService.bookRoom(request);
+                        booked.incrementAndGet();
+                    } catch (ConferenceRoomBookingException ex) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+
+            long start = System.nanoTime();
+            startGate.countDown();
+            for (Future<?> future : futures)
+                future.get();
+            long elapsed = System.nanoTime() - start;
+            executor.shutdown();
+
+            int doubleBooked = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT conference_room_id " +
+                    "FROM BOOKING_DETAILS GROUP BY conference_room_id, booking_date HAVING COUNT(*) > 1)", Integer.class);
+            int bookingRows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BOOKING_DETAILS", Integer.class);
+
+            System.out.printf("%2d threads: %d booked, %d rejected, %.0f attempts/s%n",
+                    threads, booked.get(), rejected.get(), ATTEMPTS / (elapsed / 1_000_000_000.0));
+
+            assertEquals(0, doubleBooked);
+            assertEquals(ROOMS, booked.get());
+            assertEquals(ROOMS, bookingRows);
+            assertEquals(ATTEMPTS - ROOMS, rejected.get());
+        }
+    }
+
+    private void resetBookings() {
+        jdbcTemplate.update("DELETE FROM SLOT_CLAIM");
+        jdbcTemplate.update("DELETE FROM BOOKING_DETAILS");
+        jdbcTemplate.update("UPDATE CONFERENCE_ROOM SET status = 'AVAILABLE'");
+        roomCapacityIndex.reload();
+        roomAvailabilityIndex.reload();
+    }
+}
@@ -0,0 +1,87 @@
+package com.mashreq.conference.service;
+
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.domain.ConfRoomBookingResponseDto;
+import com.mashreq.conference.booking.exception.ConferenceRoomBookingException;
+import com.mashreq.conference.booking.service.IdempotentRequests;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IdempotentRequestsTest {
+
+    @Test
+    public void testConcurrentDuplicatesShareOneExecution() throws Exception {
+
+        var idempotentRequests = new IdempotentRequests(new ConferenceRoomProperties());
+        var executions = new AtomicInteger();
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var response = ConfRoomBookingResponseDto.builder().status("Conference Room Booked Successfully").build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            var futures = new ArrayList<Future<ConfRoomBookingResponseDto>>();
+            futures.add(executor.submit(() -> idempotentRequests.execute("key", "request", () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                await(release);
+                return response;
+            })));
+            started.await();
+            for (int i = 0; i < 7; i++)
+                futures.add(executor.submit(() -> idempotentRequests.execute("key", "request", () -> {
+                    executions.incrementAndGet();
+                    return ConfRoomBookingResponseDto.builder().build();
+                })));
+
+            // the duplicates are parked on the first execution until it finishes
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while(idempotentRequests.getReplays() < 7 && System.nanoTime() < deadline)
+                Thread.sleep(1);
+            release.countDown();
+
+            for (Future<ConfRoomBookingResponseDto> future : futures)
+                assertSame(response, future.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, executions.get());
+        assertEquals(7, idempotentRequests.getReplays());
+        assertThrows(ConferenceRoomBookingException.class,
+                () -> idempotentRequests.execute("key", "another request", () -> response));
+    }
+
+    @Test
+    public void testFailedRequestIsForgotten() {
+
+        var idempotentRequests = new IdempotentRequests(new ConferenceRoomProperties());
+
+        assertThrows(ConferenceRoomBookingException.class, () -> idempotentRequests.execute("key", "request", () -> {
+            throw new ConferenceRoomBookingException("There are no avaialable rooms at the moment");
+        }));
+
+        var response = ConfRoomBookingResponseDto.builder().build();
+        assertSame(response, idempotentRequests.execute("key", "request", () -> response));
+        assertEquals(0, idempotentRequests.getReplays());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.mashreq.conference.service;
+
+import com.mashreq.conference.booking.ConferenceRoomBookingApplication;
+import com.mashreq.conference.booking.domain.ConfRoomBookingRequestDto;
+import com.mashreq.conference.booking.exception.ConferenceRoomBookingException;
+import com.mashreq.conference.booking.index.RoomAvailabilityIndex;
+import com.mashreq.conference.booking.index.RoomCapacityIndex;
+import com.mashreq.conference.booking.service.ConferenceBookingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Two application contexts stand in for two replicas: each has its own in-memory indexes and connection pool,
+ * and both use the same file-based H2 database. Neither index sees the other instance's bookings, so only the
+ * slot claims keep a room from being booked twice.
+ */
+public class MultiInstanceBookingTest {
+
+    private static final String URL = "jdbc:h2:file:" + Path.of("target", "multi-instance", "bookingdb").toAbsolutePath();
+    private static final int ROOMS = 300;
+    private static final int ATTEMPTS = 600;
+    private static final int THREADS = 16;
+
+    @Test
+    public void testInstancesSharingADatabaseNeverShareASlot() throws Exception {
+
+        try (var first = start(true); var second = start(false)) {
+
+            var jdbcTemplate = first.getBean(JdbcTemplate.class);
+            int existingRooms = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM CONFERENCE_ROOM", Integer.class);
+            var rows = new ArrayList<Object[]>();
+            for (int i = existingRooms; i < ROOMS; i++)
+                rows.add(new Object[]{"Replica-" + i, 2 + i % 18});
+            jdbcTemplate.batchUpdate("INSERT INTO CONFERENCE_ROOM(name, capacity) VALUES (?, ?)", rows);
+            for (var context : List.of(first, second)) {
+                context.getBean(RoomCapacityIndex.class).reload();
+                context.getBean(RoomAvailabilityIndex.class).reload();
+            }
+
+            var services = List.of(first.getBean(ConferenceBookingService.class), second.getBean(ConferenceBookingService.class));
+            var tomorrow = LocalDate.now().plusDays(1).toString();
+            var booked = new AtomicInteger();
+            var rejected = new AtomicInteger();
+            var startGate = new CountDownLatch(1);
+            var executor = Executors.newFixedThreadPool(THREADS);
+            var futures = new ArrayList<Future<?>>();
+
+            // Every request wants the same slot, alternating between the instances
+            for (int i = 0; i < ATTEMPTS; i++) {
+                var service = services.get(i % 2);
+                var request = ConfRoomBookingRequestDto.builder()
+                        .userId("replica-" + i)
+                        .date(tomorrow)
+                        .startTime("23:00")
+                        .endTime("23:45")
+                        .numberOfPeople(2)
+                        .build();
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    try {
+                        service.bookRoom(request);
+                        booked.incrementAndGet();
+                    } catch (ConferenceRoomBookingException ex) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+
+            long start = System.nanoTime();
+            startGate.countDown();
+            for (Future<?> future : futures)
+                future.get();
+            long elapsed = System.nanoTime() - start;
+            executor.shutdown();
+
+            int doubleBooked = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT conference_room_id " +
+                    "FROM BOOKING_DETAILS GROUP BY conference_room_id, booking_date HAVING COUNT(*) > 1)", Integer.class);
+            int bookingRows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BOOKING_DETAILS", Integer.class);
+            double conflicts = conflicts(first) + conflicts(second);
+
+            System.out.printf("2 instances, %d threads: %d booked, %d rejected, %.0f slot claim conflicts " +
+                            "(%.2f per attempt), %.0f attempts/s%n", THREADS, booked.get(), rejected.get(), conflicts,
+                    conflicts / ATTEMPTS, ATTEMPTS / (elapsed / 1_000_000_000.0));
+
+            assertEquals(0, doubleBooked);
+            assertEquals(ROOMS, booked.get());
+            assertEquals(ROOMS, bookingRows);
+            assertEquals(ATTEMPTS - ROOMS, rejected.get());
+        }
+    }
+
+    // Only the first instance runs schema.sql and data.sql; the second joins the database as it finds it
+    private static ConfigurableApplicationContext start(boolean initializeDatabase) {
+        return new SpringApplicationBuilder(ConferenceRoomBookingApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + URL,
+                        "--spring.sql.init.mode=" + (initializeDatabase ? "always" : "never"),
+                        "--spring.jpa.show-sql=false",
+                        "--conference-room.expiry.poll-interval-ms=3600000");
+    }
+
+    private static double conflicts(ConfigurableApplicationContext context) {
+        return context.getBean(MeterRegistry.class).counter("conference.slot.claim.conflicts").count();
+    }
+}
@@ -0,0 +1,140 @@
+package com.mashreq.conference.service;
+
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.domain.Booking;
+import com.mashreq.conference.booking.domain.BookingStatus;
+import com.mashreq.conference.booking.domain.BookingUsage;
+import com.mashreq.conference.booking.entities.ConferenceRoom;
+import com.mashreq.conference.booking.repo.BookingDetailsRepository;
+import com.mashreq.conference.booking.repo.ConferenceRoomRepository;
+import com.mashreq.conference.booking.service.OccupancyAnalytics;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OccupancyAnalyticsTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Test
+    public void testCountersFollowBookingsAndExpiry() {
+
+        var amaze = new ConferenceRoom(1L, "Amaze", 3, BookingStatus.AVAILABLE.name());
+        var strive = new ConferenceRoom(4L, "Strive", 20, BookingStatus.AVAILABLE.name());
+
+        var booking = new Booking();
+        booking.setInterval(15);
+        var properties = new ConferenceRoomProperties();
+        properties.setBooking(booking);
+
+        var conferenceRoomRepository = mock(ConferenceRoomRepository.class);
+        var bookingDetailsRepository = mock(BookingDetailsRepository.class);
+        when(conferenceRoomRepository.findCatalog()).thenReturn(List.of(amaze, strive));
+        when(bookingDetailsRepository.findBookingUsage()).thenReturn(List.of(
+                new BookingUsage(1L, "alice", TODAY.minusDays(1), 600, 660, 3)));
+        when(bookingDetailsRepository.findUserBookingUsage("alice")).thenReturn(List.of(
+                new BookingUsage(1L, "alice", TODAY.minusDays(1), 600, 660, 3)));
+
+        var analytics = new OccupancyAnalytics(properties, conferenceRoomRepository, bookingDetailsRepository);
+        analytics.reload();
+        // loads alice, whose bookings below then update her cached totals
+        assertEquals(1, analytics.report(null, "alice").getUser().getBookings());
+
+        analytics.recordBooking(strive, "bob", TODAY, 615, 645, 5);
+        analytics.recordBooking(strive, "alice", TODAY, 840, 900, 10);
+
+        var report = analytics.report(4L, "alice");
+
+        assertEquals(2, report.getTrackedDays());
+        assertEquals(3, report.getOverall().getBookings());
+        assertEquals(150, report.getOverall().getBookedMinutes());
+        assertEquals(150.0 / (2 * 24 * 60 * 2), report.getOverall().getOccupancy(), 1e-9);
+        assertEquals(List.of(10, 14), report.getPeakHours());
+        assertEquals(60 + 30, report.getHours().get(10).getBookedMinutes());
+
+        assertEquals("1-4", report.getCapacityBuckets().get(0).getLabel());
+        assertEquals(0.0, report.getCapacityBuckets().get(0).getWaste(), 1e-9);
+        assertEquals(1 - (30.0 * 5 + 60 * 10) / (90 * 20), report.getCapacityBuckets().get(3).getWaste(), 1e-9);
+        assertNull(report.getCapacityBuckets().get(1).getWaste());
+
+        assertEquals(2, report.getRoom().getBookings());
+        assertEquals(2, report.getRoom().getUpcomingBookings());
+        assertEquals(2, report.getUser().getBookings());
+        assertEquals(120, report.getUser().getBookedMinutes());
+
+        analytics.bookingEnded(4L);
+        assertEquals(1, analytics.report(4L, null).getRoom().getUpcomingBookings());
+        assertNull(analytics.report(null, "nobody").getUser());
+    }
+
+    @Test
+    public void testArchivedBookingsAreCountedAfterARestart() {
+
+        var amaze = new ConferenceRoom(1L, "Amaze", 3, BookingStatus.AVAILABLE.name());
+
+        var booking = new Booking();
+        booking.setInterval(15);
+        var properties = new ConferenceRoomProperties();
+        properties.setBooking(booking);
+
+        var conferenceRoomRepository = mock(ConferenceRoomRepository.class);
+        var bookingDetailsRepository = mock(BookingDetailsRepository.class);
+        when(conferenceRoomRepository.findCatalog()).thenReturn(List.of(amaze));
+        when(bookingDetailsRepository.findArchivedBookingUsage()).thenReturn(List.of(
+                new BookingUsage(1L, "alice", TODAY.minusDays(30), 600, 660, 3)));
+        when(bookingDetailsRepository.findBookingUsage()).thenReturn(List.of(
+                new BookingUsage(1L, "alice", TODAY, 840, 870, 2)));
+        when(bookingDetailsRepository.findUserBookingUsage("alice")).thenReturn(List.of(
+                new BookingUsage(1L, "alice", TODAY, 840, 870, 2),
+                new BookingUsage(1L, "alice", TODAY.minusDays(30), 600, 660, 3)));
+
+        var analytics = new OccupancyAnalytics(properties, conferenceRoomRepository, bookingDetailsRepository);
+        analytics.reload();
+
+        var report = analytics.report(1L, "alice");
+        assertEquals(31, report.getTrackedDays());
+        assertEquals(2, report.getRoom().getBookings());
+        assertEquals(90, report.getUser().getBookedMinutes());
+        // Archived bookings are history, only today's is still to come
+        assertEquals(1, report.getRoom().getUpcomingBookings());
+    }
+
+    @Test
+    public void testUncachedUsersAreReadBackFromTheBookingTables() {
+
+        var amaze = new ConferenceRoom(1L, "Amaze", 3, BookingStatus.AVAILABLE.name());
+
+        var booking = new Booking();
+        booking.setInterval(15);
+        var properties = new ConferenceRoomProperties();
+        properties.setBooking(booking);
+        properties.getOccupancyUsers().setMaximumSize(1);
+
+        var conferenceRoomRepository = mock(ConferenceRoomRepository.class);
+        var bookingDetailsRepository = mock(BookingDetailsRepository.class);
+        when(conferenceRoomRepository.findCatalog()).thenReturn(List.of(amaze));
+        when(bookingDetailsRepository.findUserBookingUsage("alice")).thenReturn(List.of(
+                new BookingUsage(1L, "alice", TODAY, 600, 660, 3)));
+
+        var analytics = new OccupancyAnalytics(properties, conferenceRoomRepository, bookingDetailsRepository);
+        analytics.reload();
+
+        // alice is not cached yet, so her booking is only counted once her totals are read
+        analytics.recordBooking(amaze, "alice", TODAY, 600, 660, 3);
+        assertEquals(1, analytics.report(null, "alice").getUser().getBookings());
+        assertEquals(60, analytics.report(null, "alice").getUser().getBookedMinutes());
+        verify(bookingDetailsRepository, times(1)).findUserBookingUsage("alice");
+
+        analytics.reload();
+        assertEquals(1, analytics.report(null, "alice").getUser().getBookings());
+        verify(bookingDetailsRepository, times(2)).findUserBookingUsage("alice");
+    }
+}
@@ -0,0 +1,226 @@
+package com.mashreq.conference.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mashreq.conference.booking.ConferenceRoomBookingApplication;
+import com.mashreq.conference.booking.domain.CatalogFormat;
+import com.mashreq.conference.booking.exception.CatalogImportException;
+import com.mashreq.conference.booking.index.RoomCapacityIndex;
+import com.mashreq.conference.booking.service.OccupancyAnalytics;
+import com.mashreq.conference.booking.service.RoomCatalogImporter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = ConferenceRoomBookingApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:catalogdb",
+        "conference-room.catalog.batch-size=500",
+        "conference-room.catalog.max-reported-errors=2",
+        "conference-room.expiry.poll-interval-ms=3600000"})
+@AutoConfigureMockMvc
+public class RoomCatalogImportTest {
+
+    private static final String DATE = LocalDate.now().plusDays(1).toString();
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    RoomCapacityIndex roomCapacityIndex;
+
+    @Autowired
+    RoomCatalogImporter roomCatalogImporter;
+
+    @Autowired
+    OccupancyAnalytics occupancyAnalytics;
+
+    @Test
+    public void testCsvImportUpsertsByNameAndReportsBadRows() throws Exception {
+
+        // Nothing seats 45 until the import adds a room that does
+        book("csv-before", "14:00", "14:30", 45, false);
+
+        var report = importRooms(CSV, """
+                building,capacity,name
+                HQ,45,"Atrium, North"
+                HQ,5,Amaze
+                HQ,zero,Broken
+                HQ,4,
+                HQ,-1,Negative
+                """);
+
+        assertEquals(2, report.get("imported").asInt());
+        assertEquals(3, report.get("rejected").asInt());
+        assertEquals(List.of("line 4: capacity should be a whole number", "line 5: name is required"),
+                objectMapper.convertValue(report.get("errors"), List.class));
+        assertEquals(5, jdbcTemplate.queryForObject(
+                "SELECT capacity FROM CONFERENCE_ROOM WHERE name = 'Amaze'", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM CONFERENCE_ROOM WHERE name = 'Amaze'", Integer.class));
+        assertEquals(report.get("rooms").asInt(), roomCapacityIndex.rooms().size());
+
+        var available = mockMvc.perform(MockMvcRequestBuilders.get("/conference")
+                        .param("date", DATE).param("startTime", "14:00").param("endTime", "14:30"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(available.contains("Atrium, North"));
+
+        var booked = book("csv-after", "14:00", "14:30", 45, true);
+        assertEquals("Atrium, North", booked.get("response").get("conferenceRoom").get("name").asText());
+    }
+
+    @Test
+    public void testNdjsonImportAndUnsupportedFiles() throws Exception {
+
+        var report = importRooms(NDJSON, """
+                {"name":"Ndjson-1","capacity":6,"floor":3}
+                {"name":"Ndjson-2","capacity":9}
+                not json
+                """);
+
+        assertEquals(2, report.get("imported").asInt());
+        assertEquals(1, report.get("rejected").asInt());
+        assertEquals(9, jdbcTemplate.queryForObject(
+                "SELECT capacity FROM CONFERENCE_ROOM WHERE name = 'Ndjson-2'", Integer.class));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/conference/rooms/import")
+                        .contentType(CSV).content("room,seats\nA,3\n"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.post("/conference/rooms/import")
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    public void testBookingsKeepSucceedingDuringALargeImport() throws Exception {
+
+        int rows = 20_000;
+        var file = new StringBuilder("name,capacity\n");
+        for (int i = 0; i < rows; i++)
+            file.append("Bulk-").append(i).append(',').append(2 + i % 30).append('\n');
+
+        // Start times a booking interval apart, skipping the maintenance windows
+        var startMinutes = new ArrayList<Integer>();
+        for (int minute = 0; startMinutes.size() < 64; minute += 15)
+            if(minute != 9 * 60 && minute != 13 * 60 && minute != 17 * 60)
+                startMinutes.add(minute);
+
+        var executor = Executors.newFixedThreadPool(4);
+        var startGate = new CountDownLatch(1);
+        var bookings = new ArrayList<Future<?>>();
+        for (int i = 0; i < startMinutes.size(); i++) {
+            int startMinute = startMinutes.get(i);
+            var userId = "bulk-" + i;
+            bookings.add(executor.submit(() -> {
+                startGate.await();
+                book(userId, time(startMinute), time(startMinute + 15), 2, true);
+                return null;
+            }));
+        }
+
+        var importer = Executors.newSingleThreadExecutor();
+        var imported = importer.submit(() -> {
+            startGate.await();
+            return importRooms(CSV, file.toString());
+        });
+        startGate.countDown();
+
+        for (Future<?> booking : bookings)
+            booking.get();
+        var report = imported.get();
+        executor.shutdown();
+        importer.shutdown();
+
+        assertEquals(rows, report.get("imported").asInt());
+        assertEquals(0, report.get("rejected").asInt());
+        int catalogSize = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM CONFERENCE_ROOM", Integer.class);
+        assertEquals(catalogSize, roomCapacityIndex.rooms().size());
+        assertEquals(catalogSize, report.get("rooms").asInt());
+
+        // The new rooms are bookable straight away
+        var booked = book("bulk-last", "22:00", "22:15", 31, true);
+        assertTrue(booked.get("response").get("conferenceRoom").get("name").asText().startsWith("Bulk-"));
+    }
+
+    @Test
+    public void testAnImportThatStopsPartWayKeepsItsCommittedBatches() {
+
+        var file = new StringBuilder("name,capacity\n");
+        for (int i = 0; i < 1200; i++)
+            file.append("Partial-").append(i).append(",7\n");
+        var bytes = file.toString().getBytes(StandardCharsets.UTF_8);
+        // The connection drops somewhere in the third batch
+        var inputStream = new SequenceInputStream(new ByteArrayInputStream(bytes), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        });
+
+        var ex = assertThrows(CatalogImportException.class,
+                () -> roomCatalogImporter.importRooms(inputStream, CatalogFormat.CSV));
+        // The cause stays in the log, out of the message
+        assertEquals("Room catalog import stopped part way", ex.getMessage());
+        assertEquals(1000, ex.getReport().getImported());
+
+        int catalogSize = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM CONFERENCE_ROOM", Integer.class);
+        assertEquals(catalogSize, roomCapacityIndex.size());
+        assertEquals(catalogSize, ex.getReport().getRooms());
+        Long roomId = jdbcTemplate.queryForObject("SELECT id FROM CONFERENCE_ROOM WHERE name = 'Partial-999'", Long.class);
+        assertEquals("Partial-999", occupancyAnalytics.report(roomId, null).getRoom().getLabel());
+    }
+
+    private JsonNode importRooms(MediaType mediaType, String content) throws Exception {
+        var body = mockMvc.perform(MockMvcRequestBuilders.post("/conference/rooms/import")
+                        .contentType(mediaType)
+                        .content(content))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("response");
+    }
+
+    private JsonNode book(String userId, String startTime, String endTime, int numberOfPeople, boolean expectBooked)
+            throws Exception {
+        var body = mockMvc.perform(MockMvcRequestBuilders.post("/conference/book")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.format("{\"userId\":\"%s\",\"date\":\"%s\",\"startTime\":\"%s\",\"endTime\":\"%s\"," +
+                                "\"numberOfPeople\":%d}", userId, DATE, startTime, endTime, numberOfPeople)))
+                .andExpect(expectBooked ? status().isOk() : status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static String time(int minuteOfDay) {
+        return String.format("%02d:%02d", minuteOfDay / 60, minuteOfDay % 60);
+    }
+}
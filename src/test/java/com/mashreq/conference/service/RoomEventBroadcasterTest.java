@@ -0,0 +1,98 @@
+package com.mashreq.conference.service;
+
+import com.mashreq.conference.booking.config.ConferenceRoomProperties;
+import com.mashreq.conference.booking.domain.BookingStatus;
+import com.mashreq.conference.booking.domain.RoomStatusEvent;
+import com.mashreq.conference.booking.service.RoomEventBroadcaster;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RoomEventBroadcasterTest {
+
+    @Test
+    public void testSnapshotFirstAndSlowSubscribersAreDropped() throws Exception {
+
+        var properties = new ConferenceRoomProperties();
+        properties.getEvents().setQueueCapacity(4);
+        var broadcaster = new RoomEventBroadcaster(properties);
+
+        var fast = new RecordingEmitter(new CountDownLatch(0));
+        var gate = new CountDownLatch(1);
+        var slow = new RecordingEmitter(gate);
+        var snapshot = List.of(event(1L, BookingStatus.AVAILABLE));
+
+        broadcaster.subscribe(fast, () -> snapshot);
+        broadcaster.subscribe(slow, () -> snapshot);
+
+        var expected = new ArrayList<String>();
+        expected.add(RoomEventBroadcaster.SNAPSHOT);
+        for (int i = 0; i < 10; i++) {
+            var name = i % 2 == 0 ? RoomEventBroadcaster.BOOKED : RoomEventBroadcaster.RELEASED;
+            broadcaster.publish(name, event(1L, i % 2 == 0 ? BookingStatus.BOOKED : BookingStatus.AVAILABLE));
+            expected.add(name);
+            // the fast client keeps up
+            fast.awaitEvents(expected.size());
+        }
+
+        assertEquals(expected, fast.events);
+        assertTrue(slow.completed);
+        assertFalse(fast.completed);
+        assertEquals(1, broadcaster.subscriberCount());
+        assertEquals(1, broadcaster.getDroppedSubscribers());
+
+        gate.countDown();
+        broadcaster.destroy();
+        assertTrue(fast.completed);
+    }
+
+    private static RoomStatusEvent event(Long roomId, BookingStatus status) {
+        return RoomStatusEvent.builder()
+                .roomId(roomId)
+                .status(status.name())
+                .build();
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch gate;
+        private volatile boolean completed;
+
+        private RecordingEmitter(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            try {
+                gate.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            var header = builder.build().iterator().next().getData().toString();
+            events.add(header.substring("event:".length(), header.indexOf('\n')));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        private void awaitEvents(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while(events.size() < count && System.nanoTime() < deadline)
+                Thread.sleep(1);
+        }
+    }
+}
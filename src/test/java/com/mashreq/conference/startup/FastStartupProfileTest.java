@@ -0,0 +1,46 @@
+package com.mashreq.conference.startup;
+
+import com.mashreq.conference.booking.ConferenceRoomBookingApplication;
+import com.mashreq.conference.booking.domain.ConfRoomBookingRequestDto;
+import com.mashreq.conference.booking.domain.ConfRoomBookingResponseDto;
+import com.mashreq.conference.booking.index.RoomCapacityIndex;
+import com.mashreq.conference.booking.service.ConferenceBookingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts with the fast-startup profile, where Hibernate validates the entities against schema.sql instead of
+ * updating the schema, so any drift between the two fails here rather than on a deploy.
+ */
+public class FastStartupProfileTest {
+
+    @Test
+    public void testFastStartupProfileValidatesTheSchemaAndBooks() {
+
+        try (var context = new SpringApplicationBuilder(ConferenceRoomBookingApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("fast-startup")
+                .run("--spring.datasource.url=jdbc:h2:mem:faststartupdb",
+                        "--conference-room.expiry.poll-interval-ms=3600000")) {
+
+            // Lazy initialization leaves the indexes eager; they loaded the rooms from data.sql during startup
+            assertEquals(4, context.getBean(RoomCapacityIndex.class).size());
+
+            ConfRoomBookingResponseDto response = context.getBean(ConferenceBookingService.class)
+                    .bookRoom(ConfRoomBookingRequestDto.builder()
+                            .userId("startup")
+                            .date(LocalDate.now().plusDays(1).toString())
+                            .startTime("10:00")
+                            .endTime("10:15")
+                            .numberOfPeople(2)
+                            .build());
+            assertTrue(response.getStatus().contains("Booked"));
+        }
+    }
+}